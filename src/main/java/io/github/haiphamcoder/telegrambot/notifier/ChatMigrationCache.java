@@ -0,0 +1,125 @@
+package io.github.haiphamcoder.telegrambot.notifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+
+/**
+ * Remembers groups that Telegram has upgraded to supergroups, so that sends to
+ * the old chat ID go straight to the new one.
+ * <p>
+ * The client records a migration whenever a send fails with
+ * {@code migrate_to_chat_id}, retries that send once against the new ID and
+ * rewrites every later send to the old ID. Lookups are a single
+ * {@link ConcurrentHashMap} read on the send path.
+ * <p>
+ * A cache created with {@link #persistent(Path)} appends each migration to a
+ * text file of {@code old=new} lines and reloads it on start, so that a
+ * restarted process does not rediscover every migration the hard way. One
+ * cache can be shared by several clients.
+ */
+public final class ChatMigrationCache {
+
+    private final ConcurrentHashMap<ChatId, ChatId> migrations = new ConcurrentHashMap<>();
+    /** Null for an in-memory cache. */
+    private final Path file;
+    /** Serializes appends; a lock rather than {@code synchronized} so a virtual thread doing file I/O can unmount. */
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    /**
+     * Creates an in-memory cache.
+     */
+    public ChatMigrationCache() {
+        this.file = null;
+    }
+
+    private ChatMigrationCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Creates a cache backed by {@code file}, loading the migrations it already
+     * holds. The file is created on the first recorded migration.
+     *
+     * @param file the file to load from and append to
+     * @return the cache
+     * @throws IOException if the file exists but cannot be read
+     * @throws IllegalArgumentException if the file contains a malformed line
+     */
+    public static ChatMigrationCache persistent(Path file) throws IOException {
+        ChatMigrationCache cache = new ChatMigrationCache(file);
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String entry = line.strip();
+                if (entry.isEmpty() || entry.startsWith("#")) {
+                    continue;
+                }
+                int separator = entry.indexOf('=');
+                try {
+                    cache.migrations.put(ChatId.of(Long.parseLong(entry.substring(0, separator).strip())),
+                            ChatId.of(Long.parseLong(entry.substring(separator + 1).strip())));
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Malformed chat migration in " + file + ": " + line, e);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the chat to send to instead of {@code chatId}.
+     *
+     * @param chatId the requested chat
+     * @return the supergroup {@code chatId} was migrated to, or {@code chatId}
+     *         itself if it has not been migrated
+     */
+    public ChatId resolve(ChatId chatId) {
+        ChatId migrated = chatId != null ? migrations.get(chatId) : null;
+        return migrated != null ? migrated : chatId;
+    }
+
+    /**
+     * Records that {@code oldChatId} has been migrated to {@code newChatId}.
+     * For a persistent cache the entry is also appended to the file; if that
+     * fails the migration is still remembered in memory.
+     *
+     * @param oldChatId the ID of the former group
+     * @param newChatId the ID of the supergroup
+     */
+    public void record(long oldChatId, long newChatId) {
+        ChatId newId = ChatId.of(newChatId);
+        ChatId previous = migrations.put(ChatId.of(oldChatId), newId);
+        if (file != null && !newId.equals(previous)) {
+            append(oldChatId + "=" + newChatId + System.lineSeparator());
+        }
+    }
+
+    /**
+     * Returns a snapshot of the known migrations.
+     *
+     * @return an immutable map from old to new chat ID
+     */
+    public Map<ChatId, ChatId> migrations() {
+        return Map.copyOf(migrations);
+    }
+
+    private void append(String line) {
+        appendLock.lock();
+        try {
+            Files.writeString(file, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ignored) {
+            // best effort: the send path must not fail because the cache file is not writable
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+}
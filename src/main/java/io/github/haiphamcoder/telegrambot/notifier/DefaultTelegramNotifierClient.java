@@ -1,92 +1,543 @@
 package io.github.haiphamcoder.telegrambot.notifier;
 
-import java.io.IOException;
+import java.net.URI;
 import java.time.Duration;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-
-import org.apache.hc.client5.http.config.ConnectionConfig;
-import org.apache.hc.client5.http.config.RequestConfig;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.core5.util.Timeout;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
 import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
-import io.github.haiphamcoder.telegrambot.notifier.http.TelegramRequestExecutor;
+import io.github.haiphamcoder.telegrambot.notifier.http.ConnectionPoolStats;
+import io.github.haiphamcoder.telegrambot.notifier.http.MessageAckReader;
+import io.github.haiphamcoder.telegrambot.notifier.http.ResultReader;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramTransport;
+import io.github.haiphamcoder.telegrambot.notifier.model.BroadcastResult;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.MessageAck;
 import io.github.haiphamcoder.telegrambot.notifier.model.MessageResponse;
 import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.ratelimit.FloodControl;
+import io.github.haiphamcoder.telegrambot.notifier.ratelimit.RateLimiter;
+import io.github.haiphamcoder.telegrambot.notifier.types.BroadcastBody;
+import io.github.haiphamcoder.telegrambot.notifier.types.MessageTemplate;
+import io.github.haiphamcoder.telegrambot.notifier.types.RequestValidator;
 import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+import io.github.haiphamcoder.telegrambot.notifier.util.MessageSplitter;
 import io.github.haiphamcoder.telegrambot.notifier.util.ParseModeEscaper;
+import io.github.haiphamcoder.telegrambot.notifier.util.VirtualThreads;
 
 public final class DefaultTelegramNotifierClient implements TelegramNotifierClient {
 
-    private final CloseableHttpClient httpClient;
-    private final String baseUrl;
+    private static final ResultReader<MessageResponse> MESSAGE_READER = ResultReader.of(MessageResponse.class);
+
+    private final TelegramTransport transport;
+    /** Whether the transport was created by this client and must be closed with it. */
+    private final boolean ownsTransport;
+    /** Parsed once so that sends do not rebuild and re-parse the method URL. */
+    private final URI sendMessageUri;
+    /** Non-null when async sends run as blocking sends on virtual threads. */
+    private final ExecutorService virtualThreadExecutor;
+    /** Null when client-side rate limiting is disabled. */
+    private final RateLimiter rateLimiter;
+    /** Null when flood-control retries are disabled. */
+    private final FloodControl floodControl;
+    /** Null when migration errors are left to the caller. */
+    private final ChatMigrationCache chatMigrationCache;
+    private final int broadcastParallelism;
+    private final boolean splitLongMessages;
+    private final boolean validateRequests;
 
     public DefaultTelegramNotifierClient(String botToken, String baseUrl, Duration connectionTimeout,
             Duration responseTimeout) {
+        this(new TelegramNotifierClientBuilder()
+                .botToken(botToken)
+                .baseUrl(baseUrl)
+                .connectionTimeout(connectionTimeout)
+                .responseTimeout(responseTimeout));
+    }
 
-        this.baseUrl = baseUrl.endsWith("/") ? baseUrl + "bot" + botToken + "/" : baseUrl + "/bot" + botToken + "/";
+    DefaultTelegramNotifierClient(TelegramNotifierClientBuilder builder) {
+        this.sendMessageUri = URI.create(builder.getMethodBaseUrl() + "sendMessage");
+        this.ownsTransport = builder.getTransport() == null;
+        this.transport = ownsTransport ? builder.createTransport() : builder.getTransport();
+        this.virtualThreadExecutor = builder.isVirtualThreads() && VirtualThreads.isSupported()
+                ? VirtualThreads.newVirtualThreadPerTaskExecutor()
+                : null;
+        this.rateLimiter = builder.getRateLimiter();
+        this.floodControl = builder.getFloodControl();
+        this.chatMigrationCache = builder.getChatMigrationCache();
+        this.broadcastParallelism = builder.getBroadcastParallelism();
+        this.splitLongMessages = builder.isSplitLongMessages();
+        this.validateRequests = builder.isValidateRequests();
+    }
 
-        ConnectionConfig connectionConfig = ConnectionConfig.custom()
-                .setConnectTimeout(Timeout.of(connectionTimeout))
-                .build();
+    @Override
+    public void close() {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+        if (ownsTransport) {
+            transport.close();
+        }
+    }
 
-        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
-                .setDefaultConnectionConfig(connectionConfig)
-                .build();
+    @Override
+    public MessageResponse sendMessage(SendMessageRequest request) throws TelegramApiException, TelegramHttpException {
+        return send(request, MESSAGE_READER);
+    }
 
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setResponseTimeout(Timeout.of(responseTimeout))
-                .build();
+    @Override
+    public CompletableFuture<MessageResponse> sendMessageAsync(SendMessageRequest request) {
+        return sendAsync(request, MESSAGE_READER);
+    }
 
-        this.httpClient = HttpClients.custom()
-                .setConnectionManager(connectionManager)
-                .setDefaultRequestConfig(requestConfig)
-                .build();
+    @Override
+    public MessageResponse sendMessage(MessageTemplate template, String text)
+            throws TelegramApiException, TelegramHttpException {
+        return send(template, text, MESSAGE_READER);
     }
 
     @Override
-    public void close() {
+    public CompletableFuture<MessageResponse> sendMessageAsync(MessageTemplate template, String text) {
+        return sendAsync(template, text, MESSAGE_READER);
+    }
+
+    @Override
+    public MessageAck sendMessageAck(SendMessageRequest request) throws TelegramApiException, TelegramHttpException {
+        return send(request, MessageAckReader.INSTANCE);
+    }
+
+    @Override
+    public CompletableFuture<MessageAck> sendMessageAckAsync(SendMessageRequest request) {
+        return sendAsync(request, MessageAckReader.INSTANCE);
+    }
+
+    @Override
+    public MessageAck sendMessageAck(MessageTemplate template, String text)
+            throws TelegramApiException, TelegramHttpException {
+        return send(template, text, MessageAckReader.INSTANCE);
+    }
+
+    @Override
+    public CompletableFuture<MessageAck> sendMessageAckAsync(MessageTemplate template, String text) {
+        return sendAsync(template, text, MessageAckReader.INSTANCE);
+    }
+
+    @Override
+    public BroadcastResult broadcast(MessageTemplate template, String text, Collection<ChatId> chatIds) {
+        String escaped = escapeText(text, template.parseMode());
+        // an over-long text is split once and its parts are sent to each chat in order
+        List<SendMessageRequest> parts = isTooLong(escaped) ? split(template.toRequest(escaped)) : null;
+        if (validateRequests && parts == null) {
+            RequestValidator.validateBroadcast(template, escaped);
+        }
+        BroadcastBody body = parts == null ? template.encodeBroadcast(escaped) : null;
+        Map<ChatId, MessageAck> delivered = Collections.synchronizedMap(new LinkedHashMap<>());
+        Map<ChatId, Throwable> failed = Collections.synchronizedMap(new LinkedHashMap<>());
+        // results are recorded as sends complete, so no future per chat is kept
+        Semaphore inFlight = new Semaphore(broadcastParallelism);
+        for (ChatId chatId : chatIds) {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.put(chatId, new TelegramHttpException("Interrupted while broadcasting", e));
+                continue;
+            }
+            CompletableFuture<MessageAck> send;
+            try {
+                if (validateRequests) {
+                    RequestValidator.validateChatId(chatId);
+                }
+                send = parts == null ? broadcastTo(body, chatId) : broadcastPartsTo(parts, chatId);
+            } catch (RuntimeException e) {
+                send = CompletableFuture.failedFuture(e);
+            }
+            send.whenComplete((ack, error) -> {
+                try {
+                    if (error == null) {
+                        delivered.put(chatId, ack);
+                    } else {
+                        failed.put(chatId, error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquireUninterruptibly(broadcastParallelism);
+        return new BroadcastResult(Collections.unmodifiableMap(delivered), Collections.unmodifiableMap(failed));
+    }
+
+    private <T> T send(SendMessageRequest request, ResultReader<T> resultReader) {
+        SendMessageRequest payload = escapeText(request);
+        if (isTooLong(payload.text())) {
+            return sendParts(payload, resultReader);
+        }
+        validate(payload);
+        return sendEscaped(payload, resultReader);
+    }
+
+    private <T> T sendEscaped(SendMessageRequest request, ResultReader<T> resultReader) {
+        SendMessageRequest target = migrate(request);
         try {
-            httpClient.close();
-        } catch (IOException ignored) {
-            // ignored
+            return post(target, resultReader);
+        } catch (TelegramApiException e) {
+            SendMessageRequest migrated = migrated(target, e);
+            if (migrated == null) {
+                throw e;
+            }
+            return post(migrated, resultReader);
         }
     }
 
-    @Override
-    public MessageResponse sendMessage(SendMessageRequest request) throws TelegramApiException, TelegramHttpException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("chat_id", request.chatId());
-        
-        // Auto-escape text based on parse mode
-        String text = request.text();
-        ParseMode parseMode = request.parseMode();
-        if (parseMode != null && ParseModeEscaper.needsEscaping(text, parseMode)) {
-            text = ParseModeEscaper.escapePreservingEntities(text, parseMode);
+    private <T> CompletableFuture<T> sendAsync(SendMessageRequest request, ResultReader<T> resultReader) {
+        if (virtualThreadExecutor != null) {
+            // The built-in transports only use j.u.c locks, so blocking here never pins a carrier
+            return onVirtualThread(() -> send(request, resultReader));
+        }
+        SendMessageRequest payload;
+        try {
+            payload = escapeText(request);
+            if (isTooLong(payload.text())) {
+                return sendPartsAsync(payload, resultReader);
+            }
+            validate(payload);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return sendEscapedAsync(payload, resultReader);
+    }
+
+    private <T> CompletableFuture<T> sendEscapedAsync(SendMessageRequest request, ResultReader<T> resultReader) {
+        SendMessageRequest target = migrate(request);
+        CompletableFuture<T> result = postAsync(target, resultReader);
+        if (chatMigrationCache == null) {
+            return result;
+        }
+        return result.exceptionallyCompose(error -> {
+            SendMessageRequest migrated = migrated(target, error);
+            return migrated != null ? postAsync(migrated, resultReader) : CompletableFuture.failedFuture(error);
+        });
+    }
+
+    private <T> T send(MessageTemplate template, String text, ResultReader<T> resultReader) {
+        String escaped = escapeText(text, template.parseMode());
+        if (isTooLong(escaped)) {
+            return sendParts(template.toRequest(escaped), resultReader);
         }
-        params.put("text", text);
-        
-        if (parseMode != null) {
-            params.put("parse_mode", parseMode);
+        if (validateRequests) {
+            RequestValidator.validate(template, escaped);
         }
-        if (request.messageThreadId() != null) {
-            params.put("message_thread_id", request.messageThreadId());
+        MessageTemplate target = migrate(template);
+        try {
+            return post(target, escaped, resultReader);
+        } catch (TelegramApiException e) {
+            MessageTemplate migrated = migrated(target, e);
+            if (migrated == null) {
+                throw e;
+            }
+            return post(migrated, escaped, resultReader);
+        }
+    }
+
+    private <T> CompletableFuture<T> sendAsync(MessageTemplate template, String text, ResultReader<T> resultReader) {
+        if (virtualThreadExecutor != null) {
+            return onVirtualThread(() -> send(template, text, resultReader));
         }
-        if (request.directMessagesTopicId() != null) {
-            params.put("direct_messages_topic_id", request.directMessagesTopicId());
+        String escaped;
+        try {
+            escaped = escapeText(text, template.parseMode());
+            if (isTooLong(escaped)) {
+                return sendPartsAsync(template.toRequest(escaped), resultReader);
+            }
+            if (validateRequests) {
+                RequestValidator.validate(template, escaped);
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        MessageTemplate target = migrate(template);
+        CompletableFuture<T> result = postAsync(target, escaped, resultReader);
+        if (chatMigrationCache == null) {
+            return result;
         }
-        if (request.suggestedPostParameters() != null) {
-            params.put("suggested_post_parameters", request.suggestedPostParameters());
+        return result.exceptionallyCompose(error -> {
+            MessageTemplate migrated = migrated(target, error);
+            return migrated != null
+                    ? postAsync(migrated, escaped, resultReader)
+                    : CompletableFuture.failedFuture(error);
+        });
+    }
+
+    private boolean isTooLong(String escapedText) {
+        return splitLongMessages && escapedText != null && escapedText.length() > SendMessageRequest.MAX_TEXT_LENGTH;
+    }
+
+    private void validate(SendMessageRequest payload) {
+        if (validateRequests) {
+            RequestValidator.validate(payload);
         }
-        if (request.replyMarkup() != null) {
-            params.put("reply_markup", request.replyMarkup());
+    }
+
+    /** Sends the parts of an escaped, over-long request in order and returns the result of the first. */
+    private <T> T sendParts(SendMessageRequest request, ResultReader<T> resultReader) {
+        List<SendMessageRequest> parts = split(request);
+        T first = sendEscaped(parts.get(0), resultReader);
+        for (int i = 1; i < parts.size(); i++) {
+            sendEscaped(parts.get(i), resultReader);
         }
-        return TelegramRequestExecutor.postJson(httpClient, baseUrl + "sendMessage", params, MessageResponse.class);
+        return first;
+    }
+
+    private <T> CompletableFuture<T> sendPartsAsync(SendMessageRequest request, ResultReader<T> resultReader) {
+        return sendPartsAsync(split(request), resultReader);
+    }
+
+    private <T> CompletableFuture<T> sendPartsAsync(List<SendMessageRequest> parts, ResultReader<T> resultReader) {
+        CompletableFuture<T> first = sendEscapedAsync(parts.get(0), resultReader);
+        CompletableFuture<T> last = first;
+        for (int i = 1; i < parts.size(); i++) {
+            SendMessageRequest part = parts.get(i);
+            last = last.thenCompose(previous -> sendEscapedAsync(part, resultReader));
+        }
+        return last.thenCompose(previous -> first);
+    }
+
+    /** Splits an escaped request and validates every part before the first is sent. */
+    private List<SendMessageRequest> split(SendMessageRequest request) {
+        List<String> texts = MessageSplitter.split(request.text(), request.parseMode(),
+                SendMessageRequest.MAX_TEXT_LENGTH);
+        List<SendMessageRequest> parts = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            parts.add(new SendMessageRequest(
+                    request.chatId(),
+                    texts.get(i),
+                    request.parseMode(),
+                    request.messageThreadId(),
+                    request.directMessagesTopicId(),
+                    i == texts.size() - 1 ? request.suggestedPostParameters() : null,
+                    i == texts.size() - 1 ? request.replyMarkup() : null));
+            validate(parts.get(i));
+        }
+        return parts;
+    }
+
+    private CompletableFuture<MessageAck> broadcastPartsTo(List<SendMessageRequest> parts, ChatId chatId) {
+        List<SendMessageRequest> addressed = new ArrayList<>(parts.size());
+        for (SendMessageRequest part : parts) {
+            addressed.add(withChatId(part, chatId));
+        }
+        return sendPartsAsync(addressed, MessageAckReader.INSTANCE);
+    }
+
+    private CompletableFuture<MessageAck> broadcastTo(BroadcastBody body, ChatId chatId) {
+        ChatId target = chatMigrationCache != null ? chatMigrationCache.resolve(chatId) : chatId;
+        CompletableFuture<MessageAck> result = postAsync(body, target);
+        if (chatMigrationCache == null) {
+            return result;
+        }
+        return result.exceptionallyCompose(error -> {
+            ChatId migrated = recordMigration(target, error);
+            return migrated != null ? postAsync(body, migrated) : CompletableFuture.failedFuture(error);
+        });
+    }
+
+    private CompletableFuture<MessageAck> postAsync(BroadcastBody body, ChatId chatId) {
+        byte[] bytes = body.forChat(chatId);
+        return throttled(chatId, () -> transport.postJsonBodyAsync(sendMessageUri, bytes, MessageAckReader.INSTANCE));
+    }
+
+    private <T> T post(SendMessageRequest payload, ResultReader<T> resultReader) {
+        return throttledBlocking(payload.chatId(), () -> transport.postJson(sendMessageUri, payload, resultReader));
+    }
+
+    private <T> CompletableFuture<T> postAsync(SendMessageRequest payload, ResultReader<T> resultReader) {
+        return throttled(payload.chatId(), () -> transport.postJsonAsync(sendMessageUri, payload, resultReader));
+    }
+
+    private <T> T post(MessageTemplate template, String escapedText, ResultReader<T> resultReader) {
+        byte[] body = template.encode(escapedText);
+        return throttledBlocking(template.chatId(), () -> transport.postJsonBody(sendMessageUri, body, resultReader));
+    }
+
+    private <T> CompletableFuture<T> postAsync(MessageTemplate template, String escapedText,
+            ResultReader<T> resultReader) {
+        byte[] body;
+        try {
+            body = template.encode(escapedText);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return throttled(template.chatId(), () -> transport.postJsonBodyAsync(sendMessageUri, body, resultReader));
+    }
+
+    /**
+     * Starts {@code post} once a rate limit permit for the chat is available,
+     * and hands it to flood control for retries when enabled.
+     */
+    private <T> CompletableFuture<T> throttled(ChatId chatId, Supplier<CompletableFuture<T>> post) {
+        if (chatId == null) {
+            return post.get();
+        }
+        Supplier<CompletableFuture<T>> attempt = rateLimiter == null
+                ? post
+                : () -> rateLimiter.acquireAsync(chatId).thenCompose(permit -> post.get());
+        return floodControl == null ? attempt.get() : floodControl.execute(chatId, attempt);
+    }
+
+    /**
+     * Blocking counterpart of {@link #throttled}: runs {@code post} on the
+     * calling thread, so it keeps the transport's blocking connection pool, and
+     * only sleeps out a flood-control back-off after a 429.
+     */
+    private <T> T throttledBlocking(ChatId chatId, Supplier<T> post) {
+        Supplier<T> attempt = () -> {
+            acquirePermit(chatId);
+            return post.get();
+        };
+        if (floodControl == null || chatId == null) {
+            return attempt.get();
+        }
+        try {
+            return floodControl.executeBlocking(chatId, attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramHttpException("Interrupted while waiting for flood control", e);
+        }
+    }
+
+    private void acquirePermit(ChatId chatId) {
+        if (rateLimiter == null || chatId == null) {
+            return;
+        }
+        try {
+            rateLimiter.acquire(chatId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramHttpException("Interrupted while waiting for a rate limit permit", e);
+        }
+    }
+
+    /** Returns the request redirected to the supergroup its chat was migrated to, if any. */
+    private SendMessageRequest migrate(SendMessageRequest request) {
+        if (chatMigrationCache == null) {
+            return request;
+        }
+        ChatId chatId = chatMigrationCache.resolve(request.chatId());
+        return chatId == request.chatId() ? request : withChatId(request, chatId);
+    }
+
+    private MessageTemplate migrate(MessageTemplate template) {
+        if (chatMigrationCache == null) {
+            return template;
+        }
+        ChatId chatId = chatMigrationCache.resolve(template.chatId());
+        return chatId == template.chatId() ? template : template.withChatId(chatId);
+    }
+
+    /**
+     * Records the migration reported by {@code error} and returns the request to
+     * retry, or {@code null} if {@code error} is not a migration error.
+     */
+    private SendMessageRequest migrated(SendMessageRequest request, Throwable error) {
+        ChatId chatId = recordMigration(request.chatId(), error);
+        return chatId != null ? withChatId(request, chatId) : null;
+    }
+
+    private MessageTemplate migrated(MessageTemplate template, Throwable error) {
+        ChatId chatId = recordMigration(template.chatId(), error);
+        return chatId != null ? template.withChatId(chatId) : null;
+    }
+
+    private ChatId recordMigration(ChatId chatId, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (chatMigrationCache == null
+                || !(chatId instanceof ChatId.LongId oldChatId)
+                || !(cause instanceof TelegramApiException apiException)
+                || apiException.getMigrateToChatId() == null) {
+            return null;
+        }
+        long newChatId = apiException.getMigrateToChatId();
+        chatMigrationCache.record(oldChatId.value(), newChatId);
+        return ChatId.of(newChatId);
+    }
+
+    private <T> CompletableFuture<T> onVirtualThread(Supplier<T> send) {
+        try {
+            return CompletableFuture.supplyAsync(send, virtualThreadExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Client has been closed", e));
+        }
+    }
+
+    /**
+     * Returns a live snapshot of the transport's blocking connection pool.
+     *
+     * @return leased, available and pending counts of the pool, or
+     *         {@link ConnectionPoolStats#EMPTY} if the transport has none
+     */
+    public ConnectionPoolStats getConnectionPoolStats() {
+        return transport.getConnectionPoolStats();
+    }
+
+    /**
+     * Returns a live snapshot of the transport's async connection pool.
+     *
+     * @return leased, available and pending counts of the async pool, or
+     *         {@link ConnectionPoolStats#EMPTY} if it has not been created yet or
+     *         the transport has none
+     */
+    public ConnectionPoolStats getAsyncConnectionPoolStats() {
+        return transport.getAsyncConnectionPoolStats();
+    }
+
+    /**
+     * Returns the request with its text escaped for its parse mode, or the
+     * request itself if the text needs no escaping. The record is serialized as
+     * is, so no intermediate map is built.
+     */
+    private static SendMessageRequest escapeText(SendMessageRequest request) {
+        String text = escapeText(request.text(), request.parseMode());
+        if (text == request.text()) {
+            return request;
+        }
+        return new SendMessageRequest(
+                request.chatId(),
+                text,
+                request.parseMode(),
+                request.messageThreadId(),
+                request.directMessagesTopicId(),
+                request.suggestedPostParameters(),
+                request.replyMarkup());
+    }
+
+    private static SendMessageRequest withChatId(SendMessageRequest request, ChatId chatId) {
+        return new SendMessageRequest(
+                chatId,
+                request.text(),
+                request.parseMode(),
+                request.messageThreadId(),
+                request.directMessagesTopicId(),
+                request.suggestedPostParameters(),
+                request.replyMarkup());
+    }
+
+    /** Auto-escapes text based on parse mode; returns the text itself if nothing needs escaping. */
+    private static String escapeText(String text, ParseMode parseMode) {
+        return ParseModeEscaper.escapePreservingEntities(text, parseMode);
     }
 
 }
@@ -0,0 +1,466 @@
+package io.github.haiphamcoder.telegrambot.notifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramTransport;
+import io.github.haiphamcoder.telegrambot.notifier.model.BroadcastResult;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.MessageAck;
+import io.github.haiphamcoder.telegrambot.notifier.model.MessageResponse;
+import io.github.haiphamcoder.telegrambot.notifier.ratelimit.FloodControl;
+import io.github.haiphamcoder.telegrambot.notifier.types.MessageTemplate;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+import io.github.haiphamcoder.telegrambot.notifier.util.DaemonThreadFactory;
+
+/**
+ * Spreads sends over several bots, so that throughput grows with the number of
+ * bot tokens instead of being capped by the per-bot limits of Telegram.
+ * <p>
+ * Each chat is mapped to a bot by consistent hashing on a ring of virtual nodes
+ * per bot, so a chat keeps talking to the same bot and adding or removing a bot
+ * only moves the chats of about one bot's share. The ring is keyed by the bot
+ * ID (the part of the token before the colon), so rotating a token does not
+ * move any chat.
+ * <p>
+ * All bots share one transport and connection pool; everything else (rate
+ * limiter, flood control, ...) is configured per bot through
+ * {@link Builder#clientSettings(Consumer)}. A send fails over to the next bot on
+ * the ring when its bot answers with 401 (token revoked) or 429 (flood
+ * control), and the bot is skipped for new sends until it is expected to work
+ * again; with flood control enabled so is a bot that is paused for the chat.
+ * A 403 (e.g. the user blocked the bot) does not fail over: the chat refused
+ * that bot, and reaching it through another one would go around the user's
+ * choice.
+ * <p>
+ * Note that a bot can only post to groups and channels it is a member of, and
+ * to users who started it; failing over only helps where the other bots can
+ * reach the chat too.
+ * <p>
+ * Example usage:
+ *
+ * <pre>{@code
+ * TelegramNotifierClient client = ShardedTelegramNotifierClient.builder()
+ *         .botTokens(List.of(token1, token2, token3))
+ *         .clientSettings(settings -> settings
+ *                 .rateLimiter(RateLimiter.telegramDefaults())
+ *                 .floodControl(FloodControl.builder().build()))
+ *         .build();
+ * }</pre>
+ */
+public final class ShardedTelegramNotifierClient implements TelegramNotifierClient {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Shard[] shards;
+    /** Sorted positions of the virtual nodes on the ring, and the shard owning each. */
+    private final long[] ringPositions;
+    private final Shard[] ringOwners;
+    private final long unauthorizedDowntimeNanos;
+    private final TelegramTransport transport;
+    /** Whether the transport was created by this client and must be closed with it. */
+    private final boolean ownsTransport;
+    /** Runs the per-bot parts of a broadcast. */
+    private final ExecutorService broadcastExecutor;
+
+    private ShardedTelegramNotifierClient(Builder builder) {
+        TelegramNotifierClientBuilder transportSettings = builder.settings(builder.botTokens.get(0));
+        this.ownsTransport = transportSettings.getTransport() == null;
+        this.transport = ownsTransport ? transportSettings.createTransport() : transportSettings.getTransport();
+        ChatMigrationCache chatMigrationCache = transportSettings.getChatMigrationCache();
+        this.shards = new Shard[builder.botTokens.size()];
+        for (int i = 0; i < shards.length; i++) {
+            String botToken = builder.botTokens.get(i);
+            TelegramNotifierClientBuilder settings = builder.settings(botToken)
+                    .transport(transport)
+                    .chatMigrationCache(chatMigrationCache);
+            shards[i] = new Shard(botId(botToken), new DefaultTelegramNotifierClient(settings),
+                    settings.getFloodControl());
+        }
+        long[][] ring = new long[shards.length * builder.virtualNodes][];
+        for (int i = 0; i < shards.length; i++) {
+            for (int node = 0; node < builder.virtualNodes; node++) {
+                ring[i * builder.virtualNodes + node] = new long[] { hash(shards[i].botId + "#" + node), i };
+            }
+        }
+        Arrays.sort(ring, (a, b) -> Long.compareUnsigned(a[0], b[0]));
+        this.ringPositions = new long[ring.length];
+        this.ringOwners = new Shard[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            ringPositions[i] = ring[i][0];
+            ringOwners[i] = shards[(int) ring[i][1]];
+        }
+        this.unauthorizedDowntimeNanos = builder.unauthorizedDowntime.toNanos();
+        this.broadcastExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("telegram-notifier-shard-"));
+    }
+
+    /**
+     * Returns the bot that {@code chatId} is mapped to when all bots are
+     * available.
+     *
+     * @param chatId the chat
+     * @return the bot ID, i.e. the part of the bot token before the colon
+     */
+    public String botIdFor(ChatId chatId) {
+        return ringOwners[ringIndex(chatId)].botId;
+    }
+
+    @Override
+    public MessageResponse sendMessage(SendMessageRequest request) throws TelegramApiException, TelegramHttpException {
+        return route(request.chatId(), client -> client.sendMessage(request));
+    }
+
+    @Override
+    public CompletableFuture<MessageResponse> sendMessageAsync(SendMessageRequest request) {
+        return routeAsync(request.chatId(), client -> client.sendMessageAsync(request));
+    }
+
+    @Override
+    public MessageResponse sendMessage(MessageTemplate template, String text)
+            throws TelegramApiException, TelegramHttpException {
+        return route(template.chatId(), client -> client.sendMessage(template, text));
+    }
+
+    @Override
+    public CompletableFuture<MessageResponse> sendMessageAsync(MessageTemplate template, String text) {
+        return routeAsync(template.chatId(), client -> client.sendMessageAsync(template, text));
+    }
+
+    @Override
+    public MessageAck sendMessageAck(SendMessageRequest request) throws TelegramApiException, TelegramHttpException {
+        return route(request.chatId(), client -> client.sendMessageAck(request));
+    }
+
+    @Override
+    public CompletableFuture<MessageAck> sendMessageAckAsync(SendMessageRequest request) {
+        return routeAsync(request.chatId(), client -> client.sendMessageAckAsync(request));
+    }
+
+    @Override
+    public MessageAck sendMessageAck(MessageTemplate template, String text)
+            throws TelegramApiException, TelegramHttpException {
+        return route(template.chatId(), client -> client.sendMessageAck(template, text));
+    }
+
+    @Override
+    public CompletableFuture<MessageAck> sendMessageAckAsync(MessageTemplate template, String text) {
+        return routeAsync(template.chatId(), client -> client.sendMessageAckAsync(template, text));
+    }
+
+    /**
+     * Splits the chats by bot and runs one broadcast per bot in parallel, each
+     * under that bot's own limits. Chats whose bot fails over are retried one
+     * by one on the next bots of their ring.
+     */
+    @Override
+    public BroadcastResult broadcast(MessageTemplate template, String text, Collection<ChatId> chatIds) {
+        Map<Shard, List<ChatId>> byShard = new LinkedHashMap<>();
+        for (ChatId chatId : chatIds) {
+            byShard.computeIfAbsent(candidates(chatId)[0], shard -> new ArrayList<>()).add(chatId);
+        }
+        List<CompletableFuture<BroadcastResult>> parts = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, chats) -> parts.add(CompletableFuture.supplyAsync(
+                () -> shard.client.broadcast(template, text, chats), broadcastExecutor)));
+
+        Map<ChatId, MessageAck> delivered = new LinkedHashMap<>();
+        Map<ChatId, Throwable> failed = new LinkedHashMap<>();
+        int part = 0;
+        for (Shard shard : byShard.keySet()) {
+            BroadcastResult result = parts.get(part++).join();
+            delivered.putAll(result.delivered());
+            result.failed().forEach((chatId, error) -> {
+                // with a single bot there is nothing to fail over to
+                if (shards.length == 1 || !(error instanceof TelegramApiException apiException)
+                        || !shard.failOver(apiException)) {
+                    failed.put(chatId, error);
+                    return;
+                }
+                try {
+                    delivered.put(chatId, route(chatId, shard, client -> client.sendMessageAck(template, text)));
+                } catch (RuntimeException e) {
+                    failed.put(chatId, e);
+                }
+            });
+        }
+        return new BroadcastResult(delivered, failed);
+    }
+
+    /**
+     * Closes the per-bot clients and the shared transport, unless the transport
+     * was supplied through {@link Builder#clientSettings(Consumer)}.
+     */
+    @Override
+    public void close() {
+        broadcastExecutor.shutdown();
+        for (Shard shard : shards) {
+            shard.client.close();
+        }
+        if (ownsTransport) {
+            transport.close();
+        }
+    }
+
+    private <T> T route(ChatId chatId, Function<TelegramNotifierClient, T> send) {
+        return route(chatId, null, send);
+    }
+
+    /** Sends through the bots of {@code chatId} in order of preference, skipping {@code excluded}. */
+    private <T> T route(ChatId chatId, Shard excluded, Function<TelegramNotifierClient, T> send) {
+        List<Shard> order = new ArrayList<>(Arrays.asList(candidates(chatId)));
+        order.remove(excluded);
+        for (int i = 0;; i++) {
+            Shard shard = order.get(i);
+            try {
+                return send.apply(shard.client);
+            } catch (TelegramApiException e) {
+                if (i + 1 == order.size() || !shard.failOver(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> routeAsync(ChatId chatId,
+            Function<TelegramNotifierClient, CompletableFuture<T>> send) {
+        return attempt(candidates(chatId), 0, send);
+    }
+
+    private <T> CompletableFuture<T> attempt(Shard[] order, int index,
+            Function<TelegramNotifierClient, CompletableFuture<T>> send) {
+        Shard shard = order[index];
+        return send.apply(shard.client).exceptionallyCompose(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            if (index + 1 < order.length && cause instanceof TelegramApiException apiException
+                    && shard.failOver(apiException)) {
+                return attempt(order, index + 1, send);
+            }
+            return CompletableFuture.failedFuture(error);
+        });
+    }
+
+    /**
+     * Returns every bot in ring order from the chat's position, the ones that
+     * are currently available first.
+     */
+    private Shard[] candidates(ChatId chatId) {
+        Shard[] order = new Shard[shards.length];
+        Set<Shard> seen = new HashSet<>();
+        int found = 0;
+        for (int i = ringIndex(chatId); found < shards.length; i = (i + 1) % ringOwners.length) {
+            if (seen.add(ringOwners[i])) {
+                order[found++] = ringOwners[i];
+            }
+        }
+        long now = System.nanoTime();
+        Shard[] preferred = new Shard[order.length];
+        int next = 0;
+        for (Shard shard : order) {
+            if (shard.isAvailable(chatId, now)) {
+                preferred[next++] = shard;
+            }
+        }
+        for (Shard shard : order) {
+            if (!shard.isAvailable(chatId, now)) {
+                preferred[next++] = shard;
+            }
+        }
+        return preferred;
+    }
+
+    /** Index of the first virtual node at or after the chat's position on the ring, wrapping around. */
+    private int ringIndex(ChatId chatId) {
+        long position = chatId != null ? hash(chatId.getValue()) : 0;
+        int low = 0;
+        int high = ringPositions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(ringPositions[mid], position) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == ringPositions.length ? 0 : low;
+    }
+
+    /** FNV-1a, finished with the MurmurHash3 mixer so that similar keys spread over the whole ring. */
+    private static long hash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static String botId(String botToken) {
+        int colon = botToken.indexOf(':');
+        return colon > 0 ? botToken.substring(0, colon) : botToken;
+    }
+
+    /** One bot: its client and whether it is usable right now. */
+    private final class Shard {
+        private final String botId;
+        private final TelegramNotifierClient client;
+        /** Null when flood control is disabled for this bot. */
+        private final FloodControl floodControl;
+        private volatile long unavailableUntilNanos = System.nanoTime();
+
+        Shard(String botId, TelegramNotifierClient client, FloodControl floodControl) {
+            this.botId = botId;
+            this.client = client;
+            this.floodControl = floodControl;
+        }
+
+        boolean isAvailable(ChatId chatId, long now) {
+            if (now - unavailableUntilNanos < 0) {
+                return false;
+            }
+            return floodControl == null || chatId == null || floodControl.remainingPause(chatId).isZero();
+        }
+
+        /**
+         * Returns whether a send that failed with {@code error} should be retried
+         * on another bot, and takes this bot out of routing if the error says it
+         * is unusable for a while.
+         */
+        boolean failOver(TelegramApiException error) {
+            switch (error.getErrorCode()) {
+                case 401 -> unavailableFor(unauthorizedDowntimeNanos);
+                case 429 -> unavailableFor(error.getRetryAfter() != null
+                        ? Duration.ofSeconds(error.getRetryAfter()).toNanos()
+                        : Duration.ofSeconds(1).toNanos());
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void unavailableFor(long nanos) {
+            unavailableUntilNanos = System.nanoTime() + nanos;
+        }
+    }
+
+    /**
+     * Creates a new builder instance.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link ShardedTelegramNotifierClient}.
+     */
+    public static final class Builder {
+        private List<String> botTokens;
+        private Consumer<TelegramNotifierClientBuilder> clientSettings = settings -> {
+        };
+        private int virtualNodes = 128;
+        private Duration unauthorizedDowntime = Duration.ofMinutes(5);
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the tokens of the bots to spread sends over. Required.
+         *
+         * @param botTokens the bot tokens, without duplicates
+         * @return this builder instance
+         */
+        public Builder botTokens(Collection<String> botTokens) {
+            this.botTokens = List.copyOf(botTokens);
+            return this;
+        }
+
+        /**
+         * Sets how each bot's client is configured. The callback is applied to a
+         * fresh {@link TelegramNotifierClientBuilder} once for the shared
+         * transport and once per bot, so a rate limiter or flood control created
+         * inside it belongs to a single bot. The bot token set by the callback is
+         * replaced, and all bots share the transport and migration cache of the
+         * first call.
+         *
+         * @param clientSettings configures a client builder
+         * @return this builder instance
+         */
+        public Builder clientSettings(Consumer<TelegramNotifierClientBuilder> clientSettings) {
+            this.clientSettings = clientSettings;
+            return this;
+        }
+
+        /**
+         * Sets the number of points each bot has on the hash ring. More points
+         * spread chats more evenly. Defaults to 128.
+         *
+         * @param virtualNodes the points per bot
+         * @return this builder instance
+         */
+        public Builder virtualNodes(int virtualNodes) {
+            if (virtualNodes <= 0) {
+                throw new IllegalArgumentException("virtualNodes must be positive");
+            }
+            this.virtualNodes = virtualNodes;
+            return this;
+        }
+
+        /**
+         * Sets how long a bot whose token was rejected (HTTP 401) is skipped for
+         * new sends. Defaults to five minutes.
+         *
+         * @param unauthorizedDowntime how long the bot is skipped
+         * @return this builder instance
+         */
+        public Builder unauthorizedDowntime(Duration unauthorizedDowntime) {
+            this.unauthorizedDowntime = unauthorizedDowntime;
+            return this;
+        }
+
+        /**
+         * Builds the client and its shared transport.
+         *
+         * @return the client
+         * @throws IllegalArgumentException if no bot tokens were set or a token is
+         *                                  listed twice
+         */
+        public ShardedTelegramNotifierClient build() {
+            if (botTokens == null || botTokens.isEmpty()) {
+                throw new IllegalArgumentException("botTokens is required");
+            }
+            if (new HashSet<>(botTokens).size() != botTokens.size()) {
+                throw new IllegalArgumentException("botTokens must not contain duplicates");
+            }
+            return new ShardedTelegramNotifierClient(this);
+        }
+
+        private TelegramNotifierClientBuilder settings(String botToken) {
+            TelegramNotifierClientBuilder settings = new TelegramNotifierClientBuilder();
+            clientSettings.accept(settings);
+            return settings.botToken(botToken);
+        }
+    }
+
+}
@@ -1,14 +1,154 @@
 package io.github.haiphamcoder.telegrambot.notifier;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
 import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+import io.github.haiphamcoder.telegrambot.notifier.model.BroadcastResult;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.MessageAck;
 import io.github.haiphamcoder.telegrambot.notifier.model.MessageResponse;
+import io.github.haiphamcoder.telegrambot.notifier.types.MessageTemplate;
 import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
 
 public interface TelegramNotifierClient extends AutoCloseable {
 
     MessageResponse sendMessage(SendMessageRequest request) throws TelegramApiException, TelegramHttpException;
 
+    /**
+     * Sends a message without blocking the calling thread.
+     * <p>
+     * The returned future completes with the sent message, or exceptionally with
+     * a {@link TelegramApiException} / {@link TelegramHttpException}. The default
+     * implementation simply runs {@link #sendMessage(SendMessageRequest)} on the
+     * common pool; {@link DefaultTelegramNotifierClient} overrides it with a truly
+     * non-blocking implementation.
+     *
+     * @param request the message to send
+     * @return a future completed with the sent message
+     */
+    default CompletableFuture<MessageResponse> sendMessageAsync(SendMessageRequest request) {
+        return CompletableFuture.supplyAsync(() -> sendMessage(request));
+    }
+
+    /**
+     * Sends {@code text} with the fixed fields of a compiled template. The text is
+     * escaped for the template's parse mode exactly like
+     * {@link SendMessageRequest#text()}.
+     * <p>
+     * The default implementation expands the template into an ordinary request;
+     * {@link DefaultTelegramNotifierClient} splices the text into the
+     * pre-encoded body instead.
+     *
+     * @param template the compiled template
+     * @param text     the message text
+     * @return the sent message
+     */
+    default MessageResponse sendMessage(MessageTemplate template, String text)
+            throws TelegramApiException, TelegramHttpException {
+        return sendMessage(template.toRequest(text));
+    }
+
+    /**
+     * Non-blocking variant of {@link #sendMessage(MessageTemplate, String)}.
+     *
+     * @param template the compiled template
+     * @param text     the message text
+     * @return a future completed with the sent message
+     */
+    default CompletableFuture<MessageResponse> sendMessageAsync(MessageTemplate template, String text) {
+        SendMessageRequest request;
+        try {
+            request = template.toRequest(text);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return sendMessageAsync(request);
+    }
+
+    /**
+     * Sends a message and returns only the identifiers needed to reference it
+     * later. Meant for fire-and-forget senders: {@link DefaultTelegramNotifierClient}
+     * scans the response for {@code message_id} and {@code chat.id} and skips the
+     * rest without binding a {@link MessageResponse}.
+     *
+     * @param request the message to send
+     * @return the chat and message identifiers of the sent message
+     */
+    default MessageAck sendMessageAck(SendMessageRequest request) throws TelegramApiException, TelegramHttpException {
+        return MessageAck.of(sendMessage(request));
+    }
+
+    /**
+     * Non-blocking variant of {@link #sendMessageAck(SendMessageRequest)}.
+     *
+     * @param request the message to send
+     * @return a future completed with the chat and message identifiers
+     */
+    default CompletableFuture<MessageAck> sendMessageAckAsync(SendMessageRequest request) {
+        return sendMessageAsync(request).thenApply(MessageAck::of);
+    }
+
+    /**
+     * Template variant of {@link #sendMessageAck(SendMessageRequest)}.
+     *
+     * @param template the compiled template
+     * @param text     the message text
+     * @return the chat and message identifiers of the sent message
+     */
+    default MessageAck sendMessageAck(MessageTemplate template, String text)
+            throws TelegramApiException, TelegramHttpException {
+        return MessageAck.of(sendMessage(template, text));
+    }
+
+    /**
+     * Non-blocking variant of {@link #sendMessageAck(MessageTemplate, String)}.
+     *
+     * @param template the compiled template
+     * @param text     the message text
+     * @return a future completed with the chat and message identifiers
+     */
+    default CompletableFuture<MessageAck> sendMessageAckAsync(MessageTemplate template, String text) {
+        return sendMessageAsync(template, text).thenApply(MessageAck::of);
+    }
+
+    /**
+     * Sends the same message to many chats and waits until every send has
+     * finished. The template's own chat ID is ignored; the text is escaped for
+     * the template's parse mode once. Failures are collected per chat instead of
+     * being thrown.
+     * <p>
+     * The default implementation sends to one chat after the other;
+     * {@link DefaultTelegramNotifierClient} encodes the body once, only splices
+     * in each chat ID and keeps a bounded number of sends in flight (see
+     * {@link TelegramNotifierClientBuilder#broadcastParallelism(int)}), subject to
+     * the client's rate limiter. With
+     * {@link TelegramNotifierClientBuilder#splitLongMessages(boolean)}, an
+     * over-long text is sent to each chat as several messages, and the
+     * acknowledgement of the first is reported; otherwise it must fit into one
+     * message.
+     *
+     * @param template the compiled template
+     * @param text     the message text
+     * @param chatIds  the chats to send to
+     * @return the acknowledgement or error of every chat
+     */
+    default BroadcastResult broadcast(MessageTemplate template, String text, Collection<ChatId> chatIds) {
+        Map<ChatId, MessageAck> delivered = new LinkedHashMap<>();
+        Map<ChatId, Throwable> failed = new LinkedHashMap<>();
+        for (ChatId chatId : chatIds) {
+            try {
+                delivered.put(chatId, sendMessageAck(template.withChatId(chatId), text));
+            } catch (RuntimeException e) {
+                failed.put(chatId, e);
+            }
+        }
+        return new BroadcastResult(delivered, failed);
+    }
+
     @Override
     default void close() {
         // default no-op; implementations may override and need not throw checked exceptions
@@ -2,12 +2,42 @@ package io.github.haiphamcoder.telegrambot.notifier;
 
 import java.time.Duration;
 
+import io.github.haiphamcoder.telegrambot.notifier.http.ApacheHttpTransport;
+import io.github.haiphamcoder.telegrambot.notifier.http.HttpProtocol;
+import io.github.haiphamcoder.telegrambot.notifier.http.JdkHttpTransport;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramResponseParser;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramTransport;
+import io.github.haiphamcoder.telegrambot.notifier.http.TransportType;
+import io.github.haiphamcoder.telegrambot.notifier.ratelimit.FloodControl;
+import io.github.haiphamcoder.telegrambot.notifier.ratelimit.RateLimiter;
+
 public final class TelegramNotifierClientBuilder {
 
     private String botToken;
     private String baseUrl = "https://api.telegram.org";
     private Duration connectionTimeout = Duration.ofSeconds(10);
     private Duration responseTimeout = Duration.ofSeconds(30);
+    private boolean virtualThreads;
+    private HttpProtocol httpProtocol = HttpProtocol.HTTP_1_1;
+    private int maxConnectionsTotal = 50;
+    private int maxConnectionsPerRoute = 50;
+    private Duration connectionTimeToLive;
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    private Duration maxIdleTime;
+    private Duration connectionRequestTimeout = Duration.ofSeconds(30);
+    private int prewarmConnections;
+    private Duration keepWarmInterval;
+    private TransportType transportType = TransportType.APACHE_HTTP_CLIENT;
+    private TelegramTransport transport;
+    private long maxResponseSize = TelegramResponseParser.DEFAULT_MAX_RESPONSE_SIZE;
+    private RateLimiter rateLimiter;
+    private FloodControl floodControl;
+    private ChatMigrationCache chatMigrationCache;
+    /** Whether {@link #chatMigrationCache(ChatMigrationCache)} was called; {@code null} then disables the cache. */
+    private boolean chatMigrationCacheSet;
+    private int broadcastParallelism = 16;
+    private boolean splitLongMessages;
+    private boolean validateRequests = true;
 
     public TelegramNotifierClientBuilder botToken(String botToken) {
         this.botToken = botToken;
@@ -29,8 +59,374 @@ public final class TelegramNotifierClientBuilder {
         return this;
     }
 
+    /**
+     * Runs {@link TelegramNotifierClient#sendMessageAsync} on JDK 21 virtual
+     * threads instead of the transport's async engine.
+     * <p>
+     * Each send then performs ordinary blocking I/O on its own virtual thread, so
+     * tens of thousands of sends can be in flight without sizing a thread pool.
+     * The option is resolved reflectively: on runtimes without virtual threads
+     * (such as Java 17) it is ignored and the transport's own async path is
+     * used.
+     *
+     * @param virtualThreads {@code true} to send on virtual threads
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Selects the HTTP protocol. With {@link HttpProtocol#HTTP_2} both
+     * {@code sendMessage} and {@code sendMessageAsync} go through the async
+     * engine and share one multiplexed connection per host, so the pool size
+     * settings no longer apply. Defaults to {@link HttpProtocol#HTTP_1_1}.
+     *
+     * @param httpProtocol the protocol to use
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder httpProtocol(HttpProtocol httpProtocol) {
+        this.httpProtocol = httpProtocol;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of pooled connections across all routes.
+     * Defaults to {@code 50}.
+     *
+     * @param maxConnectionsTotal the maximum total number of connections
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder maxConnectionsTotal(int maxConnectionsTotal) {
+        if (maxConnectionsTotal <= 0) {
+            throw new IllegalArgumentException("maxConnectionsTotal must be positive");
+        }
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of pooled connections per route. A client normally
+     * talks to a single host, so this defaults to the same value as
+     * {@link #maxConnectionsTotal(int)} rather than httpclient5's default of 5.
+     *
+     * @param maxConnectionsPerRoute the maximum number of connections per route
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        if (maxConnectionsPerRoute <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerRoute must be positive");
+        }
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * Sets the total time to live of a pooled connection, after which it is
+     * closed instead of being reused. Unlimited by default.
+     *
+     * @param connectionTimeToLive the connection time to live, or {@code null}
+     *                             for no limit
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder connectionTimeToLive(Duration connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+        return this;
+    }
+
+    /**
+     * Sets the period of inactivity after which a pooled connection is checked
+     * for staleness before being leased. Defaults to 2 seconds.
+     *
+     * @param validateAfterInactivity the inactivity period, or {@code null} to
+     *                                disable validation
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder validateAfterInactivity(Duration validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+        return this;
+    }
+
+    /**
+     * Enables a background evictor that closes expired connections and
+     * connections idle for longer than {@code maxIdleTime}. Disabled by default.
+     *
+     * @param maxIdleTime the maximum idle time, or {@code null} to disable
+     *                    background eviction
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder evictIdleConnections(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+        return this;
+    }
+
+    /**
+     * Sets how long a send may wait to lease a connection from the pool before
+     * failing. Defaults to 30 seconds.
+     *
+     * @param connectionRequestTimeout the lease timeout
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder connectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        return this;
+    }
+
+    /**
+     * Opens {@code prewarmConnections} connections to the base URL while
+     * {@link #build()} runs, so the first send does not pay the DNS, TCP and TLS
+     * handshake cost. Connections are opened with concurrent {@code getMe}
+     * calls; {@code build()} blocks until they complete or time out, i.e. up to
+     * the connection plus response timeout.
+     * <p>
+     * Only the HTTP/1.1 pool of the Apache transport is warmed, which serves
+     * blocking sends (also with flood control enabled). Async sends and
+     * broadcasts use a separate pool that starts cold, and with
+     * {@link HttpProtocol#HTTP_2}, {@link TransportType#JDK_HTTP_CLIENT} or a
+     * custom {@link #transport(TelegramTransport)} nothing is warmed and
+     * {@code build()} does not block. Disabled by default.
+     *
+     * @param prewarmConnections the number of connections to open up front
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder prewarmConnections(int prewarmConnections) {
+        if (prewarmConnections < 0) {
+            throw new IllegalArgumentException("prewarmConnections must not be negative");
+        }
+        this.prewarmConnections = prewarmConnections;
+        return this;
+    }
+
+    /**
+     * Re-probes the pre-warmed connections whenever the client has been idle for
+     * {@code keepWarmInterval}, keeping at least {@link #prewarmConnections(int)}
+     * connections alive during quiet periods. Should be shorter than the idle
+     * timeout of the server and of {@link #evictIdleConnections(Duration)}. Has
+     * no effect unless pre-warming is enabled.
+     *
+     * @param keepWarmInterval the keep-warm interval, or {@code null} to disable
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder keepWarmInterval(Duration keepWarmInterval) {
+        this.keepWarmInterval = keepWarmInterval;
+        return this;
+    }
+
+    /**
+     * Selects one of the built-in transports. Defaults to
+     * {@link TransportType#APACHE_HTTP_CLIENT}; {@link TransportType#JDK_HTTP_CLIENT}
+     * avoids loading httpclient5 at all, but ignores the pool and pre-warming
+     * settings.
+     *
+     * @param transportType the built-in transport to use
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder transportType(TransportType transportType) {
+        this.transportType = transportType;
+        return this;
+    }
+
+    /**
+     * Uses an existing transport instead of creating one. All connection, pool
+     * and protocol settings of this builder are then ignored, and the transport
+     * is not closed when the client is closed, so it can be shared between
+     * clients.
+     *
+     * @param transport the transport to use
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder transport(TelegramTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Sets the largest response body the client will read. Responses are
+     * decoded while they stream in and a larger body fails the send with a
+     * {@link io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException}
+     * instead of being buffered. Defaults to 1 MiB.
+     *
+     * @param maxResponseSize the maximum response body size in bytes
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder maxResponseSize(long maxResponseSize) {
+        if (maxResponseSize <= 0) {
+            throw new IllegalArgumentException("maxResponseSize must be positive");
+        }
+        this.maxResponseSize = maxResponseSize;
+        return this;
+    }
+
+    /**
+     * Throttles sends on the client side so that they stay within Telegram's
+     * flood limits instead of running into HTTP 429. Blocking sends wait for a
+     * permit; async sends are delayed without holding a thread. Disabled by
+     * default. Pass the same limiter to every client of one bot.
+     *
+     * @param rateLimiter the limiter to use, or {@code null} to disable
+     * @return this builder instance
+     * @see RateLimiter#telegramDefaults()
+     */
+    public TelegramNotifierClientBuilder rateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
+    /**
+     * Retries sends rejected by Telegram's flood control after the
+     * {@code retry_after} it returns, pausing all sends to the affected chat
+     * for that long. Async retries are scheduled on a shared timer; blocking
+     * sends keep the blocking connection pool and sleep out the back-off on
+     * the calling thread. Disabled by default.
+     *
+     * @param floodControl the retry engine to use, or {@code null} to disable
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder floodControl(FloodControl floodControl) {
+        this.floodControl = floodControl;
+        return this;
+    }
+
+    /**
+     * Sets the cache of group-to-supergroup migrations. When a send fails because
+     * the group was upgraded, the client records the new chat ID, retries the send
+     * once against it and sends there directly from then on. Defaults to an
+     * in-memory cache per client; use {@link ChatMigrationCache#persistent} to
+     * keep migrations across restarts.
+     *
+     * @param chatMigrationCache the cache to use, or {@code null} to leave
+     *                           migration errors to the caller
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder chatMigrationCache(ChatMigrationCache chatMigrationCache) {
+        this.chatMigrationCache = chatMigrationCache;
+        this.chatMigrationCacheSet = true;
+        return this;
+    }
+
+    /**
+     * Sets how many sends of one
+     * {@link TelegramNotifierClient#broadcast broadcast} may be in flight at the
+     * same time, including sends waiting for a rate limit permit. Defaults to
+     * 16.
+     *
+     * @param broadcastParallelism the maximum number of concurrent sends
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder broadcastParallelism(int broadcastParallelism) {
+        if (broadcastParallelism <= 0) {
+            throw new IllegalArgumentException("broadcastParallelism must be positive");
+        }
+        this.broadcastParallelism = broadcastParallelism;
+        return this;
+    }
+
+    /**
+     * Sends texts that are longer than
+     * {@link io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest#MAX_TEXT_LENGTH}
+     * after escaping as several messages instead of failing. The escaped text is
+     * cut at line breaks or spaces, open formatting is closed and reopened across
+     * the cut, and the parts are sent in order to the same chat; the reply
+     * markup and suggested post parameters are attached to the last part only,
+     * and the response of the first part is returned. Broadcasts split the text
+     * once and send the parts to each chat in order, without the shared
+     * pre-encoded body. Disabled by default.
+     *
+     * @param splitLongMessages {@code true} to split over-long texts
+     * @return this builder instance
+     * @see io.github.haiphamcoder.telegrambot.notifier.util.MessageSplitter
+     */
+    public TelegramNotifierClientBuilder splitLongMessages(boolean splitLongMessages) {
+        this.splitLongMessages = splitLongMessages;
+        return this;
+    }
+
+    /**
+     * Checks every request against the limits of the Bot API before it is sent
+     * (see {@link io.github.haiphamcoder.telegrambot.notifier.types.RequestValidator}),
+     * so that a request Telegram would reject fails locally with a
+     * {@link io.github.haiphamcoder.telegrambot.notifier.exception.TelegramValidationException}
+     * instead of costing a round trip. Enabled by default.
+     *
+     * @param validateRequests {@code false} to leave all validation to Telegram
+     * @return this builder instance
+     */
+    public TelegramNotifierClientBuilder validateRequests(boolean validateRequests) {
+        this.validateRequests = validateRequests;
+        return this;
+    }
+
     public TelegramNotifierClient build() {
-        return new DefaultTelegramNotifierClient(botToken, baseUrl, connectionTimeout, responseTimeout);
+        return new DefaultTelegramNotifierClient(this);
+    }
+
+    /**
+     * Creates the transport described by this builder. Kept out of the client so
+     * that a JDK-only configuration never references httpclient5 classes.
+     */
+    TelegramTransport createTransport() {
+        if (transportType == TransportType.JDK_HTTP_CLIENT) {
+            return new JdkHttpTransport(connectionTimeout, responseTimeout, httpProtocol, maxResponseSize);
+        }
+        return createApacheTransport();
+    }
+
+    private TelegramTransport createApacheTransport() {
+        ApacheHttpTransport apacheTransport = ApacheHttpTransport.builder()
+                .connectionTimeout(connectionTimeout)
+                .responseTimeout(responseTimeout)
+                .httpProtocol(httpProtocol)
+                .maxConnectionsTotal(maxConnectionsTotal)
+                .maxConnectionsPerRoute(maxConnectionsPerRoute)
+                .connectionTimeToLive(connectionTimeToLive)
+                .validateAfterInactivity(validateAfterInactivity)
+                .evictIdleConnections(maxIdleTime)
+                .connectionRequestTimeout(connectionRequestTimeout)
+                .maxResponseSize(maxResponseSize)
+                .build();
+        apacheTransport.prewarm(getMethodBaseUrl(), prewarmConnections, keepWarmInterval);
+        return apacheTransport;
+    }
+
+    String getMethodBaseUrl() {
+        return baseUrl.endsWith("/") ? baseUrl + "bot" + botToken + "/" : baseUrl + "/bot" + botToken + "/";
+    }
+
+    boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    TelegramTransport getTransport() {
+        return transport;
+    }
+
+    RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    FloodControl getFloodControl() {
+        return floodControl;
+    }
+
+    /** Returns the cache that was set, or a new in-memory one for each client built without one. */
+    ChatMigrationCache getChatMigrationCache() {
+        if (!chatMigrationCacheSet) {
+            return new ChatMigrationCache();
+        }
+        return chatMigrationCache;
+    }
+
+    int getBroadcastParallelism() {
+        return broadcastParallelism;
+    }
+
+    boolean isSplitLongMessages() {
+        return splitLongMessages;
+    }
+
+    boolean isValidateRequests() {
+        return validateRequests;
     }
 
 }
@@ -0,0 +1,438 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+import io.github.haiphamcoder.telegrambot.notifier.util.DaemonThreadFactory;
+import io.github.haiphamcoder.telegrambot.notifier.util.ParseModeEscaper;
+import io.github.haiphamcoder.telegrambot.notifier.util.SharedTimer;
+
+/**
+ * Merges messages to the same chat and thread that arrive within a short
+ * window into as few messages as fit into {@link SendMessageRequest#MAX_TEXT_LENGTH}.
+ * <p>
+ * The first message for a chat opens a window; everything sent to that chat
+ * (same thread, same parse mode) until the window closes is joined with a
+ * separator and handed to the downstream sink as one message. A buffer that
+ * would overflow a single message is handed on early, so every merged message
+ * fits and at most one message per chat is buffered.
+ * <p>
+ * Each part is escaped for its parse mode on its own before the join, which
+ * escapes lone Markdown markers; the client's own escaping leaves the joined
+ * text unchanged. Escaping keeps HTML tags and entities as they are, though,
+ * so a part whose tags or Markdown markers are not closed in order, or that
+ * uses an HTML entity Telegram does not know, is passed through on its own:
+ * merged, it could pair up with markup in the next alert, or fail the whole
+ * merged message. Messages with a reply markup or suggested post parameters,
+ * and {@link Priority#HIGH} messages, are passed through as they are too;
+ * other lanes are merged separately and keep their priority.
+ * <p>
+ * Closed windows are handed on by a thread of the sink's own, so a downstream
+ * sink that blocks when full holds up neither the producers nor the shared
+ * timer. A merged message the downstream sink drops or rejects is passed to
+ * {@link Builder#onError(BiConsumer)}.
+ * <p>
+ * Example usage:
+ *
+ * <pre>{@code
+ * NotificationSink sink = CoalescingSink.builder()
+ *         .downstream(dispatcher)
+ *         .window(Duration.ofSeconds(2))
+ *         .build();
+ * }</pre>
+ */
+public final class CoalescingSink implements NotificationSink {
+
+    private final NotificationSink downstream;
+    private final long windowNanos;
+    private final String separator;
+    private final BiConsumer<SendMessageRequest, Throwable> errorHandler;
+    private final ConcurrentHashMap<Key, Buffer> buffers = new ConcurrentHashMap<>();
+    /** Hands closed windows on, off the shared timer thread. */
+    private final ThreadPoolExecutor flusher;
+    private volatile boolean closed;
+
+    private CoalescingSink(Builder builder) {
+        this.downstream = builder.downstream;
+        this.windowNanos = builder.window.toNanos();
+        this.separator = builder.separator;
+        this.errorHandler = builder.errorHandler;
+        this.flusher = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new DaemonThreadFactory("telegram-notifier-coalesce-"));
+        this.flusher.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Buffers the message until its window closes. Messages that cannot be
+     * merged are handed to the downstream sink right away.
+     *
+     * @param request the message to send
+     * @return {@code true} once buffered; for pass-through messages, the result
+     *         of the downstream sink
+     */
+    @Override
+    public boolean submit(SendMessageRequest request) {
+        return submit(request, Priority.NORMAL);
+    }
+
+    /**
+     * Same as {@link #submit(SendMessageRequest)} in the given lane.
+     * {@link Priority#HIGH} messages are never held back.
+     *
+     * @param request  the message to send
+     * @param priority the delivery lane
+     * @return {@code true} once buffered; for pass-through messages, the result
+     *         of the downstream sink
+     */
+    @Override
+    public boolean submit(SendMessageRequest request, Priority priority) {
+        if (closed) {
+            throw new IllegalStateException("Sink has been closed");
+        }
+        if (priority == Priority.HIGH || request.replyMarkup() != null || request.suggestedPostParameters() != null) {
+            return downstream.submit(request, priority);
+        }
+        Key key = new Key(request.chatId(), request.messageThreadId(), request.directMessagesTopicId(),
+                request.parseMode(), priority);
+        String part = ParseModeEscaper.escapePreservingEntities(request.text(), request.parseMode());
+        if (!isSelfContained(part, request.parseMode())) {
+            return downstream.submit(request, priority);
+        }
+        Buffer[] full = new Buffer[1];
+        Buffer added = buffers.compute(key, (k, buffer) -> {
+            if (buffer != null && !buffer.fits(part)) {
+                full[0] = buffer;
+                buffer = null;
+            }
+            if (buffer == null) {
+                Buffer created = new Buffer(k);
+                created.timer = SharedTimer.schedule(() -> flushLater(created), windowNanos);
+                buffer = created;
+            }
+            buffer.add(request, part);
+            return buffer;
+        });
+        if (full[0] != null) {
+            full[0].timer.cancel(false);
+            handOn(full[0].toRequest(), priority);
+        }
+        if (closed) {
+            // close() may have swept the buffers before this one was added
+            added.timer.cancel(false);
+            flush(added);
+        }
+        return true;
+    }
+
+    /**
+     * Hands all buffered messages on without waiting for their windows, waits
+     * for windows that are being handed on, then closes the downstream sink. A
+     * submit that races with closing hands its message on itself, so it is
+     * either delivered or reported to the error handler, never left in a
+     * buffer.
+     *
+     * @param timeout how long handing on and the downstream sink may take
+     * @return the result of closing the downstream sink
+     */
+    @Override
+    public boolean close(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        closed = true;
+        for (Buffer buffer : buffers.values()) {
+            buffer.timer.cancel(false);
+            flush(buffer);
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return downstream.close(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    }
+
+    /** Runs on the shared timer, which must not wait for a full downstream sink. */
+    private void flushLater(Buffer buffer) {
+        try {
+            flusher.execute(() -> flush(buffer));
+        } catch (RejectedExecutionException e) {
+            // closing; close() hands the buffer on itself
+        }
+    }
+
+    /** Hands {@code buffer} on unless it was already handed on or replaced. */
+    private void flush(Buffer buffer) {
+        if (buffers.remove(buffer.key, buffer)) {
+            handOn(buffer.toRequest(), buffer.key.priority());
+        }
+    }
+
+    /** Submits a merged message whose producers have already returned; a refusal goes to the error handler. */
+    private void handOn(SendMessageRequest request, Priority priority) {
+        try {
+            if (!downstream.submit(request, priority)) {
+                reportError(request, new RejectedExecutionException("Message was dropped by the downstream sink"));
+            }
+        } catch (RuntimeException e) {
+            reportError(request, e);
+        }
+    }
+
+    private void reportError(SendMessageRequest request, Throwable error) {
+        try {
+            errorHandler.accept(request, error);
+        } catch (RuntimeException ignored) {
+            // a failing handler must not take the flushing thread down with it
+        }
+    }
+
+    /**
+     * Whether {@code part}, already escaped for {@code parseMode}, can be joined
+     * with other parts: every tag or formatting marker it opens is closed in
+     * order, and in HTML every entity is one Telegram supports.
+     */
+    static boolean isSelfContained(String part, ParseMode parseMode) {
+        if (parseMode == null) {
+            return true;
+        }
+        return switch (parseMode) {
+            case HTML -> isSelfContainedHtml(part);
+            case MARKDOWN_V2 -> isSelfContainedMarkdown(part, true);
+            case MARKDOWN -> isSelfContainedMarkdown(part, false);
+        };
+    }
+
+    private static boolean isSelfContainedHtml(String part) {
+        ArrayDeque<String> open = new ArrayDeque<>();
+        int i = 0;
+        while (i < part.length()) {
+            char c = part.charAt(i);
+            if (c == '<') {
+                int end = part.indexOf('>', i);
+                if (end < 0) {
+                    return false;
+                }
+                boolean closing = part.charAt(i + 1) == '/';
+                int nameStart = closing ? i + 2 : i + 1;
+                int nameEnd = nameStart;
+                while (nameEnd < end && isTagNameChar(part.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                String name = part.substring(nameStart, nameEnd).toLowerCase();
+                if (!closing) {
+                    open.push(name);
+                } else if (!name.equals(open.poll())) {
+                    return false;
+                }
+                i = end + 1;
+            } else if (c == '&') {
+                int semicolon = part.indexOf(';', i);
+                if (semicolon < 0 || !isSupportedEntity(part.substring(i + 1, semicolon))) {
+                    return false;
+                }
+                i = semicolon + 1;
+            } else {
+                i++;
+            }
+        }
+        return open.isEmpty();
+    }
+
+    private static boolean isTagNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-';
+    }
+
+    private static boolean isSupportedEntity(String name) {
+        return switch (name) {
+            case "lt", "gt", "amp", "quot" -> true;
+            default -> name.matches("#\\d+|#x[0-9a-fA-F]+");
+        };
+    }
+
+    private static boolean isSelfContainedMarkdown(String part, boolean v2) {
+        ArrayDeque<String> open = new ArrayDeque<>();
+        int i = 0;
+        while (i < part.length()) {
+            char c = part.charAt(i);
+            String top = open.peek();
+            boolean inCode = "`".equals(top) || "```".equals(top);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            String marker = null;
+            if (part.startsWith("```", i)) {
+                marker = "```";
+            } else if (c == '`') {
+                marker = "`";
+            } else if (inCode) {
+                i++;
+                continue;
+            } else if (c == ']' && i + 1 < part.length() && part.charAt(i + 1) == '(') {
+                // the URL of a link may contain markers
+                int close = part.indexOf(')', i);
+                i = close < 0 ? part.length() : close + 1;
+                continue;
+            } else if (v2 && part.startsWith("||", i)) {
+                marker = "||";
+            } else if (v2 && part.startsWith("__", i) && !"_".equals(top)) {
+                marker = "__";
+            } else if (c == '*' || c == '_' || v2 && c == '~') {
+                marker = String.valueOf(c);
+            }
+            if (marker == null) {
+                i++;
+                continue;
+            }
+            if (marker.equals(top)) {
+                open.pop();
+            } else if (!inCode) {
+                open.push(marker);
+            }
+            i += marker.length();
+        }
+        return open.isEmpty();
+    }
+
+    /**
+     * Creates a new builder instance.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private record Key(ChatId chatId, Integer messageThreadId, Integer directMessagesTopicId, ParseMode parseMode,
+            Priority priority) {
+    }
+
+    /** Messages of one window; only touched inside {@code compute} or after removal from the map. */
+    private final class Buffer {
+        private final Key key;
+        private final List<SendMessageRequest> requests = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private ScheduledFuture<?> timer;
+
+        Buffer(Key key) {
+            this.key = key;
+        }
+
+        boolean fits(String part) {
+            return text.length() + separator.length() + part.length() <= SendMessageRequest.MAX_TEXT_LENGTH;
+        }
+
+        void add(SendMessageRequest request, String part) {
+            if (!requests.isEmpty()) {
+                text.append(separator);
+            }
+            requests.add(request);
+            text.append(part);
+        }
+
+        SendMessageRequest toRequest() {
+            if (requests.size() == 1) {
+                return requests.get(0);
+            }
+            return new SendMessageRequest(
+                    key.chatId(),
+                    text.toString(),
+                    key.parseMode(),
+                    key.messageThreadId(),
+                    key.directMessagesTopicId(),
+                    null,
+                    null);
+        }
+    }
+
+    /**
+     * Builder for {@link CoalescingSink}.
+     */
+    public static final class Builder {
+        private NotificationSink downstream;
+        private Duration window = Duration.ofSeconds(1);
+        private String separator = "\n";
+        private BiConsumer<SendMessageRequest, Throwable> errorHandler = (request, error) -> {
+        };
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the sink merged messages are handed to, typically a
+         * {@link NotificationDispatcher}. Required.
+         *
+         * @param downstream the downstream sink
+         * @return this builder instance
+         */
+        public Builder downstream(NotificationSink downstream) {
+            this.downstream = downstream;
+            return this;
+        }
+
+        /**
+         * Sets how long messages to one chat are collected before they are sent.
+         * Defaults to one second.
+         *
+         * @param window the coalescing window
+         * @return this builder instance
+         */
+        public Builder window(Duration window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Sets the text placed between merged messages. It is inserted as is, so
+         * it must already be valid in every parse mode used. Defaults to a line
+         * break.
+         *
+         * @param separator the separator
+         * @return this builder instance
+         */
+        public Builder separator(String separator) {
+            this.separator = separator;
+            return this;
+        }
+
+        /**
+         * Sets the callback for merged messages the downstream sink dropped or
+         * rejected after their producers had returned. Runs on the thread that
+         * handed the message on; anything it throws is ignored. Defaults to
+         * ignoring failures.
+         *
+         * @param errorHandler receives the message and the error
+         * @return this builder instance
+         */
+        public Builder onError(BiConsumer<SendMessageRequest, Throwable> errorHandler) {
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        /**
+         * Builds the sink.
+         *
+         * @return the sink
+         * @throws IllegalArgumentException if no downstream sink was set
+         */
+        public CoalescingSink build() {
+            if (downstream == null) {
+                throw new IllegalArgumentException("downstream is required");
+            }
+            return new CoalescingSink(this);
+        }
+    }
+
+}
@@ -0,0 +1,395 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+import io.github.haiphamcoder.telegrambot.notifier.util.DaemonThreadFactory;
+import io.github.haiphamcoder.telegrambot.notifier.util.MessageSplitter;
+import io.github.haiphamcoder.telegrambot.notifier.util.ParseModeEscaper;
+import io.github.haiphamcoder.telegrambot.notifier.util.SharedTimer;
+
+/**
+ * Drops repeats of a message that was already sent to the same chat and thread
+ * (or direct messages topic) with the same parse mode within a time window,
+ * and reports them with a single follow-up when the window closes, e.g.
+ * {@code repeated 57 times in last 5m}.
+ * <p>
+ * Messages are compared by a 64-bit hash of their text with case and runs of
+ * whitespace normalized, so the table holds no texts of its own. The table is
+ * split into independently locked stripes, each a small LRU map: producers of
+ * different messages rarely contend, and memory stays bounded by
+ * {@link Builder#maxEntries(int)} no matter how many distinct messages arrive.
+ * An entry evicted before its window closes reports its repeats right away.
+ * The follow-up quotes the original, shortened if needed so that it fits into
+ * one message.
+ * <p>
+ * Follow-ups for closed windows are sent by a thread of the sink's own, so a
+ * downstream sink that blocks when full does not hold up the shared timer. A
+ * follow-up the downstream sink drops or rejects is passed to
+ * {@link Builder#onError(BiConsumer)}.
+ * <p>
+ * Example usage:
+ *
+ * <pre>{@code
+ * NotificationSink sink = DeduplicatingSink.builder()
+ *         .downstream(dispatcher)
+ *         .window(Duration.ofMinutes(5))
+ *         .build();
+ * }</pre>
+ */
+public final class DeduplicatingSink implements NotificationSink {
+
+    private static final int STRIPES = 16;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final NotificationSink downstream;
+    private final long windowNanos;
+    private final String windowLabel;
+    private final BiConsumer<SendMessageRequest, Throwable> errorHandler;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    /** Sends the follow-ups of closed windows, off the shared timer thread. */
+    private final ThreadPoolExecutor reporter;
+    private volatile boolean closed;
+
+    private DeduplicatingSink(Builder builder) {
+        this.downstream = builder.downstream;
+        this.windowNanos = builder.window.toNanos();
+        this.windowLabel = label(builder.window);
+        this.errorHandler = builder.errorHandler;
+        this.reporter = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new DaemonThreadFactory("telegram-notifier-dedup-"));
+        this.reporter.allowCoreThreadTimeOut(true);
+        int entriesPerStripe = Math.max(1, (builder.maxEntries + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(entriesPerStripe);
+        }
+    }
+
+    /**
+     * Hands the message to the downstream sink unless the same text was sent to
+     * the same chat, thread and direct messages topic with the same parse mode
+     * within the window.
+     *
+     * @param request the message to send
+     * @return the result of the downstream sink, or {@code true} if the message
+     *         was counted as a repeat
+     */
+    @Override
+    public boolean submit(SendMessageRequest request) {
+        return submit(request, Priority.NORMAL);
+    }
+
+    /**
+     * Same as {@link #submit(SendMessageRequest)}, handing unique messages on in
+     * the given lane. The follow-up for repeats uses the lane of the first
+     * occurrence.
+     *
+     * @param request  the message to send
+     * @param priority the delivery lane
+     * @return the result of the downstream sink, or {@code true} if the message
+     *         was counted as a repeat
+     */
+    @Override
+    public boolean submit(SendMessageRequest request, Priority priority) {
+        if (closed) {
+            throw new IllegalStateException("Sink has been closed");
+        }
+        Key key = new Key(request.chatId(), request.messageThreadId(), request.directMessagesTopicId(),
+                request.parseMode(), hash(request.text()));
+        Stripe stripe = stripes[(key.hashCode() ^ (key.hashCode() >>> 16)) & (STRIPES - 1)];
+        Entry created;
+        Entry evicted;
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null) {
+                entry.repeats++;
+                return true;
+            }
+            created = new Entry(key, request, priority);
+            stripe.entries.put(key, created);
+            created.timer = SharedTimer.schedule(() -> expireLater(stripe, created), windowNanos);
+            evicted = stripe.evicted;
+            stripe.evicted = null;
+        }
+        if (evicted != null) {
+            evicted.timer.cancel(false);
+            reportRepeats(evicted);
+        }
+        if (closed) {
+            // close() may have swept the table before this entry was added
+            boolean removed;
+            synchronized (stripe) {
+                removed = stripe.entries.remove(key, created);
+            }
+            if (removed) {
+                created.timer.cancel(false);
+                reportRepeats(created);
+            }
+        }
+        return downstream.submit(request, priority);
+    }
+
+    /**
+     * Reports the repeats of all open windows, waits for follow-ups that are
+     * being sent, then closes the downstream sink.
+     *
+     * @param timeout how long the follow-ups and the downstream sink may take
+     * @return the result of closing the downstream sink
+     */
+    @Override
+    public boolean close(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        closed = true;
+        List<Entry> open = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                open.addAll(stripe.entries.values());
+                stripe.entries.clear();
+            }
+        }
+        for (Entry entry : open) {
+            entry.timer.cancel(false);
+            reportRepeats(entry);
+        }
+        reporter.shutdown();
+        try {
+            reporter.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return downstream.close(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    }
+
+    /** Runs on the shared timer, which must not wait for a full downstream sink. */
+    private void expireLater(Stripe stripe, Entry entry) {
+        try {
+            reporter.execute(() -> expire(stripe, entry));
+        } catch (RejectedExecutionException e) {
+            // closing; close() reports the entry itself
+        }
+    }
+
+    private void expire(Stripe stripe, Entry entry) {
+        synchronized (stripe) {
+            if (!stripe.entries.remove(entry.key, entry)) {
+                // evicted or flushed by close(), which reported it
+                return;
+            }
+        }
+        reportRepeats(entry);
+    }
+
+    /** Sends the follow-up for an entry that has left the table; no lock held. */
+    private void reportRepeats(Entry entry) {
+        // the entry is no longer reachable by producers, so repeats is final
+        if (entry.repeats == 0) {
+            return;
+        }
+        SendMessageRequest original = entry.request;
+        String note = "repeated " + entry.repeats + (entry.repeats == 1 ? " time" : " times")
+                + " in last " + windowLabel;
+        // escaped separately so that markup in the original cannot pair with the note
+        String suffix = "\n" + ParseModeEscaper.escapePreservingEntities(note, original.parseMode());
+        String quoted = ParseModeEscaper.escapePreservingEntities(original.text(), original.parseMode());
+        int room = SendMessageRequest.MAX_TEXT_LENGTH - suffix.length();
+        if (quoted.length() > room) {
+            // cut where a long message would be split, so no markup is left open and no entity is broken
+            quoted = MessageSplitter.split(quoted, original.parseMode(), room - 1).get(0) + "\u2026";
+        }
+        SendMessageRequest followUp = new SendMessageRequest(
+                original.chatId(),
+                quoted + suffix,
+                original.parseMode(),
+                original.messageThreadId(),
+                original.directMessagesTopicId(),
+                null,
+                null);
+        try {
+            if (!downstream.submit(followUp, entry.priority)) {
+                reportError(followUp, new RejectedExecutionException("Message was dropped by the downstream sink"));
+            }
+        } catch (RuntimeException e) {
+            reportError(followUp, e);
+        }
+    }
+
+    private void reportError(SendMessageRequest request, Throwable error) {
+        try {
+            errorHandler.accept(request, error);
+        } catch (RuntimeException ignored) {
+            // a failing handler must not take the reporting thread down with it
+        }
+    }
+
+    /** FNV-1a over the text, lower-cased, trimmed and with whitespace runs collapsed. */
+    static long hash(String text) {
+        long hash = FNV_OFFSET_BASIS;
+        boolean pendingSpace = false;
+        boolean started = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                hash = (hash ^ ' ') * FNV_PRIME;
+                pendingSpace = false;
+            }
+            hash = (hash ^ Character.toLowerCase(c)) * FNV_PRIME;
+            started = true;
+        }
+        return hash;
+    }
+
+    private static String label(Duration window) {
+        long seconds = window.toSeconds();
+        if (seconds > 0 && seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        }
+        if (seconds > 0 && seconds % 60 == 0) {
+            return seconds / 60 + "m";
+        }
+        return seconds > 0 ? seconds + "s" : window.toMillis() + "ms";
+    }
+
+    /**
+     * Creates a new builder instance.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private record Key(ChatId chatId, Integer messageThreadId, Integer directMessagesTopicId, ParseMode parseMode,
+            long textHash) {
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final SendMessageRequest request;
+        private final Priority priority;
+        /** Guarded by the stripe while the entry is in the table. */
+        private int repeats;
+        private ScheduledFuture<?> timer;
+
+        Entry(Key key, SendMessageRequest request, Priority priority) {
+            this.key = key;
+            this.request = request;
+            this.priority = priority;
+        }
+    }
+
+    /** One lock-protected LRU segment of the table. */
+    private static final class Stripe {
+        private final LinkedHashMap<Key, Entry> entries;
+        /** Set by {@code removeEldestEntry} and taken by the producer that caused the eviction. */
+        private Entry evicted;
+
+        Stripe(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    if (size() > maxEntries) {
+                        evicted = eldest.getValue();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    /**
+     * Builder for {@link DeduplicatingSink}.
+     */
+    public static final class Builder {
+        private NotificationSink downstream;
+        private Duration window = Duration.ofMinutes(5);
+        private int maxEntries = 10_000;
+        private BiConsumer<SendMessageRequest, Throwable> errorHandler = (request, error) -> {
+        };
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the sink unique messages and follow-ups are handed to. Required.
+         *
+         * @param downstream the downstream sink
+         * @return this builder instance
+         */
+        public Builder downstream(NotificationSink downstream) {
+            this.downstream = downstream;
+            return this;
+        }
+
+        /**
+         * Sets how long repeats of a sent message are suppressed. Defaults to five
+         * minutes.
+         *
+         * @param window the suppression window
+         * @return this builder instance
+         */
+        public Builder window(Duration window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Sets how many distinct messages are tracked at once. The least recently
+         * repeated ones are evicted first. Defaults to 10,000.
+         *
+         * @param maxEntries the table size
+         * @return this builder instance
+         */
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("maxEntries must be positive");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the callback for follow-ups the downstream sink dropped or
+         * rejected. Runs on the thread that sent the follow-up; anything it
+         * throws is ignored. Defaults to ignoring failures.
+         *
+         * @param errorHandler receives the follow-up and the error
+         * @return this builder instance
+         */
+        public Builder onError(BiConsumer<SendMessageRequest, Throwable> errorHandler) {
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        /**
+         * Builds the sink.
+         *
+         * @return the sink
+         * @throws IllegalArgumentException if no downstream sink was set
+         */
+        public DeduplicatingSink build() {
+            if (downstream == null) {
+                throw new IllegalArgumentException("downstream is required");
+            }
+            return new DeduplicatingSink(this);
+        }
+    }
+
+}
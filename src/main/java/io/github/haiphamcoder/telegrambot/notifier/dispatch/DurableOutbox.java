@@ -0,0 +1,529 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+import io.github.haiphamcoder.telegrambot.notifier.util.DaemonThreadFactory;
+import io.github.haiphamcoder.telegrambot.notifier.util.JsonUtils;
+
+/**
+ * On-disk log of queued notifications, so that messages accepted by a
+ * {@link NotificationDispatcher} survive the process dying before they were
+ * sent.
+ * <p>
+ * The dispatcher appends every accepted message before queueing it and appends
+ * an acknowledgement once Telegram has answered (see
+ * {@link NotificationDispatcher.Builder#outbox(DurableOutbox)}). Messages that
+ * were never acknowledged are handed to the dispatcher the outbox is next
+ * attached to. Delivery is at least once: a message sent just before a crash
+ * may be sent again.
+ * <p>
+ * Records are copied into memory-mapped segment files of
+ * {@link Builder#segmentSize(int)} bytes, each with a CRC32 checksum, so an
+ * append costs no system call and is safe from a JVM crash as soon as it
+ * returns. A background thread forces dirty segments to disk every
+ * {@link Builder#syncInterval(Duration)} (group commit), which bounds what a
+ * power loss or OS crash can lose. A record torn by a crash fails its checksum
+ * and ends the scan of its segment.
+ * <p>
+ * Segments are deleted once they and all older segments hold no unacknowledged
+ * message. An oldest segment that only a few unacknowledged messages keep
+ * alive, e.g. a message that keeps failing during an outage, has those copied
+ * forward into the newest segment and is deleted, so it cannot hold on to every
+ * segment written after it. When the outbox is opened, the unacknowledged messages are copied
+ * into a fresh segment and the old segments are deleted. A directory must only
+ * be used by one outbox at a time.
+ * <p>
+ * Example usage:
+ *
+ * <pre>{@code
+ * try (DurableOutbox outbox = DurableOutbox.builder().directory(Path.of("outbox")).build()) {
+ *     NotificationDispatcher dispatcher = NotificationDispatcher.builder()
+ *             .client(client)
+ *             .outbox(outbox)
+ *             .build();
+ *     ...
+ *     dispatcher.close(Duration.ofSeconds(10));
+ * }
+ * }</pre>
+ */
+public final class DurableOutbox implements AutoCloseable {
+
+    private static final byte MESSAGE = 1;
+    private static final byte ACK = 2;
+    /** Record size, CRC32 of the rest of the record, type, sequence; a message adds priority and JSON. */
+    private static final int HEADER_BYTES = 4 + 4 + 1 + 8;
+    private static final String SEGMENT_SUFFIX = ".log";
+    /**
+     * The oldest segment is copied forward once at most one in this many of its
+     * messages is still unacknowledged, so copying costs at most a fraction of
+     * the segment it frees.
+     */
+    private static final int RELOCATE_RATIO = 4;
+    private static final ObjectWriter WRITER = JsonUtils.getObjectMapper().writerFor(SendMessageRequest.class);
+    private static final ObjectReader READER = JsonUtils.getObjectMapper().readerFor(SendMessageRequest.class);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long syncIntervalNanos;
+    private final Thread syncer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CRC32 crc = new CRC32();
+    /** Oldest first; the last one is written to. */
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private long nextSegmentId;
+    private long nextSequence = 1;
+    private long unacknowledged;
+    private List<Pending> replay;
+    /** Set while live records are copied forward, so that a segment rolled meanwhile does not start another copy. */
+    private boolean relocating;
+    private volatile boolean closed;
+
+    private DurableOutbox(Builder builder) {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.syncIntervalNanos = builder.syncInterval.toNanos();
+        this.syncer = new DaemonThreadFactory("telegram-notifier-outbox-").newThread(this::syncPeriodically);
+    }
+
+    /**
+     * Returns the number of messages that have not been acknowledged yet,
+     * including those waiting to be replayed.
+     *
+     * @return the number of unacknowledged messages
+     */
+    public long unacknowledged() {
+        lock.lock();
+        try {
+            return unacknowledged;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces all records appended so far to disk, without waiting for the next
+     * periodic sync.
+     */
+    public void sync() {
+        List<Segment> dirty = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Segment segment : segments) {
+                if (segment.dirty) {
+                    segment.dirty = false;
+                    dirty.add(segment);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Segment segment : dirty) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Syncs and stops the background sync thread. Acknowledgements arriving
+     * after close are ignored, so those messages are replayed on the next open.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(syncer);
+        sync();
+    }
+
+    /**
+     * Appends a message and returns its sequence number.
+     *
+     * @throws IllegalStateException if the outbox has been closed
+     * @throws UncheckedIOException  if a new segment cannot be created
+     */
+    long append(SendMessageRequest request, Priority priority) {
+        byte[] json;
+        try {
+            json = WRITER.writeValueAsBytes(request);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] payload = new byte[1 + json.length];
+        payload[0] = (byte) priority.ordinal();
+        System.arraycopy(json, 0, payload, 1, json.length);
+        if (HEADER_BYTES + payload.length > segmentSize) {
+            throw new IllegalArgumentException("Request does not fit into an outbox segment");
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Outbox has been closed");
+            }
+            long sequence = nextSequence++;
+            writeMessage(sequence, payload);
+            unacknowledged++;
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Marks the message {@code sequence} as done and deletes segments that no longer hold pending messages. */
+    void ack(long sequence) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (!removeLive(sequence)) {
+                return;
+            }
+            write(ACK, sequence, new byte[0]);
+            unacknowledged--;
+            compact();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns the messages found unacknowledged on open, once; later calls return an empty list. */
+    List<Pending> takeReplay() {
+        lock.lock();
+        try {
+            List<Pending> pending = replay;
+            replay = List.of();
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Forgets the pending message {@code sequence}; {@code false} if it is not pending. Called under the lock. */
+    private boolean removeLive(long sequence) {
+        // newest first: a message copied forward lives in a later segment than it was appended to
+        Iterator<Segment> newestFirst = segments.descendingIterator();
+        while (newestFirst.hasNext()) {
+            if (newestFirst.next().live.remove(sequence) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Called under the lock. */
+    private void writeMessage(long sequence, byte[] payload) {
+        int position = write(MESSAGE, sequence, payload);
+        Segment segment = segments.peekLast();
+        segment.live.put(sequence, position);
+        segment.messages++;
+    }
+
+    /** Returns the offset the record was written at, in the newest segment. Called under the lock. */
+    private int write(byte type, long sequence, byte[] payload) {
+        int size = HEADER_BYTES + payload.length;
+        Segment segment = segments.peekLast();
+        if (segment.position + size > segmentSize) {
+            segment = roll();
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int position = segment.position;
+        buffer.put(position + 8, type);
+        buffer.putLong(position + 9, sequence);
+        buffer.put(position + HEADER_BYTES, payload);
+        crc.reset();
+        crc.update(buffer.slice(position + 8, size - 8));
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // the size goes last: until it is written the record reads as the end of the segment
+        buffer.putInt(position, size);
+        segment.position = position + size;
+        segment.dirty = true;
+        return position;
+    }
+
+    /** Called under the lock. */
+    private Segment roll() {
+        try {
+            Segment segment = Segment.create(directory.resolve(segmentName(nextSegmentId++)), segmentSize);
+            segments.addLast(segment);
+            compact();
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the oldest segments while they hold no pending message, copying
+     * the few pending messages of an oldest segment forward first when two or
+     * more segments were written after it. Called under the lock.
+     */
+    private void compact() {
+        while (segments.size() > 1) {
+            Segment oldest = segments.peekFirst();
+            if (!oldest.live.isEmpty()) {
+                if (relocating || segments.size() < 3 || oldest.live.size() * RELOCATE_RATIO > oldest.messages) {
+                    return;
+                }
+                relocate(oldest);
+            }
+            segments.pollFirst();
+            try {
+                Files.deleteIfExists(oldest.file);
+            } catch (IOException ignored) {
+                // best effort: everything in it is acknowledged, and the next open deletes it anyway
+            }
+        }
+    }
+
+    /**
+     * Copies the pending messages of {@code oldest} into the newest segment
+     * under their own sequence numbers, and forces the copies to disk before
+     * the caller deletes {@code oldest}. A crash in between leaves both copies,
+     * which the scan on open merges by sequence. Called under the lock.
+     */
+    private void relocate(Segment oldest) {
+        relocating = true;
+        try {
+            List<Segment> targets = new ArrayList<>(2);
+            Iterator<Map.Entry<Long, Integer>> records = oldest.live.entrySet().iterator();
+            while (records.hasNext()) {
+                Map.Entry<Long, Integer> record = records.next();
+                int position = record.getValue();
+                byte[] payload = new byte[oldest.buffer.getInt(position) - HEADER_BYTES];
+                oldest.buffer.get(position + HEADER_BYTES, payload);
+                writeMessage(record.getKey(), payload);
+                // removed only now, so a segment rolled by the write cannot see oldest as empty and delete it
+                records.remove();
+                if (!targets.contains(segments.peekLast())) {
+                    targets.add(segments.peekLast());
+                }
+            }
+            for (Segment target : targets) {
+                target.buffer.force();
+            }
+        } finally {
+            relocating = false;
+        }
+    }
+
+    private void syncPeriodically() {
+        while (!closed) {
+            LockSupport.parkNanos(syncIntervalNanos);
+            sync();
+        }
+    }
+
+    /**
+     * Reads the existing segments, copies the unacknowledged messages into a
+     * fresh segment and deletes the old ones.
+     */
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        Map<Long, byte[]> pending = new LinkedHashMap<>();
+        for (Path file : files) {
+            nextSequence = Math.max(nextSequence, scan(file, pending) + 1);
+            nextSegmentId = Math.max(nextSegmentId, segmentId(file) + 1);
+        }
+
+        segments.addLast(Segment.create(directory.resolve(segmentName(nextSegmentId++)), segmentSize));
+        List<Pending> replayed = new ArrayList<>(pending.size());
+        for (byte[] payload : pending.values()) {
+            long sequence = nextSequence++;
+            writeMessage(sequence, payload);
+            replayed.add(new Pending(sequence,
+                    READER.readValue(payload, 1, payload.length - 1),
+                    Priority.values()[payload[0]]));
+        }
+        unacknowledged = replayed.size();
+        replay = replayed;
+        sync();
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        syncer.start();
+    }
+
+    /** Collects the messages of {@code file} and drops the acknowledged ones; returns the highest sequence seen. */
+    private long scan(Path file, Map<Long, byte[]> pending) throws IOException {
+        long maxSequence = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int limit = buffer.limit();
+            int position = 0;
+            while (position + HEADER_BYTES <= limit) {
+                int size = buffer.getInt(position);
+                if (size < HEADER_BYTES || size > limit - position) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(position + 8, size - 8));
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    break;
+                }
+                byte type = buffer.get(position + 8);
+                long sequence = buffer.getLong(position + 9);
+                if (type == MESSAGE) {
+                    byte[] payload = new byte[size - HEADER_BYTES];
+                    buffer.get(position + HEADER_BYTES, payload);
+                    pending.put(sequence, payload);
+                } else if (type == ACK) {
+                    pending.remove(sequence);
+                }
+                maxSequence = Math.max(maxSequence, sequence);
+                position += size;
+            }
+        }
+        return maxSequence;
+    }
+
+    private static String segmentName(long segmentId) {
+        return String.format("%020d%s", segmentId, SEGMENT_SUFFIX);
+    }
+
+    private static long segmentId(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** A message found unacknowledged on open. */
+    record Pending(long sequence, SendMessageRequest request, Priority priority) {
+    }
+
+    /** One mapped segment file; all fields but {@code dirty} are guarded by the outbox lock. */
+    private static final class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int position;
+        /** Messages written to this segment and not acknowledged yet, by sequence, with their record offset. */
+        private final Map<Long, Integer> live = new LinkedHashMap<>();
+        /** Messages written to this segment, acknowledged or not. */
+        private int messages;
+        private volatile boolean dirty;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path file, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+
+    /**
+     * Creates a new builder instance.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link DurableOutbox}.
+     */
+    public static final class Builder {
+        private Path directory;
+        private int segmentSize = 64 * 1024 * 1024;
+        private Duration syncInterval = Duration.ofMillis(100);
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the directory holding the segment files; it is created if
+         * missing. Required.
+         *
+         * @param directory the outbox directory
+         * @return this builder instance
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the size of each segment file. A message must fit into one
+         * segment. Defaults to 64 MiB.
+         *
+         * @param segmentSize the segment size in bytes
+         * @return this builder instance
+         */
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < 4096) {
+                throw new IllegalArgumentException("segmentSize must be at least 4096");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Sets how often appended records are forced to disk. Records are safe
+         * from a JVM crash right away; this bounds what a power loss can lose.
+         * Defaults to 100 ms.
+         *
+         * @param syncInterval the interval between syncs
+         * @return this builder instance
+         */
+        public Builder syncInterval(Duration syncInterval) {
+            if (syncInterval.isNegative() || syncInterval.isZero()) {
+                throw new IllegalArgumentException("syncInterval must be positive");
+            }
+            this.syncInterval = syncInterval;
+            return this;
+        }
+
+        /**
+         * Opens the outbox, reading the messages left unacknowledged by a
+         * previous run.
+         *
+         * @return the outbox
+         * @throws IOException              if the directory or its segments cannot
+         *                                  be read or written
+         * @throws IllegalArgumentException if no directory was set
+         */
+        public DurableOutbox build() throws IOException {
+            if (directory == null) {
+                throw new IllegalArgumentException("directory is required");
+            }
+            DurableOutbox outbox = new DurableOutbox(this);
+            outbox.open();
+            return outbox;
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of one {@link Priority} lane of a {@link NotificationDispatcher}.
+ * Latency is the time a message spent queued before a worker picked it up.
+ *
+ * @param pending        messages currently queued in the lane
+ * @param dispatched     messages picked up by a worker so far
+ * @param averageLatency mean queue latency of the dispatched messages
+ * @param maxLatency     largest queue latency seen so far
+ */
+public record LaneStats(int pending, long dispatched, Duration averageLatency, Duration maxLatency) {
+}
@@ -0,0 +1,826 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+import io.github.haiphamcoder.telegrambot.notifier.TelegramNotifierClient;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.ratelimit.RateLimit;
+import io.github.haiphamcoder.telegrambot.notifier.ratelimit.RateLimiter;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+import io.github.haiphamcoder.telegrambot.notifier.util.DaemonThreadFactory;
+import io.github.haiphamcoder.telegrambot.notifier.util.SharedTimer;
+
+/**
+ * Bounded queue in front of a {@link TelegramNotifierClient}, drained by a
+ * fixed set of worker threads.
+ * <p>
+ * Producers only pay for an enqueue; the HTTP round trip, rate limiting and
+ * retries happen on the workers. The queue is bounded both by message count
+ * and by the approximate memory held by queued texts, and an
+ * {@link OverflowPolicy} decides what happens when it is full. Failed sends are
+ * reported to the error handler and otherwise dropped.
+ * <p>
+ * Messages are queued in {@link Priority} lanes and workers always take from
+ * the highest non-empty lane, so an alert never waits behind bulk traffic that
+ * is already queued. With {@link Builder#globalLimit(RateLimit)} set, the lanes
+ * below {@link Priority#HIGH} are additionally capped at a share of that budget
+ * (see {@link Builder#laneShare(Priority, double)}), which keeps the rest free
+ * for higher lanes. Per-lane queue latency is reported by
+ * {@link #laneStats(Priority)}.
+ * <p>
+ * With the client's {@link Builder#rateLimiter(RateLimiter)} set as well,
+ * workers pass over messages to chats that are out of permits or already
+ * being sent to, and take the next message of the lane instead, so a
+ * throttled chat occupies at most one worker rather than all of them.
+ * <p>
+ * With a {@link DurableOutbox} attached, accepted messages are also logged to
+ * disk and acknowledged once Telegram has answered. A send that fails with a
+ * transient error (transport failure, server error, flood control) is then
+ * reported to the error handler and queued again after a back-off that doubles
+ * with every attempt (see {@link Builder#retryBackoff(Duration)}), until it
+ * goes through. Messages that were still queued or waiting for a retry when the
+ * process stopped are re-queued by the next dispatcher built with the same
+ * outbox.
+ * <p>
+ * Example usage:
+ *
+ * <pre>{@code
+ * NotificationDispatcher dispatcher = NotificationDispatcher.builder()
+ *         .client(client)
+ *         .workers(4)
+ *         .capacity(10_000)
+ *         .overflowPolicy(OverflowPolicy.DROP_OLDEST)
+ *         .build();
+ *
+ * dispatcher.submit(request);
+ * ...
+ * dispatcher.close(Duration.ofSeconds(10));
+ * }</pre>
+ * The client is not closed with the dispatcher.
+ */
+public final class NotificationDispatcher implements NotificationSink {
+
+    /** Rough per-message cost on top of the text: request record, queue slot, small fields. */
+    private static final long MESSAGE_OVERHEAD_BYTES = 128;
+    /** The retry back-off doubles this many times at most, i.e. up to 64 times {@link Builder#retryBackoff}. */
+    private static final int MAX_BACKOFF_DOUBLINGS = 6;
+    /** How many messages of a lane are looked at for a chat that may be sent to before the lane counts as blocked. */
+    private static final int MAX_CHAT_SCAN = 256;
+
+    private final TelegramNotifierClient client;
+    private final int capacity;
+    private final long maxBytes;
+    private final OverflowPolicy overflowPolicy;
+    private final long offerTimeoutNanos;
+    private final BiConsumer<SendMessageRequest, Throwable> errorHandler;
+    private final Thread[] workers;
+    private final Lane[] lanes;
+    private final DurableOutbox outbox;
+    private final long retryBackoffNanos;
+    /** Null unless workers should pass over throttled chats. */
+    private final RateLimiter rateLimiter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition idle = lock.newCondition();
+    private int queued;
+    private long queuedBytes;
+    private int busyWorkers;
+    private long dropped;
+    /** Messages waiting for their retry back-off to pass. */
+    private int retrying;
+    private boolean closed;
+    /** Set once close has given up on the queue; retries falling due later are left to the outbox. */
+    private boolean terminated;
+    /** Chats a worker is sending to; only tracked with a rate limiter. */
+    private final Set<ChatId> busyChats = new HashSet<>();
+    /** Set by a {@link #poll()} that found nothing: how long until a permit of a skipped lane or chat is due. */
+    private long pollWaitNanos;
+
+    private NotificationDispatcher(Builder builder) {
+        this.client = builder.client;
+        this.capacity = builder.capacity;
+        this.maxBytes = builder.maxBytes;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.offerTimeoutNanos = builder.offerTimeout.toNanos();
+        this.errorHandler = builder.errorHandler;
+        this.outbox = builder.outbox;
+        this.retryBackoffNanos = builder.retryBackoff.toNanos();
+        this.rateLimiter = builder.rateLimiter;
+        this.lanes = new Lane[Priority.values().length];
+        for (Priority priority : Priority.values()) {
+            lanes[priority.ordinal()] = new Lane(laneIntervalNanos(builder, priority), laneBurst(builder));
+        }
+        if (outbox != null) {
+            // replayed messages were accepted by an earlier run, so they are queued regardless of capacity
+            lock.lock();
+            try {
+                for (DurableOutbox.Pending pending : outbox.takeReplay()) {
+                    enqueue(pending.request(), pending.priority(), weigh(pending.request()), pending.sequence());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        DaemonThreadFactory threadFactory = new DaemonThreadFactory("telegram-notifier-dispatch-");
+        this.workers = new Thread[builder.workers];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = threadFactory.newThread(this::work);
+            workers[i].start();
+        }
+    }
+
+    @Override
+    public boolean submit(SendMessageRequest request) {
+        return submit(request, Priority.NORMAL);
+    }
+
+    @Override
+    public boolean submit(SendMessageRequest request, Priority priority) {
+        long weight = weigh(request);
+        // logged before taking the lock; acknowledged right away if the message is not queued after all
+        long sequence = outbox != null ? outbox.append(request, priority) : 0;
+        boolean accepted = false;
+        lock.lock();
+        try {
+            ensureOpen();
+            if (!hasRoom(weight)) {
+                switch (overflowPolicy) {
+                    case DROP_NEWEST -> {
+                        dropped++;
+                        return false;
+                    }
+                    case REJECT -> throw new RejectedExecutionException("Notification queue is full");
+                    case DROP_OLDEST -> {
+                        if (!dropOldest(weight, priority)) {
+                            dropped++;
+                            return false;
+                        }
+                    }
+                    case BLOCK -> {
+                        if (!awaitRoom(weight)) {
+                            dropped++;
+                            return false;
+                        }
+                    }
+                }
+            }
+            enqueue(request, priority, weight, sequence);
+            accepted = true;
+            return true;
+        } finally {
+            lock.unlock();
+            if (!accepted) {
+                acknowledge(sequence);
+            }
+        }
+    }
+
+    @Override
+    public boolean close(Duration timeout) {
+        boolean drained;
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+            long nanos = timeout.toNanos();
+            while (!isIdle() && nanos > 0) {
+                nanos = idle.awaitNanos(nanos);
+            }
+            drained = isIdle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drained = false;
+        } finally {
+            try {
+                // still logged in the outbox, if any, and replayed by the next dispatcher
+                dropped += queued + retrying;
+                for (Lane lane : lanes) {
+                    lane.queue.clear();
+                }
+                queued = 0;
+                queuedBytes = 0;
+                retrying = 0;
+                terminated = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (!drained) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+        }
+        if (outbox != null) {
+            outbox.sync();
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the number of queued messages.
+     *
+     * @return the number of messages waiting for a worker
+     */
+    public int pending() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the approximate memory held by queued messages.
+     *
+     * @return the queued size in bytes, as counted against
+     *         {@link Builder#maxBytes(long)}
+     */
+    public long pendingBytes() {
+        lock.lock();
+        try {
+            return queuedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many messages have been dropped, by the overflow policy or
+     * because they were still queued when the dispatcher was closed.
+     *
+     * @return the number of dropped messages
+     */
+    public long dropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of one lane.
+     *
+     * @param priority the lane
+     * @return queue depth and queue latency of the lane
+     */
+    public LaneStats laneStats(Priority priority) {
+        lock.lock();
+        try {
+            Lane lane = lanes[priority.ordinal()];
+            return new LaneStats(
+                    lane.queue.size(),
+                    lane.dispatched,
+                    Duration.ofNanos(lane.dispatched > 0 ? lane.totalLatencyNanos / lane.dispatched : 0),
+                    Duration.ofNanos(lane.maxLatencyNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Queued next;
+            lock.lock();
+            try {
+                while ((next = poll()) == null) {
+                    if (closed && queued == 0 && retrying == 0) {
+                        return;
+                    }
+                    if (queued == 0) {
+                        notEmpty.await();
+                    } else {
+                        // only throttled lanes or chats have messages; wake up when the first one may go
+                        notEmpty.awaitNanos(pollWaitNanos);
+                    }
+                }
+                busyWorkers++;
+                notFull.signal();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            // no exception thrown by a send or the error handler may end the worker; errors such as
+            // OutOfMemoryError still do, after the finally block below
+            try {
+                client.sendMessageAck(next.request());
+                acknowledge(next.sequence());
+            } catch (Exception e) {
+                boolean retry = outbox != null && isTransient(e);
+                if (!retry) {
+                    acknowledge(next.sequence());
+                }
+                reportError(next.request(), e);
+                if (retry) {
+                    retryLater(next, e);
+                }
+            } finally {
+                lock.lock();
+                try {
+                    busyWorkers--;
+                    if (rateLimiter != null && busyChats.remove(next.request().chatId())) {
+                        // messages passed over for this chat may go now
+                        notEmpty.signal();
+                    }
+                    if (isIdle()) {
+                        idle.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /** Queues {@code failed} again once its back-off, or the flood control pause, has passed. */
+    private void retryLater(Queued failed, Throwable error) {
+        long backoff = retryBackoffNanos << Math.min(failed.attempts(), MAX_BACKOFF_DOUBLINGS);
+        if (error instanceof TelegramApiException api && api.getRetryAfter() != null) {
+            backoff = Math.max(backoff, Duration.ofSeconds(api.getRetryAfter()).toNanos());
+        }
+        lock.lock();
+        try {
+            if (terminated) {
+                return;
+            }
+            retrying++;
+        } finally {
+            lock.unlock();
+        }
+        SharedTimer.schedule(() -> requeue(failed), backoff);
+    }
+
+    /** Runs on the shared timer; only takes the lock for an enqueue. */
+    private void requeue(Queued failed) {
+        lock.lock();
+        try {
+            if (terminated) {
+                // still logged in the outbox and replayed by the next dispatcher
+                return;
+            }
+            retrying--;
+            // ahead of its lane: it was accepted before everything queued behind it
+            lanes[failed.priority().ordinal()].queue.addFirst(new Queued(failed.request(), failed.priority(),
+                    failed.weight(), System.nanoTime(), failed.sequence(), failed.attempts() + 1));
+            queued++;
+            queuedBytes += failed.weight();
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reportError(SendMessageRequest request, Throwable error) {
+        try {
+            errorHandler.accept(request, error);
+        } catch (Exception ignored) {
+            // a failing handler must not take the worker down with it
+        }
+    }
+
+    /**
+     * Takes the oldest message of the highest lane that is not throttled, or
+     * returns {@code null} and sets {@link #pollWaitNanos}. Called under the
+     * lock.
+     */
+    private Queued poll() {
+        long now = System.nanoTime();
+        pollWaitNanos = Long.MAX_VALUE;
+        for (int i = 0; i < lanes.length; i++) {
+            Lane lane = lanes[i];
+            if (lane.queue.isEmpty()) {
+                continue;
+            }
+            long laneWait = permitWaitNanos(i, now);
+            if (laneWait > 0) {
+                pollWaitNanos = Math.min(pollWaitNanos, laneWait);
+                continue;
+            }
+            Queued next = rateLimiter != null ? takeSendable(lane.queue) : lane.queue.pollFirst();
+            if (next == null) {
+                continue;
+            }
+            // a message in lane i counts against the budget of every capped lane at or above it
+            for (int j = 0; j <= i; j++) {
+                lanes[j].consumePermit(now);
+            }
+            queued--;
+            queuedBytes -= next.weight();
+            long latency = now - next.enqueuedNanos();
+            lane.dispatched++;
+            lane.totalLatencyNanos += latency;
+            lane.maxLatencyNanos = Math.max(lane.maxLatencyNanos, latency);
+            return next;
+        }
+        pollWaitNanos = Math.max(pollWaitNanos, 1);
+        return null;
+    }
+
+    /**
+     * Removes the oldest message of {@code queue} whose chat has a permit and is
+     * not being sent to, marking its chat busy, or returns {@code null} and
+     * lowers {@link #pollWaitNanos} to the earliest chat permit seen. Messages
+     * to one chat thus still go out in order. Called under the lock.
+     */
+    private Queued takeSendable(ArrayDeque<Queued> queue) {
+        Set<ChatId> throttled = null;
+        Iterator<Queued> candidates = queue.iterator();
+        for (int scanned = 0; candidates.hasNext() && scanned < MAX_CHAT_SCAN; scanned++) {
+            Queued candidate = candidates.next();
+            ChatId chatId = candidate.request().chatId();
+            if (busyChats.contains(chatId) || throttled != null && throttled.contains(chatId)) {
+                // a busy chat wakes a worker when its send completes
+                continue;
+            }
+            long chatWait = rateLimiter.chatPermitWait(chatId).toNanos();
+            if (chatWait > 0) {
+                pollWaitNanos = Math.min(pollWaitNanos, chatWait);
+                // later messages to this chat must not overtake this one
+                if (throttled == null) {
+                    throttled = new HashSet<>();
+                }
+                throttled.add(chatId);
+                continue;
+            }
+            candidates.remove();
+            busyChats.add(chatId);
+            return candidate;
+        }
+        return null;
+    }
+
+    private long permitWaitNanos(int laneIndex, long now) {
+        long wait = 0;
+        for (int j = 0; j <= laneIndex; j++) {
+            wait = Math.max(wait, lanes[j].permitWaitNanos(now));
+        }
+        return wait;
+    }
+
+    /**
+     * Drops the oldest messages of the lowest lanes, but never of a lane above
+     * {@code priority}, until {@code weight} fits. Called under the lock.
+     */
+    private boolean dropOldest(long weight, Priority priority) {
+        for (int i = lanes.length - 1; i >= priority.ordinal() && !hasRoom(weight); i--) {
+            ArrayDeque<Queued> queue = lanes[i].queue;
+            while (!queue.isEmpty() && !hasRoom(weight)) {
+                Queued oldest = queue.pollFirst();
+                acknowledge(oldest.sequence());
+                queuedBytes -= oldest.weight();
+                queued--;
+                dropped++;
+            }
+        }
+        return hasRoom(weight);
+    }
+
+    /** Waits for room under the lock; {@code false} on timeout or interrupt. */
+    private boolean awaitRoom(long weight) {
+        long nanos = offerTimeoutNanos;
+        try {
+            while (!hasRoom(weight)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+                ensureOpen();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Called under the lock. */
+    private void enqueue(SendMessageRequest request, Priority priority, long weight, long sequence) {
+        lanes[priority.ordinal()].queue.addLast(new Queued(request, priority, weight, System.nanoTime(), sequence, 0));
+        queued++;
+        queuedBytes += weight;
+        notEmpty.signal();
+    }
+
+    /** Marks a message as done in the outbox; {@code sequence} is 0 without one. */
+    private void acknowledge(long sequence) {
+        if (sequence != 0) {
+            outbox.ack(sequence);
+        }
+    }
+
+    /**
+     * Whether a failed send may succeed later: transport failures, server errors
+     * and flood control that outlasted the client's retries. Such messages stay
+     * in the outbox.
+     */
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof TelegramHttpException) {
+            return true;
+        }
+        return e instanceof TelegramApiException api && (api.getRetryAfter() != null || api.getErrorCode() >= 500);
+    }
+
+    /** A message always fits into an empty queue, however large it is. */
+    private boolean hasRoom(long weight) {
+        return queued == 0 || (queued < capacity && queuedBytes + weight <= maxBytes);
+    }
+
+    private boolean isIdle() {
+        return queued == 0 && busyWorkers == 0 && retrying == 0;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Dispatcher has been closed");
+        }
+    }
+
+    /**
+     * {@code sequence} is the message's outbox sequence, or 0 without an outbox;
+     * {@code attempts} counts the failed sends so far.
+     */
+    private record Queued(SendMessageRequest request, Priority priority, long weight, long enqueuedNanos,
+            long sequence, int attempts) {
+    }
+
+    /**
+     * Queue of one priority, and the budget shared by it and all lanes below it.
+     * All state is guarded by the dispatcher lock.
+     */
+    private static final class Lane {
+        private final ArrayDeque<Queued> queue = new ArrayDeque<>();
+        private final long intervalNanos;
+        private final long burstToleranceNanos;
+        /** Theoretical arrival time of the next permit (generic cell rate algorithm). */
+        private long nextPermitNanos = System.nanoTime();
+        private long dispatched;
+        private long totalLatencyNanos;
+        private long maxLatencyNanos;
+
+        Lane(long intervalNanos, int burst) {
+            this.intervalNanos = intervalNanos;
+            this.burstToleranceNanos = intervalNanos * (burst - 1);
+        }
+
+        long permitWaitNanos(long now) {
+            return intervalNanos == 0 ? 0 : Math.max(0, nextPermitNanos - burstToleranceNanos - now);
+        }
+
+        void consumePermit(long now) {
+            if (intervalNanos != 0) {
+                nextPermitNanos = Math.max(nextPermitNanos, now) + intervalNanos;
+            }
+        }
+    }
+
+    private static long weigh(SendMessageRequest request) {
+        String text = request.text();
+        return MESSAGE_OVERHEAD_BYTES + (text != null ? 2L * text.length() : 0);
+    }
+
+    /** Interval between permits of a lane, or 0 if the lane is not capped. */
+    private static long laneIntervalNanos(Builder builder, Priority priority) {
+        Double share = builder.laneShares.get(priority);
+        if (builder.globalLimit == null || share == null || priority == Priority.HIGH) {
+            return 0;
+        }
+        return (long) (builder.globalLimit.period().toNanos() / (builder.globalLimit.permits() * share));
+    }
+
+    private static int laneBurst(Builder builder) {
+        return builder.globalLimit != null ? builder.globalLimit.burst() : 1;
+    }
+
+    /**
+     * Creates a new builder instance.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link NotificationDispatcher}.
+     */
+    public static final class Builder {
+        private TelegramNotifierClient client;
+        private int workers = 4;
+        private int capacity = 10_000;
+        private long maxBytes = 16L * 1024 * 1024;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        private Duration offerTimeout = Duration.ofSeconds(1);
+        private BiConsumer<SendMessageRequest, Throwable> errorHandler = (request, error) -> {
+        };
+        private RateLimit globalLimit;
+        private DurableOutbox outbox;
+        private Duration retryBackoff = Duration.ofSeconds(1);
+        private RateLimiter rateLimiter;
+        private final Map<Priority, Double> laneShares = new EnumMap<>(Priority.class);
+
+        private Builder() {
+            laneShares.put(Priority.NORMAL, 0.8);
+            laneShares.put(Priority.LOW, 0.5);
+        }
+
+        /**
+         * Sets the client the workers send through. Required.
+         *
+         * @param client the client
+         * @return this builder instance
+         */
+        public Builder client(TelegramNotifierClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Sets the number of worker threads. Defaults to 4.
+         *
+         * @param workers the number of workers
+         * @return this builder instance
+         */
+        public Builder workers(int workers) {
+            if (workers <= 0) {
+                throw new IllegalArgumentException("workers must be positive");
+            }
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of queued messages. Defaults to 10,000.
+         *
+         * @param capacity the queue capacity
+         * @return this builder instance
+         */
+        public Builder capacity(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive");
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum memory held by queued messages, estimated from their
+         * text length. Defaults to 16 MiB.
+         *
+         * @param maxBytes the queue size limit in bytes
+         * @return this builder instance
+         */
+        public Builder maxBytes(long maxBytes) {
+            if (maxBytes <= 0) {
+                throw new IllegalArgumentException("maxBytes must be positive");
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets what happens to new messages when the queue is full. Defaults to
+         * {@link OverflowPolicy#BLOCK}.
+         *
+         * @param overflowPolicy the overflow policy
+         * @return this builder instance
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Sets how long {@link OverflowPolicy#BLOCK} waits for room. Defaults to
+         * one second.
+         *
+         * @param offerTimeout the maximum time a producer is blocked
+         * @return this builder instance
+         */
+        public Builder offerTimeout(Duration offerTimeout) {
+            this.offerTimeout = offerTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the callback for sends that failed on a worker. Runs on the worker
+         * thread; any exception it throws is ignored. Defaults to ignoring failures.
+         *
+         * @param errorHandler receives the request and the error
+         * @return this builder instance
+         */
+        public Builder onError(BiConsumer<SendMessageRequest, Throwable> errorHandler) {
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        /**
+         * Sets the bot-wide rate budget the lanes are capped against, normally the
+         * global limit of the client's
+         * {@link io.github.haiphamcoder.telegrambot.notifier.ratelimit.RateLimiter}.
+         * Lanes are not capped unless this is set.
+         *
+         * @param globalLimit the bot-wide limit
+         * @return this builder instance
+         */
+        public Builder globalLimit(RateLimit globalLimit) {
+            this.globalLimit = globalLimit;
+            return this;
+        }
+
+        /**
+         * Sets the share of the global limit that {@code priority} and all lanes
+         * below it may use together; the rest is reserved for the lanes above.
+         * Defaults to 0.8 for {@link Priority#NORMAL} and 0.5 for
+         * {@link Priority#LOW}. {@link Priority#HIGH} is never capped.
+         *
+         * @param priority the lane
+         * @param share    the share of the global limit, in (0, 1]
+         * @return this builder instance
+         */
+        public Builder laneShare(Priority priority, double share) {
+            if (!(share > 0 && share <= 1)) {
+                throw new IllegalArgumentException("share must be in (0, 1]");
+            }
+            this.laneShares.put(priority, share);
+            return this;
+        }
+
+        /**
+         * Sets the outbox that keeps accepted messages on disk until Telegram has
+         * answered. Messages left in it by an earlier run are queued when the
+         * dispatcher is built. An outbox must only be attached to one dispatcher,
+         * and should be closed after it.
+         *
+         * @param outbox the outbox, or {@code null} for none (the default)
+         * @return this builder instance
+         */
+        public Builder outbox(DurableOutbox outbox) {
+            this.outbox = outbox;
+            return this;
+        }
+
+        /**
+         * Sets the rate limiter of the {@link #client(TelegramNotifierClient)}, so
+         * that workers pass over messages to chats that are out of permits or
+         * already being sent to instead of blocking on them. Messages to one chat
+         * still go out in order. Chats are not passed over unless this is set.
+         *
+         * @param rateLimiter the client's rate limiter
+         * @return this builder instance
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets how long a message that failed with a transient error waits before
+         * it is queued again; the wait doubles with every failed attempt, up to
+         * 64 times this value, and is at least the {@code retry_after} of a 429.
+         * Only applies with an {@link #outbox(DurableOutbox)}; without one,
+         * failed messages are dropped. Defaults to one second.
+         *
+         * @param retryBackoff the wait before the first retry
+         * @return this builder instance
+         */
+        public Builder retryBackoff(Duration retryBackoff) {
+            if (retryBackoff.isNegative() || retryBackoff.isZero()) {
+                throw new IllegalArgumentException("retryBackoff must be positive");
+            }
+            this.retryBackoff = retryBackoff;
+            return this;
+        }
+
+        /**
+         * Builds the dispatcher and starts its workers.
+         *
+         * @return the dispatcher
+         * @throws IllegalArgumentException if no client was set
+         */
+        public NotificationDispatcher build() {
+            if (client == null) {
+                throw new IllegalArgumentException("client is required");
+            }
+            return new NotificationDispatcher(this);
+        }
+    }
+
+}
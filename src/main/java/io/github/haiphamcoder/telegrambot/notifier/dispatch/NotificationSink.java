@@ -0,0 +1,66 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+
+/**
+ * Fire-and-forget entry point for notifications: {@link #submit} hands a
+ * message over for delivery and returns without waiting for Telegram.
+ * <p>
+ * Sinks can be chained, e.g. a stage that merges or filters messages in front
+ * of a {@link NotificationDispatcher} that sends them. Implementations must be
+ * thread-safe.
+ */
+public interface NotificationSink extends AutoCloseable {
+
+    /** Deadline used by {@link #close()}. */
+    Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Hands a message over for delivery.
+     *
+     * @param request the message to send
+     * @return {@code true} if the message was accepted, {@code false} if it was
+     *         dropped
+     * @throws RejectedExecutionException if the sink rejects messages when full
+     * @throws IllegalStateException      if the sink has been closed
+     */
+    boolean submit(SendMessageRequest request);
+
+    /**
+     * Hands a message over for delivery in the given lane. Sinks without lanes
+     * treat every message alike; the default implementation ignores
+     * {@code priority}.
+     *
+     * @param request  the message to send
+     * @param priority the delivery lane
+     * @return {@code true} if the message was accepted, {@code false} if it was
+     *         dropped
+     * @throws RejectedExecutionException if the sink rejects messages when full
+     * @throws IllegalStateException      if the sink has been closed
+     */
+    default boolean submit(SendMessageRequest request, Priority priority) {
+        return submit(request);
+    }
+
+    /**
+     * Stops accepting messages and delivers the pending ones, giving up on
+     * whatever is still pending when {@code timeout} has passed.
+     *
+     * @param timeout how long to wait for pending messages
+     * @return {@code true} if every accepted message was handed to Telegram
+     */
+    boolean close(Duration timeout);
+
+    /**
+     * Closes the sink, waiting up to {@link #DEFAULT_CLOSE_TIMEOUT} for pending
+     * messages.
+     */
+    @Override
+    default void close() {
+        close(DEFAULT_CLOSE_TIMEOUT);
+    }
+
+}
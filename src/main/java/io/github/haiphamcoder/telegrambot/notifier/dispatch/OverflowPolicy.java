@@ -0,0 +1,24 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+/**
+ * What a {@link NotificationDispatcher} does with a new message when its queue
+ * is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Wait up to the configured offer timeout for room, then drop the new
+     * message.
+     */
+    BLOCK,
+
+    /** Drop the new message right away. */
+    DROP_NEWEST,
+
+    /** Drop the oldest queued messages until the new one fits. */
+    DROP_OLDEST,
+
+    /** Throw a {@link java.util.concurrent.RejectedExecutionException}. */
+    REJECT
+
+}
@@ -0,0 +1,19 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+/**
+ * Delivery lane of a queued notification. Higher lanes are always served
+ * first, and lower lanes can be capped so that part of the rate budget is kept
+ * free for higher ones.
+ */
+public enum Priority {
+
+    /** Page-worthy alerts; never throttled by the dispatcher. */
+    HIGH,
+
+    /** Regular notifications. */
+    NORMAL,
+
+    /** Digests, broadcasts and other bulk traffic. */
+    LOW
+
+}
@@ -30,6 +30,20 @@ public class TelegramApiException extends RuntimeException {
         this.errorResponse = null;
     }
 
+    /**
+     * Creates an error that was raised locally instead of by Telegram.
+     *
+     * @param message     the exception message
+     * @param errorCode   the error code Telegram would have answered with
+     * @param description the error description
+     */
+    protected TelegramApiException(String message, int errorCode, String description) {
+        super(message);
+        this.errorCode = errorCode;
+        this.description = description;
+        this.errorResponse = null;
+    }
+
     public int getErrorCode() {
         return errorCode;
     }
@@ -42,4 +56,30 @@ public class TelegramApiException extends RuntimeException {
         return errorResponse;
     }
 
+    /**
+     * Returns the number of seconds Telegram asked to wait before repeating the
+     * request, as sent with flood-control (HTTP 429) errors.
+     *
+     * @return the {@code retry_after} parameter, or {@code null} if absent
+     */
+    public Integer getRetryAfter() {
+        if (errorResponse == null || errorResponse.getParameters() == null) {
+            return null;
+        }
+        return errorResponse.getParameters().getRetryAfter();
+    }
+
+    /**
+     * Returns the ID of the supergroup the target group was migrated to, as sent
+     * when a group has been upgraded.
+     *
+     * @return the {@code migrate_to_chat_id} parameter, or {@code null} if absent
+     */
+    public Long getMigrateToChatId() {
+        if (errorResponse == null || errorResponse.getParameters() == null) {
+            return null;
+        }
+        return errorResponse.getParameters().getMigrateToChatId();
+    }
+
 }
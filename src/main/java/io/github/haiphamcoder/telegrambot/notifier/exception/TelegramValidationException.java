@@ -0,0 +1,37 @@
+package io.github.haiphamcoder.telegrambot.notifier.exception;
+
+/**
+ * Thrown when a request is rejected before it is sent because Telegram could
+ * never accept it, such as an empty or over-long text or an unclosed HTML tag.
+ * <p>
+ * It reports error code 400, like the {@code Bad Request} Telegram would have
+ * answered with, so code that handles {@link TelegramApiException} treats both
+ * the same way.
+ */
+public class TelegramValidationException extends TelegramApiException {
+
+    private final String field;
+    private final String reason;
+
+    /**
+     * Creates a validation error.
+     *
+     * @param field  the offending field, e.g.
+     *               {@code reply_markup.inline_keyboard[0][1].callback_data}
+     * @param reason why the field is invalid
+     */
+    public TelegramValidationException(String field, String reason) {
+        super("Invalid request, " + field + " " + reason, 400, "Bad Request: " + field + " " + reason);
+        this.field = field;
+        this.reason = reason;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+}
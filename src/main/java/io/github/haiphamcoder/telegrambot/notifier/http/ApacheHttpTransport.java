@@ -0,0 +1,349 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+
+/**
+ * {@link TelegramTransport} built on Apache HttpClient 5.
+ * <p>
+ * Blocking calls use a pooled classic client; async calls use an async client
+ * that is only started on first use, so blocking-only users never spin up an
+ * I/O reactor. With {@link HttpProtocol#HTTP_2} every call goes through a
+ * multiplexing HTTP/2 async client instead and the pool settings do not apply.
+ */
+public final class ApacheHttpTransport implements TelegramTransport {
+
+    private final CloseableHttpClient httpClient;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final ConnectionConfig connectionConfig;
+    private final RequestConfig requestConfig;
+    private final int maxConnectionsTotal;
+    private final int maxConnectionsPerRoute;
+    private final TimeValue maxIdleTime;
+    private final long maxResponseSize;
+    /** When set, every call is multiplexed over the async HTTP/2 client. */
+    private final boolean http2;
+    /** Non-null once {@link #prewarm} has been called. */
+    private volatile ConnectionWarmer connectionWarmer;
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    private final ReentrantLock asyncClientLock = new ReentrantLock();
+    /** Started on first async call so blocking-only users never spin up an I/O reactor. */
+    private volatile CloseableHttpAsyncClient asyncHttpClient;
+    private PoolingAsyncClientConnectionManager asyncConnectionManager;
+    private boolean closed;
+
+    private ApacheHttpTransport(Builder builder) {
+        this.maxConnectionsTotal = builder.maxConnectionsTotal;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.maxIdleTime = builder.maxIdleTime != null ? TimeValue.of(builder.maxIdleTime) : null;
+        this.http2 = builder.httpProtocol == HttpProtocol.HTTP_2;
+        this.maxResponseSize = builder.maxResponseSize;
+
+        ConnectionConfig.Builder connectionConfigBuilder = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(builder.connectionTimeout));
+        if (builder.connectionTimeToLive != null) {
+            connectionConfigBuilder.setTimeToLive(TimeValue.of(builder.connectionTimeToLive));
+        }
+        if (builder.validateAfterInactivity != null) {
+            connectionConfigBuilder.setValidateAfterInactivity(TimeValue.of(builder.validateAfterInactivity));
+        }
+        this.connectionConfig = connectionConfigBuilder.build();
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setDefaultConnectionConfig(connectionConfig)
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .build();
+
+        this.requestConfig = RequestConfig.custom()
+                .setResponseTimeout(Timeout.of(builder.responseTimeout))
+                .setConnectionRequestTimeout(Timeout.of(builder.connectionRequestTimeout))
+                .build();
+
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig);
+        if (maxIdleTime != null) {
+            httpClientBuilder.evictExpiredConnections().evictIdleConnections(maxIdleTime);
+        }
+        this.httpClient = httpClientBuilder.build();
+    }
+
+    @Override
+    public <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader)
+            throws TelegramApiException, TelegramHttpException {
+        if (http2) {
+            return await(postJsonAsync(uri, payload, resultReader));
+        }
+        lastActivityNanos = System.nanoTime();
+        return TelegramRequestExecutor.postJson(httpClient, uri, payload, resultReader, maxResponseSize);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader) {
+        lastActivityNanos = System.nanoTime();
+        CloseableHttpAsyncClient client;
+        try {
+            client = asyncHttpClient();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return TelegramAsyncRequestExecutor.postJson(client, uri, payload, resultReader, maxResponseSize);
+    }
+
+    @Override
+    public <T> T postJsonBody(URI uri, byte[] body, ResultReader<T> resultReader)
+            throws TelegramApiException, TelegramHttpException {
+        if (http2) {
+            return await(postJsonBodyAsync(uri, body, resultReader));
+        }
+        lastActivityNanos = System.nanoTime();
+        return TelegramRequestExecutor.postJsonBody(httpClient, uri, body, resultReader, maxResponseSize);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postJsonBodyAsync(URI uri, byte[] body, ResultReader<T> resultReader) {
+        lastActivityNanos = System.nanoTime();
+        CloseableHttpAsyncClient client;
+        try {
+            client = asyncHttpClient();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return TelegramAsyncRequestExecutor.postJsonBody(client, uri, body, resultReader, maxResponseSize);
+    }
+
+    /**
+     * Opens {@code connections} pooled connections by probing {@code getMe}
+     * and, if {@code keepWarmInterval} is set, keeps them alive while idle.
+     * Blocks until every probe has completed or failed. Only the classic
+     * HTTP/1.1 pool used by blocking calls is warmed: the async pool starts
+     * cold, and the call is a no-op with HTTP/2.
+     *
+     * @param methodBaseUrl    the bot method base URL, ending with {@code /}
+     * @param connections      the number of connections to open
+     * @param keepWarmInterval how often to re-probe while idle, or {@code null}
+     */
+    public void prewarm(String methodBaseUrl, int connections, Duration keepWarmInterval) {
+        if (http2 || connections <= 0) {
+            return;
+        }
+        ConnectionWarmer warmer = new ConnectionWarmer(httpClient, methodBaseUrl, connections, keepWarmInterval,
+                () -> lastActivityNanos);
+        connectionWarmer = warmer;
+        warmer.warm();
+    }
+
+    @Override
+    public ConnectionPoolStats getConnectionPoolStats() {
+        return toConnectionPoolStats(connectionManager.getTotalStats());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns {@link ConnectionPoolStats#EMPTY} until the first async call, and
+     * always with HTTP/2.
+     */
+    @Override
+    public ConnectionPoolStats getAsyncConnectionPoolStats() {
+        asyncClientLock.lock();
+        try {
+            return asyncConnectionManager != null
+                    ? toConnectionPoolStats(asyncConnectionManager.getTotalStats())
+                    : ConnectionPoolStats.EMPTY;
+        } finally {
+            asyncClientLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        ConnectionWarmer warmer = connectionWarmer;
+        if (warmer != null) {
+            warmer.close();
+        }
+        asyncClientLock.lock();
+        try {
+            closed = true;
+            if (asyncHttpClient != null) {
+                asyncHttpClient.close(CloseMode.GRACEFUL);
+            }
+        } finally {
+            asyncClientLock.unlock();
+        }
+        try {
+            httpClient.close();
+        } catch (IOException ignored) {
+            // ignored
+        }
+    }
+
+    private CloseableHttpAsyncClient asyncHttpClient() {
+        CloseableHttpAsyncClient client = asyncHttpClient;
+        if (client != null) {
+            return client;
+        }
+        asyncClientLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Transport has been closed");
+            }
+            if (asyncHttpClient == null && http2) {
+                H2AsyncClientBuilder clientBuilder = H2AsyncClientBuilder.create()
+                        .setDefaultConnectionConfig(connectionConfig)
+                        .setDefaultRequestConfig(requestConfig);
+                if (maxIdleTime != null) {
+                    clientBuilder.evictIdleConnections(maxIdleTime);
+                }
+                client = clientBuilder.build();
+                client.start();
+                asyncHttpClient = client;
+            } else if (asyncHttpClient == null) {
+                asyncConnectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                        .setDefaultConnectionConfig(connectionConfig)
+                        .setMaxConnTotal(maxConnectionsTotal)
+                        .setMaxConnPerRoute(maxConnectionsPerRoute)
+                        .build();
+                HttpAsyncClientBuilder clientBuilder = HttpAsyncClients.custom()
+                        .setConnectionManager(asyncConnectionManager)
+                        .setDefaultRequestConfig(requestConfig);
+                if (maxIdleTime != null) {
+                    clientBuilder.evictExpiredConnections().evictIdleConnections(maxIdleTime);
+                }
+                client = clientBuilder.build();
+                client.start();
+                asyncHttpClient = client;
+            }
+            return asyncHttpClient;
+        } finally {
+            asyncClientLock.unlock();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new TelegramHttpException("I/O error", cause);
+        }
+    }
+
+    private static ConnectionPoolStats toConnectionPoolStats(PoolStats stats) {
+        return new ConnectionPoolStats(stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+    /**
+     * Creates a new builder instance.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link ApacheHttpTransport}. Defaults match
+     * {@code TelegramNotifierClientBuilder}.
+     */
+    public static final class Builder {
+        private Duration connectionTimeout = Duration.ofSeconds(10);
+        private Duration responseTimeout = Duration.ofSeconds(30);
+        private HttpProtocol httpProtocol = HttpProtocol.HTTP_1_1;
+        private int maxConnectionsTotal = 50;
+        private int maxConnectionsPerRoute = 50;
+        private Duration connectionTimeToLive;
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        private Duration maxIdleTime;
+        private Duration connectionRequestTimeout = Duration.ofSeconds(30);
+        private long maxResponseSize = TelegramResponseParser.DEFAULT_MAX_RESPONSE_SIZE;
+
+        private Builder() {
+        }
+
+        public Builder connectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+            return this;
+        }
+
+        public Builder responseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        public Builder httpProtocol(HttpProtocol httpProtocol) {
+            this.httpProtocol = httpProtocol;
+            return this;
+        }
+
+        public Builder maxConnectionsTotal(int maxConnectionsTotal) {
+            this.maxConnectionsTotal = maxConnectionsTotal;
+            return this;
+        }
+
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public Builder connectionTimeToLive(Duration connectionTimeToLive) {
+            this.connectionTimeToLive = connectionTimeToLive;
+            return this;
+        }
+
+        public Builder validateAfterInactivity(Duration validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        public Builder evictIdleConnections(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+            return this;
+        }
+
+        public Builder connectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+            return this;
+        }
+
+        public Builder maxResponseSize(long maxResponseSize) {
+            this.maxResponseSize = maxResponseSize;
+            return this;
+        }
+
+        public ApacheHttpTransport build() {
+            return new ApacheHttpTransport(this);
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.entity.AbstractBinAsyncEntityConsumer;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+
+/**
+ * Async entity consumer that collects the body into a byte array and fails as
+ * soon as it grows beyond a fixed limit, instead of buffering it unbounded like
+ * {@code SimpleResponseConsumer}.
+ */
+final class BoundedAsyncEntityConsumer extends AbstractBinAsyncEntityConsumer<byte[]> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long limit;
+    private final ByteArrayBuffer buffer = new ByteArrayBuffer(INITIAL_CAPACITY);
+
+    BoundedAsyncEntityConsumer(long limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    protected void streamStart(ContentType contentType) {
+        // content type is irrelevant: JSON encoding is detected by the parser
+    }
+
+    @Override
+    protected int capacityIncrement() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+        if ((long) buffer.length() + src.remaining() > limit) {
+            throw new BoundedInputStream.ResponseTooLargeException(limit);
+        }
+        buffer.append(src);
+    }
+
+    @Override
+    protected byte[] generateContent() {
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public void releaseResources() {
+        buffer.clear();
+    }
+
+}
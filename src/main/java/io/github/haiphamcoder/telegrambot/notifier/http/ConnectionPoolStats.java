@@ -0,0 +1,16 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+/**
+ * Point-in-time snapshot of a connection pool.
+ *
+ * @param leased    connections currently in use by a request
+ * @param available idle connections ready to be leased
+ * @param pending   requests waiting for a connection lease
+ * @param max       maximum number of connections the pool may hold
+ */
+public record ConnectionPoolStats(int leased, int available, int pending, int max) {
+
+    /** Snapshot of a pool that has not been created yet. */
+    public static final ConnectionPoolStats EMPTY = new ConnectionPoolStats(0, 0, 0, 0);
+
+}
@@ -0,0 +1,107 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+
+import io.github.haiphamcoder.telegrambot.notifier.util.DaemonThreadFactory;
+
+/**
+ * Opens and keeps alive a number of pooled connections ahead of real traffic.
+ * <p>
+ * {@link #warm()} issues {@code connections} concurrent {@code getMe} probes so
+ * that the pool holds that many connections with completed DNS, TCP and TLS
+ * handshakes. When a keep-warm interval is configured, a background task
+ * repeats the probes whenever the client has been idle for at least that
+ * interval, which keeps the server and any middleboxes from closing the idle
+ * connections. Probe failures are ignored: warming is best-effort and must
+ * never affect real sends.
+ */
+public final class ConnectionWarmer implements AutoCloseable {
+
+    private static final String PROBE_METHOD = "getMe";
+
+    private final CloseableHttpClient httpClient;
+    private final String probeUrl;
+    private final int connections;
+    private final ThreadPoolExecutor probeExecutor;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a warmer for the given client.
+     *
+     * @param httpClient        the client whose pool should be warmed
+     * @param methodBaseUrl     the bot method base URL, ending with {@code /}
+     * @param connections       the number of connections to keep open
+     * @param keepWarmInterval  how often to re-probe while idle, or {@code null}
+     *                          to only warm once
+     * @param lastActivityNanos supplies the {@link System#nanoTime()} of the
+     *                          last real send
+     */
+    public ConnectionWarmer(CloseableHttpClient httpClient, String methodBaseUrl, int connections,
+            Duration keepWarmInterval, LongSupplier lastActivityNanos) {
+        this.httpClient = httpClient;
+        this.probeUrl = methodBaseUrl + PROBE_METHOD;
+        this.connections = connections;
+        this.probeExecutor = new ThreadPoolExecutor(connections, connections, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DaemonThreadFactory("telegram-warmer-probe-"));
+        this.probeExecutor.allowCoreThreadTimeOut(true);
+        if (keepWarmInterval != null) {
+            long intervalNanos = keepWarmInterval.toNanos();
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                    new DaemonThreadFactory("telegram-keep-warm-"));
+            this.scheduler.scheduleWithFixedDelay(() -> {
+                if (System.nanoTime() - lastActivityNanos.getAsLong() >= intervalNanos) {
+                    warm();
+                }
+            }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Opens up to {@code connections} connections by probing them concurrently,
+     * returning once every probe has completed or failed.
+     */
+    public void warm() {
+        List<CompletableFuture<Void>> probes = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            probes.add(CompletableFuture.runAsync(this::probe, probeExecutor));
+        }
+        CompletableFuture.allOf(probes.toArray(new CompletableFuture<?>[0])).exceptionally(ex -> null).join();
+    }
+
+    private void probe() {
+        try {
+            httpClient.execute(new HttpGet(probeUrl), response -> {
+                // Drain the body so the connection goes back to the pool
+                EntityUtils.consume(response.getEntity());
+                return null;
+            });
+        } catch (IOException | RuntimeException ignored) {
+            // best-effort: a failed probe only means one less warm connection
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        probeExecutor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,19 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+/**
+ * HTTP protocol used to talk to the Bot API.
+ */
+public enum HttpProtocol {
+    /**
+     * HTTP/1.1 over pooled connections; each in-flight request holds its own
+     * connection. This is the default.
+     */
+    HTTP_1_1,
+    /**
+     * HTTP/2 on the async engine; concurrent requests are multiplexed as streams
+     * over a single connection per host. Uses ALPN for {@code https} base URLs
+     * and prior knowledge (h2c) for plain {@code http} ones, such as a local Bot
+     * API server.
+     */
+    HTTP_2
+}
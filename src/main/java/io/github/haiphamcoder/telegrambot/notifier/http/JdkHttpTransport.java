@@ -0,0 +1,200 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+
+/**
+ * {@link TelegramTransport} built on the JDK {@code java.net.http.HttpClient}.
+ * <p>
+ * Needs no pool set-up and loads none of the httpclient5 classes, which makes it
+ * a good fit for short-lived jobs and CLI senders that only send a handful of
+ * messages. Connection reuse and HTTP/2 multiplexing are handled internally by
+ * the JDK client; pool sizing and pre-warming are not available.
+ */
+public final class JdkHttpTransport implements TelegramTransport {
+
+    private static final String HEADER_CONTENT_TYPE = "Content-Type";
+    private static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+
+    private final HttpClient httpClient;
+    private final Duration responseTimeout;
+    private final long maxResponseSize;
+
+    /**
+     * Creates a transport using HTTP/1.1.
+     *
+     * @param connectionTimeout the connect timeout
+     * @param responseTimeout   the per-request response timeout
+     */
+    public JdkHttpTransport(Duration connectionTimeout, Duration responseTimeout) {
+        this(connectionTimeout, responseTimeout, HttpProtocol.HTTP_1_1);
+    }
+
+    /**
+     * Creates a transport using the given protocol. With
+     * {@link HttpProtocol#HTTP_2} the JDK client negotiates HTTP/2 through ALPN
+     * and falls back to HTTP/1.1 when the server does not support it.
+     *
+     * @param connectionTimeout the connect timeout
+     * @param responseTimeout   the per-request response timeout
+     * @param httpProtocol      the preferred protocol
+     */
+    public JdkHttpTransport(Duration connectionTimeout, Duration responseTimeout, HttpProtocol httpProtocol) {
+        this(connectionTimeout, responseTimeout, httpProtocol, TelegramResponseParser.DEFAULT_MAX_RESPONSE_SIZE);
+    }
+
+    /**
+     * Creates a transport using the given protocol that rejects response bodies
+     * larger than {@code maxResponseSize} bytes.
+     *
+     * @param connectionTimeout the connect timeout
+     * @param responseTimeout   the per-request response timeout
+     * @param httpProtocol      the preferred protocol
+     * @param maxResponseSize   the maximum response body size in bytes
+     */
+    public JdkHttpTransport(Duration connectionTimeout, Duration responseTimeout, HttpProtocol httpProtocol,
+            long maxResponseSize) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectionTimeout)
+                .version(httpProtocol == HttpProtocol.HTTP_2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .build();
+        this.responseTimeout = responseTimeout;
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    @Override
+    public <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader)
+            throws TelegramApiException, TelegramHttpException {
+        // The JDK client writes the body from its own threads, so it gets a private copy
+        return postJsonBody(uri, JsonRequestBody.toByteArray(payload), resultReader);
+    }
+
+    @Override
+    public <T> T postJsonBody(URI uri, byte[] body, ResultReader<T> resultReader)
+            throws TelegramApiException, TelegramHttpException {
+        HttpRequest request = buildRequest(uri, body);
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream responseBody = response.body()) {
+                return TelegramResponseParser.parse(response.statusCode(), responseBody, maxResponseSize,
+                        resultReader);
+            }
+        } catch (IOException e) {
+            throw new TelegramHttpException("I/O error", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramHttpException("Interrupted while waiting for response", e);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader) {
+        byte[] body;
+        try {
+            body = JsonRequestBody.toByteArray(payload);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return postJsonBodyAsync(uri, body, resultReader);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postJsonBodyAsync(URI uri, byte[] body, ResultReader<T> resultReader) {
+        HttpRequest request;
+        try {
+            request = buildRequest(uri, body);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, responseInfo -> new BoundedBodySubscriber(maxResponseSize))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        throw new TelegramHttpException("I/O error", cause);
+                    }
+                    try {
+                        return TelegramResponseParser.parse(response.statusCode(), response.body(), resultReader);
+                    } catch (IOException e) {
+                        throw new TelegramHttpException("I/O error", e);
+                    }
+                });
+    }
+
+    /**
+     * Collects the body into a byte array, cancelling the exchange as soon as it
+     * grows beyond the limit.
+     */
+    private static final class BoundedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final long limit;
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private Flow.Subscription subscription;
+
+        BoundedBodySubscriber(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (body.isDone()) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                if ((long) buffer.size() + item.remaining() > limit) {
+                    subscription.cancel();
+                    body.completeExceptionally(new BoundedInputStream.ResponseTooLargeException(limit));
+                    return;
+                }
+                byte[] chunk = new byte[item.remaining()];
+                item.get(chunk);
+                buffer.write(chunk, 0, chunk.length);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(buffer.toByteArray());
+        }
+    }
+
+    private HttpRequest buildRequest(URI uri, byte[] body) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(responseTimeout)
+                .header(HEADER_CONTENT_TYPE, CONTENT_TYPE_JSON)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+}
@@ -0,0 +1,134 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.util.JsonUtils;
+import io.github.haiphamcoder.telegrambot.notifier.util.VirtualThreads;
+
+/**
+ * Serializes request payloads as UTF-8 JSON straight into a byte buffer that
+ * is reused across sends, so a request costs neither an intermediate
+ * {@code String} nor a second encoding pass, and its exact
+ * {@code Content-Length} is known up front.
+ * <p>
+ * Platform threads keep a buffer of their own. Virtual threads are too many
+ * and too short-lived for that, so they borrow from a small shared pool
+ * instead, and allocate when it is empty. A buffer returned by
+ * {@link #serialize(Object)} must be handed back with {@link #release(Buffer)}
+ * once the body has been written, and is only valid until then; callers that
+ * hand the body to another thread must use {@link #toByteArray(Object)}.
+ * Buffers that grew beyond {@value #MAX_RETAINED_CAPACITY} bytes are not kept
+ * for reuse.
+ */
+final class JsonRequestBody {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final int POOL_SIZE = 64;
+
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(() -> new Buffer(false));
+    /** Buffers shared by virtual threads. */
+    private static final ArrayBlockingQueue<Buffer> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    /** Writers are resolved once per payload type instead of on every send. */
+    private static final ClassValue<ObjectWriter> WRITERS = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return JsonUtils.getObjectMapper().writerFor(type);
+        }
+    };
+
+    private JsonRequestBody() {
+        throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Serializes {@code payload} into a recycled buffer.
+     *
+     * @param payload the request payload
+     * @return the buffer holding the encoded body, to be passed to
+     *         {@link #release(Buffer)}
+     * @throws TelegramApiException if the payload cannot be serialized
+     */
+    static Buffer serialize(Object payload) {
+        Buffer buffer = VirtualThreads.isCurrentThreadVirtual() ? borrow() : threadBuffer();
+        buffer.reset();
+        try {
+            WRITERS.get(payload.getClass()).writeValue(buffer, payload);
+        } catch (IOException e) {
+            release(buffer);
+            throw new TelegramApiException("Failed to serialize request payload: " + e.getMessage());
+        }
+        return buffer;
+    }
+
+    /**
+     * Hands a buffer from {@link #serialize(Object)} back for reuse. The
+     * buffer must not be used afterwards.
+     *
+     * @param buffer the buffer
+     */
+    static void release(Buffer buffer) {
+        if (buffer.pooled && buffer.capacity() <= MAX_RETAINED_CAPACITY) {
+            // dropped if the pool is full
+            POOL.offer(buffer);
+        }
+    }
+
+    private static Buffer threadBuffer() {
+        Buffer buffer = BUFFERS.get();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new Buffer(false);
+            BUFFERS.set(buffer);
+        }
+        return buffer;
+    }
+
+    /** Package-private for tests, which cannot run on virtual threads on Java 17. */
+    static Buffer borrow() {
+        Buffer buffer = POOL.poll();
+        return buffer != null ? buffer : new Buffer(true);
+    }
+
+    /**
+     * Serializes {@code payload} into an array owned by the caller, for bodies
+     * that are written out on another thread.
+     *
+     * @param payload the request payload
+     * @return the encoded body
+     * @throws TelegramApiException if the payload cannot be serialized
+     */
+    static byte[] toByteArray(Object payload) {
+        Buffer buffer = serialize(payload);
+        try {
+            return buffer.toByteArray();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /** Growable byte buffer exposing its backing array without copying. */
+    static final class Buffer extends ByteArrayOutputStream {
+
+        /** Whether the buffer belongs to the shared pool rather than to one thread. */
+        private final boolean pooled;
+
+        private Buffer(boolean pooled) {
+            super(INITIAL_CAPACITY);
+            this.pooled = pooled;
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+
+}
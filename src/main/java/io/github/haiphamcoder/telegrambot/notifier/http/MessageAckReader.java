@@ -0,0 +1,59 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.MessageAck;
+
+/**
+ * {@link ResultReader} that picks {@code message_id} and {@code chat.id} out of
+ * a {@code Message} result and skips everything else, without binding the
+ * sender, entities or any other nested object.
+ */
+public final class MessageAckReader implements ResultReader<MessageAck> {
+
+    /** Shared instance; the reader is stateless. */
+    public static final MessageAckReader INSTANCE = new MessageAckReader();
+
+    private MessageAckReader() {
+    }
+
+    @Override
+    public MessageAck read(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        long chatId = 0;
+        long messageId = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("message_id".equals(field)) {
+                messageId = parser.getValueAsLong();
+            } else if ("chat".equals(field) && value == JsonToken.START_OBJECT) {
+                chatId = readChatId(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new MessageAck(chatId, messageId);
+    }
+
+    private static long readChatId(JsonParser parser) throws IOException {
+        long chatId = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                chatId = parser.getValueAsLong();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return chatId;
+    }
+
+}
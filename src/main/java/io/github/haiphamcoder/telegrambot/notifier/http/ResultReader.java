@@ -0,0 +1,44 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import io.github.haiphamcoder.telegrambot.notifier.util.JsonUtils;
+
+/**
+ * Reads the {@code result} field of a successful Bot API response.
+ * <p>
+ * The parser is positioned on the first token of the value; the reader must
+ * consume the whole value (for an object or array, up to and including its end
+ * token) and nothing more. Readers that only need a few fields can walk the
+ * tokens themselves and {@link JsonParser#skipChildren() skip} the rest, so no
+ * objects are built for data the caller does not use.
+ *
+ * @param <T> the result type
+ */
+@FunctionalInterface
+public interface ResultReader<T> {
+
+    /**
+     * Reads the result value.
+     *
+     * @param parser the parser, positioned on the first token of the value
+     * @return the result
+     * @throws IOException if the value cannot be read
+     */
+    T read(JsonParser parser) throws IOException;
+
+    /**
+     * Returns a reader that binds the result to {@code type} with the shared
+     * object mapper.
+     *
+     * @param type the type to bind to
+     * @param <T>  the result type
+     * @return the reader
+     */
+    static <T> ResultReader<T> of(Class<T> type) {
+        return parser -> JsonUtils.getObjectMapper().readValue(parser, type);
+    }
+
+}
@@ -0,0 +1,118 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.nio.support.BasicResponseConsumer;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+
+/**
+ * Non-blocking counterpart of {@link TelegramRequestExecutor} built on the
+ * httpclient5 async engine.
+ * <p>
+ * Requests are handed to the I/O reactor and the returned future is completed
+ * from the reactor thread once the response has been received, so no caller
+ * thread is held for the duration of the round trip. Response handling is
+ * shared with the blocking executor through {@link TelegramResponseParser}.
+ */
+public final class TelegramAsyncRequestExecutor {
+
+    private static final ContentType CONTENT_TYPE_JSON = ContentType.APPLICATION_JSON;
+
+    private TelegramAsyncRequestExecutor() {
+        throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
+    }
+
+    public static <T> CompletableFuture<T> postJson(CloseableHttpAsyncClient httpClient, URI uri,
+            Object payload, ResultReader<T> resultReader) {
+        return postJson(httpClient, uri, payload, resultReader, TelegramResponseParser.DEFAULT_MAX_RESPONSE_SIZE);
+    }
+
+    /**
+     * Posts {@code payload} as JSON and decodes the response, failing the
+     * returned future if the response body is larger than
+     * {@code maxResponseSize} bytes.
+     *
+     * @param httpClient      the started async client
+     * @param uri             the method URI
+     * @param payload         the request payload
+     * @param resultReader    reads the {@code result} value
+     * @param maxResponseSize the maximum response body size in bytes
+     * @param <T>             the result type
+     * @return a future completed with the bound result
+     */
+    public static <T> CompletableFuture<T> postJson(CloseableHttpAsyncClient httpClient, URI uri,
+            Object payload, ResultReader<T> resultReader, long maxResponseSize) {
+        byte[] body;
+        try {
+            body = JsonRequestBody.toByteArray(payload);
+        } catch (TelegramApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return postJsonBody(httpClient, uri, body, resultReader, maxResponseSize);
+    }
+
+    /**
+     * Posts an already encoded JSON body and decodes the response. The body is
+     * sent as is and must not be modified until the returned future completes.
+     *
+     * @param httpClient      the started async client
+     * @param uri             the method URI
+     * @param body            the UTF-8 encoded JSON request body
+     * @param resultReader    reads the {@code result} value
+     * @param maxResponseSize the maximum response body size in bytes
+     * @param <T>             the result type
+     * @return a future completed with the bound result
+     */
+    public static <T> CompletableFuture<T> postJsonBody(CloseableHttpAsyncClient httpClient, URI uri,
+            byte[] body, ResultReader<T> resultReader, long maxResponseSize) {
+        SimpleHttpRequest request = SimpleRequestBuilder.post(uri)
+                .setBody(body, CONTENT_TYPE_JSON)
+                .build();
+        return execute(httpClient, request, resultReader, maxResponseSize);
+    }
+
+    private static <T> CompletableFuture<T> execute(CloseableHttpAsyncClient httpClient, SimpleHttpRequest request,
+            ResultReader<T> resultReader, long maxResponseSize) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        httpClient.execute(SimpleRequestProducer.create(request),
+                new BasicResponseConsumer<>(new BoundedAsyncEntityConsumer(maxResponseSize)),
+                new FutureCallback<Message<HttpResponse, byte[]>>() {
+
+                    @Override
+                    public void completed(Message<HttpResponse, byte[]> response) {
+                        try {
+                            result.complete(TelegramResponseParser.parse(response.getHead().getCode(),
+                                    response.getBody(), resultReader));
+                        } catch (IOException e) {
+                            result.completeExceptionally(new TelegramHttpException("I/O error", e));
+                        } catch (RuntimeException e) {
+                            result.completeExceptionally(e);
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        result.completeExceptionally(new TelegramHttpException("I/O error", ex));
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                    }
+                });
+        return result;
+    }
+
+}
@@ -1,6 +1,8 @@
 package io.github.haiphamcoder.telegrambot.notifier.http;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
@@ -13,17 +15,13 @@ import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.NameValuePair;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.message.BasicNameValuePair;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-
 import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
 import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
-import io.github.haiphamcoder.telegrambot.notifier.util.JsonUtils;
 
 public final class TelegramRequestExecutor {
 
@@ -36,16 +34,37 @@ public final class TelegramRequestExecutor {
         throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
     }
 
-    public static <T> T postJson(CloseableHttpClient httpClient, String url, Map<String, Object> payload,
+    public static <T> T postJson(CloseableHttpClient httpClient, String url, Object payload,
             Class<T> responseType) throws TelegramApiException, TelegramHttpException {
-        HttpPost request = new HttpPost(url);
-        request.setHeader(HEADER_CONTENT_TYPE, CONTENT_TYPE_JSON);
+        return postJson(httpClient, URI.create(url), payload, ResultReader.of(responseType),
+                TelegramResponseParser.DEFAULT_MAX_RESPONSE_SIZE);
+    }
+
+    public static <T> T postJson(CloseableHttpClient httpClient, URI uri, Object payload,
+            ResultReader<T> resultReader, long maxResponseSize) throws TelegramApiException, TelegramHttpException {
+        // The entity is written on this thread inside execute, so the recycled buffer can be used as is
+        JsonRequestBody.Buffer body = JsonRequestBody.serialize(payload);
         try {
-            request.setEntity(new StringEntity(JsonUtils.toJson(payload), StandardCharsets.UTF_8));
-        } catch (JsonProcessingException e) {
-            throw new TelegramApiException("Failed to serialize request payload: " + e.getMessage());
+            return postJsonEntity(httpClient, uri,
+                    new ByteArrayEntity(body.array(), 0, body.size(), ContentType.APPLICATION_JSON),
+                    resultReader, maxResponseSize);
+        } finally {
+            JsonRequestBody.release(body);
         }
-        return execute(httpClient, request, responseType);
+    }
+
+    public static <T> T postJsonBody(CloseableHttpClient httpClient, URI uri, byte[] body,
+            ResultReader<T> resultReader, long maxResponseSize) throws TelegramApiException, TelegramHttpException {
+        return postJsonEntity(httpClient, uri, new ByteArrayEntity(body, ContentType.APPLICATION_JSON),
+                resultReader, maxResponseSize);
+    }
+
+    private static <T> T postJsonEntity(CloseableHttpClient httpClient, URI uri, HttpEntity entity,
+            ResultReader<T> resultReader, long maxResponseSize) {
+        HttpPost request = new HttpPost(uri);
+        request.setHeader(HEADER_CONTENT_TYPE, CONTENT_TYPE_JSON);
+        request.setEntity(entity);
+        return execute(httpClient, request, resultReader, maxResponseSize);
     }
 
     public static <T> T postForm(CloseableHttpClient httpClient, String url, Map<String, String> fields,
@@ -56,7 +75,8 @@ public final class TelegramRequestExecutor {
                 .map(entry -> new BasicNameValuePair(entry.getKey(), entry.getValue()))
                 .collect(Collectors.toList());
         request.setEntity(new UrlEncodedFormEntity(params, StandardCharsets.UTF_8));
-        return execute(httpClient, request, responseType);
+        return execute(httpClient, request, ResultReader.of(responseType),
+                TelegramResponseParser.DEFAULT_MAX_RESPONSE_SIZE);
     }
 
     public static <T> T postMultipart(CloseableHttpClient httpClient, String url, Map<String, String> fields,
@@ -72,22 +92,21 @@ public final class TelegramRequestExecutor {
                     file.filename());
         }
         request.setEntity(multipartEntityBuilder.build());
-        return execute(httpClient, request, responseType);
+        return execute(httpClient, request, ResultReader.of(responseType),
+                TelegramResponseParser.DEFAULT_MAX_RESPONSE_SIZE);
     }
 
-    private static <T> T execute(CloseableHttpClient httpClient, ClassicHttpRequest request, Class<T> responseType) {
+    private static <T> T execute(CloseableHttpClient httpClient, ClassicHttpRequest request,
+            ResultReader<T> resultReader, long maxResponseSize) {
         try {
             return httpClient.execute(request, response -> {
-                int statusCode = response.getCode();
-                String responseBody = EntityUtils.toString(response.getEntity());
-                if (statusCode / 100 != 2) {
-                    throw new TelegramHttpException(statusCode, responseBody);
+                HttpEntity entity = response.getEntity();
+                if (entity == null) {
+                    return TelegramResponseParser.parse(response.getCode(), (byte[]) null, resultReader);
                 }
-                JsonNode tree = JsonUtils.getObjectMapper().readTree(responseBody);
-                if (!tree.path("ok").asBoolean(false)) {
-                    throw new TelegramApiException(responseBody);
+                try (InputStream content = entity.getContent()) {
+                    return TelegramResponseParser.parse(response.getCode(), content, maxResponseSize, resultReader);
                 }
-                return JsonUtils.getObjectMapper().treeToValue(tree.path("result"), responseType);
             });
         } catch (IOException e) {
             throw new TelegramHttpException("I/O error", e);
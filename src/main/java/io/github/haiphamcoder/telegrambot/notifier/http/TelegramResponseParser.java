@@ -0,0 +1,139 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+import io.github.haiphamcoder.telegrambot.notifier.model.ErrorResponse;
+import io.github.haiphamcoder.telegrambot.notifier.util.JsonUtils;
+
+/**
+ * Turns a raw Bot API response into a result object or an exception. Shared by
+ * all transports; has no dependency on a particular HTTP client.
+ * <p>
+ * Successful responses are decoded in a single streaming pass: the parser walks
+ * the top-level fields once, hands {@code result} to a {@link ResultReader}
+ * and collects {@code error_code} / {@code description} / {@code parameters}
+ * into an {@link ErrorResponse} when {@code ok} is {@code false}. No
+ * intermediate {@code String} or {@code JsonNode} tree is built.
+ * <p>
+ * Telegram reports API errors with a non-2xx status and an {@code ok=false}
+ * body; those are raised as {@link TelegramApiException} carrying the parsed
+ * {@link ErrorResponse}, so that hints such as {@code retry_after} survive.
+ * Only error responses that are not Bot API JSON (proxies, gateways) become a
+ * {@link TelegramHttpException}.
+ */
+public final class TelegramResponseParser {
+
+    /** Default upper bound for a response body: far above any Bot API message reply. */
+    public static final long DEFAULT_MAX_RESPONSE_SIZE = 1024L * 1024L;
+
+    private static final ResultReader<Object> SKIP_RESULT = parser -> {
+        parser.skipChildren();
+        return null;
+    };
+
+    private TelegramResponseParser() {
+        throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Decodes a response body read from a stream, failing if it is larger than
+     * {@code maxResponseSize} bytes. The stream is not closed.
+     *
+     * @param statusCode      the HTTP status code
+     * @param body            the response body
+     * @param maxResponseSize the maximum number of bytes to read
+     * @param resultReader    reads the {@code result} value
+     * @param <T>             the result type
+     * @return the bound result
+     * @throws IOException if the body cannot be read, is too large or is not
+     *                     valid JSON
+     */
+    public static <T> T parse(int statusCode, InputStream body, long maxResponseSize,
+            ResultReader<T> resultReader) throws IOException {
+        InputStream bounded = new BoundedInputStream(body, maxResponseSize);
+        if (statusCode / 100 != 2) {
+            throw errorResponse(statusCode, bounded.readAllBytes());
+        }
+        try (JsonParser parser = JsonUtils.getObjectMapper().createParser(bounded)) {
+            return parse(parser, resultReader);
+        }
+    }
+
+    /**
+     * Decodes a response body that has already been buffered.
+     *
+     * @param statusCode   the HTTP status code
+     * @param body         the response body, may be {@code null} if empty
+     * @param resultReader reads the {@code result} value
+     * @param <T>          the result type
+     * @return the bound result
+     * @throws IOException if the body is not valid JSON
+     */
+    public static <T> T parse(int statusCode, byte[] body, ResultReader<T> resultReader) throws IOException {
+        byte[] content = body != null ? body : new byte[0];
+        if (statusCode / 100 != 2) {
+            throw errorResponse(statusCode, content);
+        }
+        try (JsonParser parser = JsonUtils.getObjectMapper().createParser(content)) {
+            return parse(parser, resultReader);
+        }
+    }
+
+    /**
+     * Returns the exception for a non-2xx response: the decoded API error if the
+     * body is a Bot API error object, an HTTP error with the raw body otherwise.
+     */
+    private static RuntimeException errorResponse(int statusCode, byte[] body) {
+        try (JsonParser parser = JsonUtils.getObjectMapper().createParser(body)) {
+            parse(parser, SKIP_RESULT);
+        } catch (TelegramApiException e) {
+            if (e.getErrorResponse() != null && e.getErrorResponse().getErrorCode() != null) {
+                return e;
+            }
+        } catch (IOException | RuntimeException e) {
+            // not a Bot API error body; reported as a plain HTTP error below
+        }
+        return new TelegramHttpException(statusCode, new String(body, StandardCharsets.UTF_8));
+    }
+
+    private static <T> T parse(JsonParser parser, ResultReader<T> resultReader) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new TelegramApiException("Malformed response: expected a JSON object");
+        }
+        boolean ok = false;
+        T result = null;
+        Integer errorCode = null;
+        String description = null;
+        ErrorResponse.ResponseParameters parameters = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "ok" -> ok = value == JsonToken.VALUE_TRUE;
+                case "result" -> result = value == JsonToken.VALUE_NULL ? null : resultReader.read(parser);
+                case "error_code" -> errorCode = parser.getValueAsInt();
+                case "description" -> description = parser.getValueAsString();
+                case "parameters" -> parameters = value == JsonToken.VALUE_NULL
+                        ? null
+                        : JsonUtils.getObjectMapper().readValue(parser, ErrorResponse.ResponseParameters.class);
+                default -> parser.skipChildren();
+            }
+        }
+        if (!ok) {
+            ErrorResponse error = new ErrorResponse();
+            error.setErrorCode(errorCode);
+            error.setDescription(description);
+            error.setParameters(parameters);
+            throw new TelegramApiException(error);
+        }
+        return result;
+    }
+
+}
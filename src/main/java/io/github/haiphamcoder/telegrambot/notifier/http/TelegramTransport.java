@@ -0,0 +1,178 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+import io.github.haiphamcoder.telegrambot.notifier.util.JsonUtils;
+
+/**
+ * Transport SPI used by the notifier client to call Bot API methods.
+ * <p>
+ * A transport owns the HTTP machinery (connections, threads, protocol) and
+ * knows nothing about bot tokens or request models: it posts a JSON payload to
+ * a method URL and binds the {@code result} of a successful response to the
+ * requested type. A response with a Bot API error body ({@code ok=false}) is
+ * raised as {@link TelegramApiException} whatever its HTTP status, as
+ * {@link TelegramResponseParser} does; only transport failures and non-2xx
+ * responses without such a body are raised as {@link TelegramHttpException}.
+ * Two implementations ship with the library:
+ * <ul>
+ * <li>{@link ApacheHttpTransport} - Apache HttpClient 5 with pooling, HTTP/2
+ * and connection pre-warming (the default)</li>
+ * <li>{@link JdkHttpTransport} - the JDK {@code java.net.http.HttpClient}, for
+ * short-lived jobs that want to avoid httpclient5 start-up cost</li>
+ * </ul>
+ * Implementations must be thread-safe.
+ */
+public interface TelegramTransport extends AutoCloseable {
+
+    /**
+     * Posts a JSON payload and waits for the response.
+     *
+     * @param uri          the full method URI
+     * @param payload      the object to serialize as the JSON request body
+     * @param resultReader reads the {@code result} field of the response
+     * @param <T>          the result type
+     * @return the result
+     * @throws TelegramApiException  if Telegram answers with {@code ok=false},
+     *                               including non-2xx responses that carry a
+     *                               Bot API error body
+     * @throws TelegramHttpException on transport errors or non-2xx responses
+     *                               without a Bot API error body
+     */
+    <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader)
+            throws TelegramApiException, TelegramHttpException;
+
+    /**
+     * Posts a JSON payload without blocking the calling thread.
+     *
+     * @param uri          the full method URI
+     * @param payload      the object to serialize as the JSON request body
+     * @param resultReader reads the {@code result} field of the response
+     * @param <T>          the result type
+     * @return a future completed with the result, or exceptionally with a
+     *         {@link TelegramApiException} (Bot API errors, whatever the HTTP
+     *         status) / {@link TelegramHttpException} (transport errors and
+     *         other non-2xx responses)
+     */
+    <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader);
+
+    /**
+     * Posts an already encoded JSON body and waits for the response. The body is
+     * sent as is and must not be modified until the call returns.
+     * <p>
+     * The default implementation parses the body back into a tree and delegates
+     * to {@link #postJson(URI, Object, ResultReader)}; the built-in transports
+     * send the bytes directly.
+     *
+     * @param uri          the full method URI
+     * @param body         the UTF-8 encoded JSON request body
+     * @param resultReader reads the {@code result} field of the response
+     * @param <T>          the result type
+     * @return the result
+     * @throws TelegramApiException  if Telegram answers with {@code ok=false},
+     *                               including non-2xx responses that carry a
+     *                               Bot API error body
+     * @throws TelegramHttpException on transport errors or non-2xx responses
+     *                               without a Bot API error body
+     */
+    default <T> T postJsonBody(URI uri, byte[] body, ResultReader<T> resultReader)
+            throws TelegramApiException, TelegramHttpException {
+        return postJson(uri, readJsonBody(body), resultReader);
+    }
+
+    /**
+     * Posts an already encoded JSON body without blocking the calling thread.
+     * The body must not be modified until the returned future completes.
+     *
+     * @param uri          the full method URI
+     * @param body         the UTF-8 encoded JSON request body
+     * @param resultReader reads the {@code result} field of the response
+     * @param <T>          the result type
+     * @return a future completed with the result, or exceptionally with a
+     *         {@link TelegramApiException} (Bot API errors, whatever the HTTP
+     *         status) / {@link TelegramHttpException} (transport errors and
+     *         other non-2xx responses)
+     */
+    default <T> CompletableFuture<T> postJsonBodyAsync(URI uri, byte[] body, ResultReader<T> resultReader) {
+        Object payload;
+        try {
+            payload = readJsonBody(body);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return postJsonAsync(uri, payload, resultReader);
+    }
+
+    /**
+     * Posts a JSON payload and binds the {@code result} field to
+     * {@code responseType}.
+     *
+     * @param uri          the full method URI
+     * @param payload      the object to serialize as the JSON request body
+     * @param responseType the type to bind the {@code result} field to
+     * @param <T>          the result type
+     * @return the bound result
+     * @throws TelegramApiException  if Telegram answers with {@code ok=false},
+     *                               including non-2xx responses that carry a
+     *                               Bot API error body
+     * @throws TelegramHttpException on transport errors or non-2xx responses
+     *                               without a Bot API error body
+     */
+    default <T> T postJson(URI uri, Object payload, Class<T> responseType)
+            throws TelegramApiException, TelegramHttpException {
+        return postJson(uri, payload, ResultReader.of(responseType));
+    }
+
+    /**
+     * Non-blocking variant of {@link #postJson(URI, Object, Class)}.
+     *
+     * @param uri          the full method URI
+     * @param payload      the object to serialize as the JSON request body
+     * @param responseType the type to bind the {@code result} field to
+     * @param <T>          the result type
+     * @return a future completed with the bound result
+     */
+    default <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, Class<T> responseType) {
+        return postJsonAsync(uri, payload, ResultReader.of(responseType));
+    }
+
+    /**
+     * Returns a snapshot of the connection pool used by blocking calls.
+     *
+     * @return the pool snapshot, or {@link ConnectionPoolStats#EMPTY} if the
+     *         transport does not expose one
+     */
+    default ConnectionPoolStats getConnectionPoolStats() {
+        return ConnectionPoolStats.EMPTY;
+    }
+
+    /**
+     * Returns a snapshot of the connection pool used by async calls.
+     *
+     * @return the pool snapshot, or {@link ConnectionPoolStats#EMPTY} if the
+     *         transport does not expose one
+     */
+    default ConnectionPoolStats getAsyncConnectionPoolStats() {
+        return ConnectionPoolStats.EMPTY;
+    }
+
+    private static JsonNode readJsonBody(byte[] body) {
+        try {
+            return JsonUtils.getObjectMapper().readTree(body);
+        } catch (IOException e) {
+            throw new TelegramApiException("Malformed request body: " + e.getMessage());
+        }
+    }
+
+    @Override
+    default void close() {
+        // default no-op; implementations may override and need not throw checked exceptions
+    }
+
+}
@@ -0,0 +1,11 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+/**
+ * Built-in {@link TelegramTransport} implementations.
+ */
+public enum TransportType {
+    /** {@link ApacheHttpTransport}, built on Apache HttpClient 5. This is the default. */
+    APACHE_HTTP_CLIENT,
+    /** {@link JdkHttpTransport}, built on {@code java.net.http.HttpClient}. */
+    JDK_HTTP_CLIENT
+}
@@ -0,0 +1,24 @@
+package io.github.haiphamcoder.telegrambot.notifier.model;
+
+import java.util.Map;
+
+/**
+ * Outcome of a broadcast, per target chat.
+ *
+ * @param delivered the acknowledgement of each chat the message was sent to,
+ *                  keyed by the requested chat ID
+ * @param failed    the error of each chat the message could not be sent to,
+ *                  keyed by the requested chat ID
+ */
+public record BroadcastResult(Map<ChatId, MessageAck> delivered, Map<ChatId, Throwable> failed) {
+
+    /**
+     * Returns whether the message reached every target chat.
+     *
+     * @return {@code true} if no send failed
+     */
+    public boolean isComplete() {
+        return failed.isEmpty();
+    }
+
+}
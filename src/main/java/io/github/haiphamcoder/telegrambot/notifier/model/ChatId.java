@@ -1,5 +1,6 @@
 package io.github.haiphamcoder.telegrambot.notifier.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
 /**
@@ -73,6 +74,27 @@ public sealed interface ChatId permits ChatId.LongId, ChatId.Username {
         return new Username(username);
     }
 
+    /**
+     * Reads a {@link ChatId} back from its JSON form. Numbers, and numeric
+     * strings as written by {@link #getValue()}, become a {@link LongId}; any
+     * other string becomes a {@link Username}.
+     *
+     * @param value the JSON value
+     * @return the matching {@link ChatId}
+     * @throws IllegalArgumentException if the value is neither a number nor a
+     *                                  string
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    static ChatId fromJson(Object value) {
+        if (value instanceof Number number) {
+            return of(number.longValue());
+        }
+        if (value instanceof String text) {
+            return text.matches("-?\\d{1,18}") ? of(Long.parseLong(text)) : of(text);
+        }
+        throw new IllegalArgumentException("Invalid chat id: " + value);
+    }
+
     @JsonValue
     String getValue();
 
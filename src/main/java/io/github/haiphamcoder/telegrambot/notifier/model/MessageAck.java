@@ -0,0 +1,25 @@
+package io.github.haiphamcoder.telegrambot.notifier.model;
+
+/**
+ * Minimal acknowledgement of a sent message: just enough to reference it later
+ * (edit, delete, reply) without binding the full {@link MessageResponse}.
+ *
+ * @param chatId    the identifier of the chat the message was sent to
+ * @param messageId the identifier of the message inside that chat
+ */
+public record MessageAck(long chatId, long messageId) {
+
+    /**
+     * Extracts the acknowledgement from a fully bound message.
+     *
+     * @param response the sent message
+     * @return the acknowledgement; missing identifiers are reported as {@code 0}
+     */
+    public static MessageAck of(MessageResponse response) {
+        long chatId = response.getChat() != null && response.getChat().getId() != null
+                ? response.getChat().getId()
+                : 0;
+        long messageId = response.getMessageId() != null ? response.getMessageId() : 0;
+        return new MessageAck(chatId, messageId);
+    }
+}
@@ -1,5 +1,8 @@
 package io.github.haiphamcoder.telegrambot.notifier.model;
 
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
 /**
  * Marker interface for Telegram {@code reply_markup} objects.
  * <p>
@@ -12,11 +15,21 @@ package io.github.haiphamcoder.telegrambot.notifier.model;
  * </ul>
  * Instances of this type can be attached to send/edit methods to show inline
  * keyboards, display or remove a custom reply keyboard, or force a user reply.
+ * <p>
+ * No type property is written; when read back from JSON the variant is
+ * deduced from the fields present.
  *
  * @author Hai Pham Ngoc
  * @version 1.0.0
  * @since 1.0.0
  */
+@JsonTypeInfo(use = JsonTypeInfo.Id.DEDUCTION)
+@JsonSubTypes({
+                @JsonSubTypes.Type(InlineKeyboardMarkup.class),
+                @JsonSubTypes.Type(ReplyKeyboardMarkup.class),
+                @JsonSubTypes.Type(ReplyKeyboardRemove.class),
+                @JsonSubTypes.Type(ForceReply.class)
+})
 public sealed interface ReplyMarkup
                 permits InlineKeyboardMarkup, ReplyKeyboardMarkup, ReplyKeyboardRemove, ForceReply {
 }
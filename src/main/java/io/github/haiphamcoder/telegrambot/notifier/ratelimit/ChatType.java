@@ -0,0 +1,38 @@
+package io.github.haiphamcoder.telegrambot.notifier.ratelimit;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+
+/**
+ * Kind of chat a message is sent to. Telegram applies different flood limits
+ * to each kind.
+ */
+public enum ChatType {
+
+    /** One-to-one chat with a user. */
+    PRIVATE,
+
+    /** Group or supergroup. */
+    GROUP,
+
+    /** Channel. */
+    CHANNEL;
+
+    /**
+     * Guesses the chat type from its identifier: positive ids are users,
+     * negative ids are groups and supergroups, and {@code @username} targets are
+     * treated as channels, which is what they usually address in notifier use.
+     * Supergroups and channels share the {@code -100} id prefix and cannot be
+     * told apart from the id alone; supply a resolver to
+     * {@link RateLimiter.Builder#chatTypeResolver} when that matters.
+     *
+     * @param chatId the chat identifier
+     * @return the guessed chat type
+     */
+    public static ChatType guess(ChatId chatId) {
+        if (chatId instanceof ChatId.LongId longId) {
+            return longId.value() > 0 ? PRIVATE : GROUP;
+        }
+        return CHANNEL;
+    }
+
+}
@@ -0,0 +1,212 @@
+package io.github.haiphamcoder.telegrambot.notifier.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.util.SharedTimer;
+
+/**
+ * Retries sends that Telegram rejected with flood control (HTTP 429) after the
+ * {@code retry_after} it asked for.
+ * <p>
+ * A 429 pauses the whole chat: the failed send and every other send to that
+ * chat are held until the back-off window has passed, instead of each running
+ * into its own 429. Waiting happens on a shared timer, so no thread is held,
+ * and held sends are released off the timer thread.
+ * Sends are retried at most {@link Builder#maxRetries(int)} times, and a
+ * {@code retry_after} longer than {@link Builder#maxRetryAfter(Duration)} is
+ * reported to the caller right away.
+ * <p>
+ * One instance can be shared by several clients of the same bot.
+ */
+public final class FloodControl {
+
+    private final int maxRetries;
+    private final Duration maxRetryAfter;
+    /** {@link System#nanoTime()} until which each paused chat must not be sent to. */
+    private final ConcurrentHashMap<ChatId, Long> pausedUntil = new ConcurrentHashMap<>();
+
+    private FloodControl(Builder builder) {
+        this.maxRetries = builder.maxRetries;
+        this.maxRetryAfter = builder.maxRetryAfter;
+    }
+
+    /**
+     * Runs {@code attempt} once {@code chatId} is not paused, and again after
+     * each flood-control error until it succeeds, fails otherwise or runs out
+     * of retries.
+     *
+     * @param chatId  the target chat
+     * @param attempt starts one send
+     * @param <T>     the result type
+     * @return a future completed with the result of the first successful
+     *         attempt, or exceptionally with the last error
+     */
+    public <T> CompletableFuture<T> execute(ChatId chatId, Supplier<CompletableFuture<T>> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(chatId, attempt, 0, result);
+        return result;
+    }
+
+    private <T> void execute(ChatId chatId, Supplier<CompletableFuture<T>> attempt, int retries,
+            CompletableFuture<T> result) {
+        whenClear(chatId).thenCompose(clear -> attempt.get()).whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            if (!backOff(chatId, cause, retries)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            execute(chatId, attempt, retries + 1, result);
+        });
+    }
+
+    /**
+     * Blocking counterpart of {@link #execute(ChatId, Supplier)}: runs
+     * {@code attempt} on the calling thread once {@code chatId} is not paused,
+     * and again after sleeping out each flood-control back-off.
+     *
+     * @param chatId  the target chat
+     * @param attempt performs one send
+     * @param <T>     the result type
+     * @return the result of the first successful attempt
+     * @throws InterruptedException if interrupted while the chat is paused
+     */
+    public <T> T executeBlocking(ChatId chatId, Supplier<T> attempt) throws InterruptedException {
+        for (int retries = 0;; retries++) {
+            long remaining;
+            while ((remaining = remainingPause(chatId).toNanos()) > 0) {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+            try {
+                return attempt.get();
+            } catch (TelegramApiException e) {
+                if (!backOff(chatId, e, retries)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /** Pauses the chat if {@code cause} is a flood-control error and returns whether to retry the send. */
+    private boolean backOff(ChatId chatId, Throwable cause, int retries) {
+        Integer retryAfter = cause instanceof TelegramApiException apiException
+                ? apiException.getRetryAfter()
+                : null;
+        if (retryAfter == null) {
+            return false;
+        }
+        Duration backOff = Duration.ofSeconds(retryAfter);
+        pause(chatId, backOff);
+        return retries < maxRetries && backOff.compareTo(maxRetryAfter) <= 0;
+    }
+
+    /**
+     * Holds all sends to {@code chatId} for {@code duration}. An existing longer
+     * pause is kept.
+     *
+     * @param chatId   the chat to pause
+     * @param duration how long to pause it
+     */
+    public void pause(ChatId chatId, Duration duration) {
+        long delay = duration.toNanos();
+        long deadline = System.nanoTime() + delay;
+        pausedUntil.merge(chatId, deadline, (current, candidate) -> current - candidate > 0 ? current : candidate);
+        // forget the chat once the window has passed, unless the pause was extended meanwhile
+        SharedTimer.schedule(() -> pausedUntil.remove(chatId, deadline), delay);
+    }
+
+    /**
+     * Returns how long sends to {@code chatId} are still held.
+     *
+     * @param chatId the chat
+     * @return the remaining pause, {@link Duration#ZERO} if the chat is not
+     *         paused
+     */
+    public Duration remainingPause(ChatId chatId) {
+        Long deadline = pausedUntil.get(chatId);
+        long remaining = deadline != null ? deadline - System.nanoTime() : 0;
+        return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+    }
+
+    /**
+     * Returns a future that completes once {@code chatId} is not paused.
+     *
+     * @param chatId the chat
+     * @return a future completed when the chat may be sent to; already complete
+     *         if it is not paused
+     */
+    public CompletableFuture<Void> whenClear(ChatId chatId) {
+        long remaining = remainingPause(chatId).toNanos();
+        if (remaining == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> clear = new CompletableFuture<>();
+        // the pause may have been extended by then, so check again when the timer fires
+        SharedTimer.schedule(() -> whenClear(chatId).thenRun(() -> RateLimiter.grant(clear)), remaining);
+        return clear;
+    }
+
+    /**
+     * Creates a new builder instance.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link FloodControl}.
+     */
+    public static final class Builder {
+        private int maxRetries = 3;
+        private Duration maxRetryAfter = Duration.ofMinutes(1);
+
+        private Builder() {
+        }
+
+        /**
+         * Sets how many times one send is retried. Defaults to 3.
+         *
+         * @param maxRetries the maximum number of retries, {@code 0} to only
+         *                   pause the chat
+         * @return this builder instance
+         */
+        public Builder maxRetries(int maxRetries) {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("maxRetries must not be negative");
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the longest {@code retry_after} that is waited out. Longer back-offs
+         * fail the send immediately. Defaults to one minute.
+         *
+         * @param maxRetryAfter the longest back-off to retry after
+         * @return this builder instance
+         */
+        public Builder maxRetryAfter(Duration maxRetryAfter) {
+            this.maxRetryAfter = maxRetryAfter;
+            return this;
+        }
+
+        public FloodControl build() {
+            return new FloodControl(this);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package io.github.haiphamcoder.telegrambot.notifier.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * A sustained rate of {@code permits} per {@code period}, with up to
+ * {@code burst} permits available at once after an idle period.
+ *
+ * @param permits the number of permits per period
+ * @param period  the period
+ * @param burst   how many permits may be taken back to back
+ */
+public record RateLimit(int permits, Duration period, int burst) {
+
+    public RateLimit {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        if (period == null || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive");
+        }
+    }
+
+    /**
+     * Creates an evenly spaced limit without bursts.
+     *
+     * @param permits the number of permits per period
+     * @param period  the period
+     * @return the limit
+     */
+    public static RateLimit of(int permits, Duration period) {
+        return new RateLimit(permits, period, 1);
+    }
+
+    /**
+     * Creates an evenly spaced limit of {@code permits} per second.
+     *
+     * @param permits the number of permits per second
+     * @return the limit
+     */
+    public static RateLimit perSecond(int permits) {
+        return of(permits, Duration.ofSeconds(1));
+    }
+
+    /**
+     * Creates an evenly spaced limit of {@code permits} per minute.
+     *
+     * @param permits the number of permits per minute
+     * @return the limit
+     */
+    public static RateLimit perMinute(int permits) {
+        return of(permits, Duration.ofMinutes(1));
+    }
+
+    /**
+     * Returns a copy of this limit that allows {@code burst} permits back to
+     * back.
+     *
+     * @param burst the burst size
+     * @return the new limit
+     */
+    public RateLimit withBurst(int burst) {
+        return new RateLimit(permits, period, burst);
+    }
+
+    long intervalNanos() {
+        return period.toNanos() / permits;
+    }
+
+}
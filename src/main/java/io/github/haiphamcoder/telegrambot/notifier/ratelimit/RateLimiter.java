@@ -0,0 +1,241 @@
+package io.github.haiphamcoder.telegrambot.notifier.ratelimit;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.util.SharedTimer;
+
+/**
+ * Client-side flood control: one global bucket for the bot plus one bucket per
+ * chat, sized by {@link ChatType}.
+ * <p>
+ * A send first waits for a permit of its chat and only then takes a global
+ * permit, so chats that are being throttled do not use up the global budget
+ * of the others. Buckets are lock-free (a single CAS per permit) and live in a
+ * {@link ConcurrentHashMap}; buckets of chats that have gone quiet are dropped
+ * periodically, so memory stays proportional to the number of active chats.
+ * <p>
+ * The defaults follow Telegram's published limits: 30 messages per second per
+ * bot, one message per second per private chat and 20 messages per minute per
+ * group or channel. One limiter can be shared by several clients of the same
+ * bot.
+ */
+public final class RateLimiter {
+
+    private final TokenBucket globalBucket;
+    private final Map<ChatType, RateLimit> chatLimits;
+    private final Function<ChatId, ChatType> chatTypeResolver;
+    private final ConcurrentHashMap<ChatId, TokenBucket> chatBuckets = new ConcurrentHashMap<>();
+    private final long evictionIntervalNanos;
+    private final AtomicLong lastEvictionNanos;
+    private final LongSupplier clock;
+
+    private RateLimiter(Builder builder, LongSupplier clock) {
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.globalBucket = new TokenBucket(builder.globalLimit, now);
+        this.chatLimits = new EnumMap<>(builder.chatLimits);
+        this.chatTypeResolver = builder.chatTypeResolver;
+        this.evictionIntervalNanos = builder.evictionInterval.toNanos();
+        this.lastEvictionNanos = new AtomicLong(now);
+    }
+
+    /**
+     * Creates a limiter with Telegram's default limits.
+     *
+     * @return a new limiter
+     */
+    public static RateLimiter telegramDefaults() {
+        return builder().build();
+    }
+
+    /**
+     * Waits until a message may be sent to {@code chatId}.
+     *
+     * @param chatId the target chat
+     * @throws InterruptedException if interrupted while waiting; the permit is
+     *                              still consumed
+     */
+    public void acquire(ChatId chatId) throws InterruptedException {
+        long chatWait = chatBucket(chatId).reserve(clock.getAsLong());
+        if (chatWait > 0) {
+            TimeUnit.NANOSECONDS.sleep(chatWait);
+        }
+        long globalWait = globalBucket.reserve(clock.getAsLong());
+        if (globalWait > 0) {
+            TimeUnit.NANOSECONDS.sleep(globalWait);
+        }
+    }
+
+    /**
+     * Returns a future that completes once a message may be sent to
+     * {@code chatId}. Waiting happens on a shared timer, so no thread is held;
+     * a delayed permit is completed on {@link CompletableFuture}'s default async
+     * executor, so stages that depend on it, such as the send, never run on the
+     * timer thread.
+     *
+     * @param chatId the target chat
+     * @return a future completed when the permit may be used; already complete
+     *         if no wait is needed
+     */
+    public CompletableFuture<Void> acquireAsync(ChatId chatId) {
+        long chatWait = chatBucket(chatId).reserve(clock.getAsLong());
+        if (chatWait == 0) {
+            return acquireGlobalAsync();
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        SharedTimer.schedule(() -> acquireGlobalAsync().whenComplete((ignored, error) -> grant(permit)), chatWait);
+        return permit;
+    }
+
+    /**
+     * Returns how long a send to {@code chatId} would currently wait for its
+     * chat permit, without reserving one. Lets a caller with other work to do
+     * skip a throttled chat instead of blocking in {@link #acquire(ChatId)}.
+     *
+     * @param chatId the target chat
+     * @return the wait, {@link Duration#ZERO} if a permit is available
+     */
+    public Duration chatPermitWait(ChatId chatId) {
+        TokenBucket bucket = chatBuckets.get(chatId);
+        return bucket != null ? Duration.ofNanos(bucket.waitNanos(clock.getAsLong())) : Duration.ZERO;
+    }
+
+    /**
+     * Returns the number of chats that currently have a bucket.
+     *
+     * @return the number of tracked chats
+     */
+    public int trackedChats() {
+        return chatBuckets.size();
+    }
+
+    private CompletableFuture<Void> acquireGlobalAsync() {
+        long globalWait = globalBucket.reserve(clock.getAsLong());
+        if (globalWait == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        SharedTimer.schedule(() -> grant(permit), globalWait);
+        return permit;
+    }
+
+    /** Completes a permit off the timer thread, which must not run the send that waited for it. */
+    static void grant(CompletableFuture<Void> permit) {
+        permit.completeAsync(() -> null);
+    }
+
+    private TokenBucket chatBucket(ChatId chatId) {
+        long now = clock.getAsLong();
+        evictIdleBuckets(now);
+        TokenBucket bucket = chatBuckets.get(chatId);
+        if (bucket != null) {
+            return bucket;
+        }
+        RateLimit limit = chatLimits.get(chatTypeResolver.apply(chatId));
+        return chatBuckets.computeIfAbsent(chatId, id -> new TokenBucket(limit, now));
+    }
+
+    /**
+     * Drops the buckets of chats that are back to a full bucket. Runs on the
+     * calling thread at most once per eviction interval. A send racing with the
+     * removal of its bucket may at worst get one extra permit.
+     */
+    private void evictIdleBuckets(long now) {
+        long last = lastEvictionNanos.get();
+        if (now - last < evictionIntervalNanos || !lastEvictionNanos.compareAndSet(last, now)) {
+            return;
+        }
+        chatBuckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now));
+    }
+
+    /**
+     * Creates a new builder instance.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link RateLimiter}. Starts from Telegram's default limits.
+     */
+    public static final class Builder {
+        private RateLimit globalLimit = RateLimit.perSecond(30);
+        private final Map<ChatType, RateLimit> chatLimits = new EnumMap<>(ChatType.class);
+        private Function<ChatId, ChatType> chatTypeResolver = ChatType::guess;
+        private Duration evictionInterval = Duration.ofMinutes(1);
+
+        private Builder() {
+            chatLimits.put(ChatType.PRIVATE, RateLimit.perSecond(1));
+            chatLimits.put(ChatType.GROUP, RateLimit.perMinute(20));
+            chatLimits.put(ChatType.CHANNEL, RateLimit.perMinute(20));
+        }
+
+        /**
+         * Sets the limit shared by all chats. Defaults to 30 per second.
+         *
+         * @param globalLimit the bot-wide limit
+         * @return this builder instance
+         */
+        public Builder globalLimit(RateLimit globalLimit) {
+            this.globalLimit = globalLimit;
+            return this;
+        }
+
+        /**
+         * Sets the per-chat limit for one chat type. Defaults to 1 per second for
+         * private chats and 20 per minute for groups and channels.
+         *
+         * @param chatType the chat type
+         * @param limit    the limit applied to each chat of that type
+         * @return this builder instance
+         */
+        public Builder chatLimit(ChatType chatType, RateLimit limit) {
+            this.chatLimits.put(chatType, limit);
+            return this;
+        }
+
+        /**
+         * Sets how chat ids are mapped to chat types. Defaults to
+         * {@link ChatType#guess(ChatId)}.
+         *
+         * @param chatTypeResolver the resolver
+         * @return this builder instance
+         */
+        public Builder chatTypeResolver(Function<ChatId, ChatType> chatTypeResolver) {
+            this.chatTypeResolver = chatTypeResolver;
+            return this;
+        }
+
+        /**
+         * Sets how often buckets of idle chats are dropped. Defaults to one
+         * minute.
+         *
+         * @param evictionInterval the eviction interval
+         * @return this builder instance
+         */
+        public Builder evictionInterval(Duration evictionInterval) {
+            this.evictionInterval = evictionInterval;
+            return this;
+        }
+
+        public RateLimiter build() {
+            return new RateLimiter(this, System::nanoTime);
+        }
+
+        RateLimiter build(LongSupplier clock) {
+            return new RateLimiter(this, clock);
+        }
+    }
+
+}
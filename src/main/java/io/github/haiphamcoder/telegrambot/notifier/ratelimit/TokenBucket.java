@@ -0,0 +1,60 @@
+package io.github.haiphamcoder.telegrambot.notifier.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm: the
+ * whole state is the theoretical arrival time of the next permit, advanced
+ * with a single CAS per reservation.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(RateLimit limit, long nowNanos) {
+        this.intervalNanos = limit.intervalNanos();
+        this.burstToleranceNanos = intervalNanos * (limit.burst() - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Reserves the next permit.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return how long the caller must wait before using the permit, in
+     *         nanoseconds; {@code 0} if it can be used right away
+     */
+    long reserve(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long base = arrival - nowNanos > 0 ? arrival : nowNanos;
+            if (theoreticalArrival.compareAndSet(arrival, base + intervalNanos)) {
+                long wait = base - burstToleranceNanos - nowNanos;
+                return wait > 0 ? wait : 0;
+            }
+        }
+    }
+
+    /**
+     * Returns how long a permit reserved now would have to wait, without
+     * reserving it.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return the wait in nanoseconds; {@code 0} if a permit is available
+     */
+    long waitNanos(long nowNanos) {
+        long wait = theoreticalArrival.get() - burstToleranceNanos - nowNanos;
+        return wait > 0 ? wait : 0;
+    }
+
+    /**
+     * Returns whether the bucket is full again, in which case dropping it and
+     * later creating a fresh one is indistinguishable from keeping it.
+     */
+    boolean isIdle(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+
+}
@@ -0,0 +1,54 @@
+package io.github.haiphamcoder.telegrambot.notifier.types;
+
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+
+/**
+ * A {@code sendMessage} body encoded once for sending to many chats.
+ * <p>
+ * Everything but {@code chat_id} (the escaped text, parse mode, reply markup,
+ * ...) is held as UTF-8 bytes, so the body for each chat is produced by
+ * writing the chat ID in front of them. Created by
+ * {@link MessageTemplate#encodeBroadcast(String)}; immutable and safe to share
+ * between threads.
+ */
+public final class BroadcastBody {
+
+    static final byte[] CHAT_ID_FIELD = "{\"chat_id\":".getBytes(StandardCharsets.UTF_8);
+
+    /** The rest of the body after the chat ID, starting with a comma. */
+    private final byte[] tail;
+
+    BroadcastBody(byte[] tail) {
+        this.tail = tail;
+    }
+
+    /**
+     * Returns the complete JSON body for one chat.
+     *
+     * @param chatId the chat to send to
+     * @return the UTF-8 encoded JSON body
+     */
+    public byte[] forChat(ChatId chatId) {
+        byte[] id = encodeChatId(chatId);
+        byte[] body = new byte[CHAT_ID_FIELD.length + id.length + tail.length];
+        System.arraycopy(CHAT_ID_FIELD, 0, body, 0, CHAT_ID_FIELD.length);
+        System.arraycopy(id, 0, body, CHAT_ID_FIELD.length, id.length);
+        System.arraycopy(tail, 0, body, CHAT_ID_FIELD.length + id.length, tail.length);
+        return body;
+    }
+
+    /** Encodes the chat ID the way Jackson does: its {@link ChatId#getValue()} as a JSON string. */
+    static byte[] encodeChatId(ChatId chatId) {
+        byte[] quoted = JsonStringEncoder.getInstance().quoteAsUTF8(chatId.getValue());
+        byte[] id = new byte[quoted.length + 2];
+        id[0] = '"';
+        System.arraycopy(quoted, 0, id, 1, quoted.length);
+        id[id.length - 1] = '"';
+        return id;
+    }
+
+}
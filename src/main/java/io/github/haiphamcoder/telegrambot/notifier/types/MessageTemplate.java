@@ -0,0 +1,200 @@
+package io.github.haiphamcoder.telegrambot.notifier.types;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.model.ReplyMarkup;
+import io.github.haiphamcoder.telegrambot.notifier.util.JsonUtils;
+
+/**
+ * A {@code sendMessage} request whose fixed fields have been serialized once.
+ * <p>
+ * Everything except the text ({@code chat_id}, {@code parse_mode},
+ * {@code message_thread_id}, {@code reply_markup}, ...) is encoded up front into
+ * a UTF-8 prefix, so each send only has to escape the text and splice it in.
+ * Templates are immutable and can be shared between threads.
+ * <p>
+ * Example usage:
+ *
+ * <pre>{@code
+ * MessageTemplate alerts = SendMessageRequest.builder()
+ *         .chatId(ChatId.of(123456789L))
+ *         .parseMode(ParseMode.HTML)
+ *         .replyMarkup(keyboard)
+ *         .buildTemplate();
+ *
+ * client.sendMessage(alerts, "<b>Disk full</b> on db-1");
+ * }</pre>
+ */
+public final class MessageTemplate {
+
+    private static final byte[] TEXT_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final SendMessageRequest prototype;
+    /** The fixed fields followed by {@code "text":"}. */
+    private final byte[] prefix;
+    /** The last template returned by {@link #withChatId(ChatId)}, reused while it is asked for the same chat. */
+    private volatile MessageTemplate rebound;
+
+    private MessageTemplate(SendMessageRequest prototype) {
+        this.prototype = prototype;
+        this.prefix = encodePrefix(prototype);
+    }
+
+    /**
+     * Compiles a template from the fixed fields of {@code request}. The text of
+     * the request is ignored.
+     *
+     * @param request the request to take the fixed fields from
+     * @return the compiled template
+     * @throws IllegalArgumentException if the request has no chat ID
+     */
+    public static MessageTemplate of(SendMessageRequest request) {
+        if (request.chatId() == null) {
+            throw new IllegalArgumentException("chatId is required");
+        }
+        return new MessageTemplate(new SendMessageRequest(
+                request.chatId(),
+                null,
+                request.parseMode(),
+                request.messageThreadId(),
+                request.directMessagesTopicId(),
+                request.suggestedPostParameters(),
+                request.replyMarkup()));
+    }
+
+    /**
+     * Returns the chat this template sends to.
+     *
+     * @return the chat ID
+     */
+    public ChatId chatId() {
+        return prototype.chatId();
+    }
+
+    /**
+     * Compiles a copy of this template that sends to another chat. The copy is
+     * kept, so asking for the same chat again, e.g. on every send to a migrated
+     * group, does not serialize the fixed fields again.
+     *
+     * @param chatId the chat to send to
+     * @return the new template
+     */
+    public MessageTemplate withChatId(ChatId chatId) {
+        MessageTemplate cached = rebound;
+        if (cached != null && cached.chatId().equals(chatId)) {
+            return cached;
+        }
+        cached = new MessageTemplate(new SendMessageRequest(
+                chatId,
+                null,
+                prototype.parseMode(),
+                prototype.messageThreadId(),
+                prototype.directMessagesTopicId(),
+                prototype.suggestedPostParameters(),
+                prototype.replyMarkup()));
+        rebound = cached;
+        return cached;
+    }
+
+    /**
+     * Returns the parse mode the text of this template is sent with.
+     *
+     * @return the parse mode, or {@code null} for plain text
+     */
+    public ParseMode parseMode() {
+        return prototype.parseMode();
+    }
+
+    ReplyMarkup replyMarkup() {
+        return prototype.replyMarkup();
+    }
+
+    /**
+     * Creates an ordinary request with the fixed fields of this template and the
+     * given text.
+     *
+     * @param text the message text
+     * @return the request
+     * @throws IllegalArgumentException if the text is empty
+     */
+    public SendMessageRequest toRequest(String text) {
+        requireText(text);
+        return new SendMessageRequest(
+                prototype.chatId(),
+                text,
+                prototype.parseMode(),
+                prototype.messageThreadId(),
+                prototype.directMessagesTopicId(),
+                prototype.suggestedPostParameters(),
+                prototype.replyMarkup());
+    }
+
+    /**
+     * Encodes the complete JSON body for the given text. The text is spliced in
+     * as is; parse-mode escaping is left to the caller.
+     *
+     * @param text the message text
+     * @return the UTF-8 encoded JSON body
+     * @throws IllegalArgumentException if the text is empty
+     */
+    public byte[] encode(String text) {
+        requireText(text);
+        byte[] quoted = JsonStringEncoder.getInstance().quoteAsUTF8(text);
+        byte[] body = new byte[prefix.length + quoted.length + TEXT_SUFFIX.length];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        System.arraycopy(quoted, 0, body, prefix.length, quoted.length);
+        System.arraycopy(TEXT_SUFFIX, 0, body, prefix.length + quoted.length, TEXT_SUFFIX.length);
+        return body;
+    }
+
+    /**
+     * Encodes the body for the given text once, for sending it to many chats;
+     * the template's own chat ID is replaced per target. The text is spliced in
+     * as is; parse-mode escaping is left to the caller.
+     *
+     * @param text the message text
+     * @return the shared body
+     * @throws IllegalArgumentException if the text is empty
+     * @throws IllegalStateException    if the fixed fields do not start with
+     *                                  the chat ID, so it cannot be replaced
+     */
+    public BroadcastBody encodeBroadcast(String text) {
+        byte[] chatId = BroadcastBody.encodeChatId(prototype.chatId());
+        int chatIdEnd = BroadcastBody.CHAT_ID_FIELD.length + chatId.length;
+        // the chat ID is cut off by position, so check that serialization put it first
+        if (prefix.length < chatIdEnd
+                || !Arrays.equals(prefix, 0, BroadcastBody.CHAT_ID_FIELD.length,
+                        BroadcastBody.CHAT_ID_FIELD, 0, BroadcastBody.CHAT_ID_FIELD.length)
+                || !Arrays.equals(prefix, BroadcastBody.CHAT_ID_FIELD.length, chatIdEnd, chatId, 0, chatId.length)) {
+            throw new IllegalStateException("Template does not start with its chat_id: "
+                    + new String(prefix, 0, Math.min(prefix.length, chatIdEnd), StandardCharsets.UTF_8));
+        }
+        byte[] body = encode(text);
+        return new BroadcastBody(Arrays.copyOfRange(body, chatIdEnd, body.length));
+    }
+
+    private static void requireText(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("text is required and cannot be empty");
+        }
+    }
+
+    private static byte[] encodePrefix(SendMessageRequest prototype) {
+        String fixedFields;
+        try {
+            fixedFields = JsonUtils.toJson(prototype);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize template: " + e.getMessage(), e);
+        }
+        // fixedFields always holds at least chat_id, so the text is appended after a comma
+        String prefix = fixedFields.substring(0, fixedFields.length() - 1) + ",\"text\":\"";
+        return prefix.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,355 @@
+package io.github.haiphamcoder.telegrambot.notifier.types;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramValidationException;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.InlineKeyboardMarkup;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.model.ReplyMarkup;
+
+/**
+ * Checks {@code sendMessage} requests against the limits of the Bot API before
+ * they are sent, so that a request Telegram could never accept fails locally
+ * with a precise reason instead of costing a round trip.
+ * <p>
+ * Texts are checked as they are sent, that is after escaping. The text is
+ * scanned once without allocating; its length is counted the way Telegram
+ * counts it after entity parsing, leaving out markup, so a valid text is never
+ * rejected. Only limits that Telegram enforces are checked:
+ * <ul>
+ * <li>the text is not empty and at most
+ * {@link SendMessageRequest#MAX_TEXT_LENGTH} characters long;</li>
+ * <li>HTML tags are balanced;</li>
+ * <li>a username chat ID starts with {@code @};</li>
+ * <li>an inline keyboard has at most {@value #MAX_INLINE_BUTTONS_PER_ROW}
+ * buttons per row and {@value #MAX_INLINE_BUTTONS} in total, each with a label
+ * and at most {@value #MAX_CALLBACK_DATA_BYTES} bytes of callback data.</li>
+ * </ul>
+ */
+public final class RequestValidator {
+
+    /** Maximum number of buttons in one row of an inline keyboard. */
+    public static final int MAX_INLINE_BUTTONS_PER_ROW = 8;
+    /** Maximum number of buttons in an inline keyboard. */
+    public static final int MAX_INLINE_BUTTONS = 100;
+    /** Maximum size of {@code callback_data} in UTF-8 bytes. */
+    public static final int MAX_CALLBACK_DATA_BYTES = 64;
+
+    private static final int MAX_USERNAME_LENGTH = 32;
+
+    private RequestValidator() {
+        throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Validates a request whose text has already been escaped for its parse
+     * mode.
+     *
+     * @param request the request as it will be sent
+     * @throws TelegramValidationException if Telegram would reject the request
+     */
+    public static void validate(SendMessageRequest request) {
+        validateChatId(request.chatId());
+        validateText(request.text(), request.parseMode());
+        validateReplyMarkup(request.replyMarkup());
+    }
+
+    /**
+     * Validates a send of {@code text} with the fixed fields of
+     * {@code template}.
+     *
+     * @param template the template
+     * @param text     the text, already escaped for the template's parse mode
+     * @throws TelegramValidationException if Telegram would reject the request
+     */
+    public static void validate(MessageTemplate template, String text) {
+        validateChatId(template.chatId());
+        validateText(text, template.parseMode());
+        validateReplyMarkup(template.replyMarkup());
+    }
+
+    /**
+     * Validates a broadcast of {@code text} with the fixed fields of
+     * {@code template}. The template's chat ID is a placeholder and is not
+     * checked; validate each recipient with {@link #validateChatId(ChatId)}.
+     *
+     * @param template the template
+     * @param text     the text, already escaped for the template's parse mode
+     * @throws TelegramValidationException if Telegram would reject every send
+     */
+    public static void validateBroadcast(MessageTemplate template, String text) {
+        validateText(text, template.parseMode());
+        validateReplyMarkup(template.replyMarkup());
+    }
+
+    /**
+     * Validates a chat ID.
+     *
+     * @param chatId the chat ID
+     * @throws TelegramValidationException if the chat ID is missing or is a
+     *                                     malformed username
+     */
+    public static void validateChatId(ChatId chatId) {
+        if (chatId == null) {
+            throw new TelegramValidationException("chat_id", "is required");
+        }
+        if (chatId instanceof ChatId.Username username && !isValidUsername(username.value())) {
+            throw new TelegramValidationException("chat_id",
+                    "must be a numeric ID or @username, was \"" + username.value() + "\"");
+        }
+    }
+
+    /**
+     * Validates a message text.
+     *
+     * @param text      the text, already escaped for {@code parseMode}
+     * @param parseMode the parse mode, or {@code null} for plain text
+     * @throws TelegramValidationException if the text is empty, too long after
+     *                                     entity parsing or has unbalanced HTML
+     *                                     tags
+     */
+    public static void validateText(String text, ParseMode parseMode) {
+        if (text == null || text.isBlank()) {
+            throw new TelegramValidationException("text", "must not be empty");
+        }
+        int length;
+        if (parseMode == null) {
+            length = text.length();
+        } else {
+            length = switch (parseMode) {
+                case HTML -> htmlLength(text);
+                case MARKDOWN_V2 -> markdownLength(text, true);
+                case MARKDOWN -> markdownLength(text, false);
+            };
+        }
+        if (length > SendMessageRequest.MAX_TEXT_LENGTH) {
+            throw new TelegramValidationException("text", "is " + length + " characters long after entity parsing, "
+                    + "the limit is " + SendMessageRequest.MAX_TEXT_LENGTH);
+        }
+    }
+
+    /**
+     * Validates a reply markup. Only inline keyboards have limits that are
+     * checked.
+     *
+     * @param replyMarkup the reply markup, or {@code null}
+     * @throws TelegramValidationException if an inline keyboard is too large or
+     *                                     has an invalid button
+     */
+    public static void validateReplyMarkup(ReplyMarkup replyMarkup) {
+        if (!(replyMarkup instanceof InlineKeyboardMarkup markup) || markup.getInlineKeyboard() == null) {
+            return;
+        }
+        List<List<InlineKeyboardMarkup.InlineKeyboardButton>> rows = markup.getInlineKeyboard();
+        int buttons = 0;
+        for (int r = 0; r < rows.size(); r++) {
+            List<InlineKeyboardMarkup.InlineKeyboardButton> row = rows.get(r);
+            if (row == null) {
+                continue;
+            }
+            if (row.size() > MAX_INLINE_BUTTONS_PER_ROW) {
+                throw new TelegramValidationException("reply_markup.inline_keyboard[" + r + "]",
+                        "has " + row.size() + " buttons, the limit is " + MAX_INLINE_BUTTONS_PER_ROW);
+            }
+            buttons += row.size();
+            for (int b = 0; b < row.size(); b++) {
+                validateButton(row.get(b), r, b);
+            }
+        }
+        if (buttons > MAX_INLINE_BUTTONS) {
+            throw new TelegramValidationException("reply_markup.inline_keyboard",
+                    "has " + buttons + " buttons, the limit is " + MAX_INLINE_BUTTONS);
+        }
+    }
+
+    private static void validateButton(InlineKeyboardMarkup.InlineKeyboardButton button, int row, int column) {
+        if (button == null) {
+            throw new TelegramValidationException(buttonField(row, column, ""), "is null");
+        }
+        if (button.getText() == null || button.getText().isEmpty()) {
+            throw new TelegramValidationException(buttonField(row, column, ".text"), "must not be empty");
+        }
+        String callbackData = button.getCallbackData();
+        if (callbackData != null) {
+            int bytes = utf8Length(callbackData);
+            if (bytes == 0 || bytes > MAX_CALLBACK_DATA_BYTES) {
+                throw new TelegramValidationException(buttonField(row, column, ".callback_data"),
+                        "is " + bytes + " bytes, it must be 1 to " + MAX_CALLBACK_DATA_BYTES);
+            }
+        }
+    }
+
+    private static String buttonField(int row, int column, String suffix) {
+        return "reply_markup.inline_keyboard[" + row + "][" + column + "]" + suffix;
+    }
+
+    /** Accepts {@code @name} with 4 to 32 letters, digits or underscores, and numeric IDs passed as text. */
+    private static boolean isValidUsername(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        if (value.charAt(0) != '@') {
+            return isNumeric(value);
+        }
+        int length = value.length() - 1;
+        if (length < 4 || length > MAX_USERNAME_LENGTH) {
+            return false;
+        }
+        for (int i = 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNumeric(String value) {
+        int start = value.charAt(0) == '-' ? 1 : 0;
+        if (start == value.length()) {
+            return false;
+        }
+        for (int i = start; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the characters of an HTML text that remain after parsing: tags
+     * count nothing and an entity counts one. Also checks that every tag is
+     * closed in order.
+     */
+    private static int htmlLength(String text) {
+        int length = 0;
+        // start offsets of the names of the open tags, allocated on the first tag
+        int[] open = null;
+        int depth = 0;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '<' ? text.indexOf('>', i) : -1;
+            if (end > 0) {
+                boolean closing = text.charAt(i + 1) == '/';
+                int nameStart = closing ? i + 2 : i + 1;
+                int nameLength = tagNameLength(text, nameStart, end);
+                if (closing) {
+                    if (depth == 0 || !sameTagName(text, open[depth - 1], nameStart, nameLength)) {
+                        throw new TelegramValidationException("text",
+                                "has an unexpected end tag " + text.substring(i, end + 1));
+                    }
+                    depth--;
+                } else {
+                    if (open == null) {
+                        open = new int[8];
+                    } else if (depth == open.length) {
+                        open = Arrays.copyOf(open, depth * 2);
+                    }
+                    open[depth++] = nameStart;
+                }
+                i = end + 1;
+                continue;
+            }
+            if (c == '&') {
+                int semicolon = text.indexOf(';', i);
+                if (semicolon > i && semicolon - i <= 12) {
+                    i = semicolon;
+                }
+            }
+            length++;
+            i++;
+        }
+        if (depth > 0) {
+            int nameStart = open[depth - 1];
+            throw new TelegramValidationException("text", "has an unclosed tag <"
+                    + text.substring(nameStart, nameStart + tagNameLength(text, nameStart, text.length())) + ">");
+        }
+        return length;
+    }
+
+    private static int tagNameLength(String text, int start, int limit) {
+        int end = start;
+        while (end < limit && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '-')) {
+            end++;
+        }
+        return end - start;
+    }
+
+    private static boolean sameTagName(String text, int openStart, int closeStart, int closeLength) {
+        return tagNameLength(text, openStart, text.length()) == closeLength
+                && text.regionMatches(true, openStart, text, closeStart, closeLength);
+    }
+
+    /**
+     * Counts the characters of a Markdown text that remain after parsing: an
+     * escape sequence counts one, formatting markers and link URLs count
+     * nothing. Markers inside code are not counted either, so the result may be
+     * less than Telegram's count but never more.
+     */
+    private static int markdownLength(String text, boolean v2) {
+        int length = 0;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                length++;
+                i += 2;
+            } else if (c == ']' && i + 1 < text.length() && text.charAt(i + 1) == '(') {
+                i = skipUrl(text, i + 2);
+            } else if (text.startsWith("```", i)) {
+                // the language of a code block is not part of the text
+                i += 3;
+                while (i < text.length() && !Character.isWhitespace(text.charAt(i)) && text.charAt(i) != '`') {
+                    i++;
+                }
+            } else if (isMarker(c, v2)) {
+                i++;
+            } else {
+                length++;
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isMarker(char c, boolean v2) {
+        return c == '*' || c == '_' || c == '`' || c == '['
+                || v2 && (c == '~' || c == '|' || c == '>' || c == '!');
+    }
+
+    private static int skipUrl(String text, int start) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ')') {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+
+    private static int utf8Length(String value) {
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+}
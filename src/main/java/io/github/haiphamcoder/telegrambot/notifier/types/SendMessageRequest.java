@@ -31,6 +31,12 @@ public record SendMessageRequest(
                 @JsonProperty("suggested_post_parameters") SuggestedPostParameters suggestedPostParameters,
                 @JsonProperty("reply_markup") ReplyMarkup replyMarkup) {
 
+        /**
+         * Maximum length of a message text accepted by Telegram, in UTF-16 code
+         * units after entity parsing.
+         */
+        public static final int MAX_TEXT_LENGTH = 4096;
+
         /**
          * Builder for creating SendMessageRequest instances.
          * <p>
@@ -180,6 +186,28 @@ public record SendMessageRequest(
                                         suggestedPostParameters,
                                         replyMarkup);
                 }
+
+                /**
+                 * Compiles the fields set so far into a reusable
+                 * {@link MessageTemplate}. The text, if set, is ignored; it is
+                 * supplied on each send instead.
+                 *
+                 * @return the compiled template
+                 * @throws IllegalArgumentException if the chat ID is missing
+                 */
+                public MessageTemplate buildTemplate() {
+                        if (chatId == null) {
+                                throw new IllegalArgumentException("chatId is required");
+                        }
+                        return MessageTemplate.of(new SendMessageRequest(
+                                        chatId,
+                                        null,
+                                        parseMode,
+                                        messageThreadId,
+                                        directMessagesTopicId,
+                                        suggestedPostParameters,
+                                        replyMarkup));
+                }
         }
 
         /**
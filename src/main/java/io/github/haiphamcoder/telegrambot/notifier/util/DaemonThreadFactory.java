@@ -0,0 +1,32 @@
+package io.github.haiphamcoder.telegrambot.notifier.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates named daemon threads for the library's background tasks, so that an
+ * unclosed client never keeps the JVM alive.
+ */
+public final class DaemonThreadFactory implements ThreadFactory {
+
+    private final String namePrefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Creates a factory whose threads are named {@code namePrefix} followed by a
+     * sequence number.
+     *
+     * @param namePrefix the thread name prefix
+     */
+    public DaemonThreadFactory(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+}
@@ -1,5 +1,7 @@
 package io.github.haiphamcoder.telegrambot.notifier.util;
 
+import java.util.regex.Pattern;
+
 /**
  * Utility class for escaping special characters in HTML format.
  * <p>
@@ -16,6 +18,18 @@ package io.github.haiphamcoder.telegrambot.notifier.util;
  */
 public final class HtmlEscaper {
 
+    private static final Pattern TAG_PATTERN = Pattern.compile("^/?[a-zA-Z][a-zA-Z0-9]*\\s*.*$");
+    private static final Pattern ENTITY_PATTERN = Pattern.compile("^(?:[a-zA-Z]+|#\\d+|#x[0-9a-fA-F]+)$");
+
+    /** Replacement of each character that must be escaped, indexed by the character; null for the others. */
+    private static final String[] REPLACEMENTS = new String['>' + 1];
+
+    static {
+        REPLACEMENTS['&'] = "&amp;";
+        REPLACEMENTS['<'] = "&lt;";
+        REPLACEMENTS['>'] = "&gt;";
+    }
+
     private HtmlEscaper() {
         throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
     }
@@ -34,14 +48,36 @@ public final class HtmlEscaper {
             return null;
         }
 
-        String result = text;
-        
-        // Escape in order: & first, then < and >
-        result = result.replace("&", "&amp;");
-        result = result.replace("<", "&lt;");
-        result = result.replace(">", "&gt;");
-        
-        return result;
+        // Count first so that the output is sized exactly and clean text is returned as is
+        int extra = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String replacement = replacement(text.charAt(i));
+            if (replacement != null) {
+                extra += replacement.length() - 1;
+            }
+        }
+        if (extra == 0) {
+            return text;
+        }
+        // Copy the text to the end of the output in one go, then shift it left over the entities
+        char[] result = new char[text.length() + extra];
+        text.getChars(0, text.length(), result, extra);
+        int length = 0;
+        for (int i = extra; i < result.length; i++) {
+            char c = result[i];
+            String replacement = replacement(c);
+            if (replacement == null) {
+                result[length++] = c;
+            } else {
+                replacement.getChars(0, replacement.length(), result, length);
+                length += replacement.length();
+            }
+        }
+        return new String(result);
+    }
+
+    private static String replacement(char c) {
+        return c < REPLACEMENTS.length ? REPLACEMENTS[c] : null;
     }
 
     /**
@@ -50,7 +86,9 @@ public final class HtmlEscaper {
      * <p>
      * This method only escapes characters that are not part of valid HTML tags.
      * It's more sophisticated than simple escaping and tries to preserve
-     * legitimate HTML markup.
+     * legitimate HTML markup. Text up to the first {@code <}, {@code >} or
+     * {@code &} is only scanned, and if there is none the text itself is
+     * returned.
      *
      * @param text the text to escape
      * @return the escaped text safe for HTML parsing
@@ -59,16 +97,38 @@ public final class HtmlEscaper {
         if (text == null) {
             return null;
         }
+        int start = indexOfSpecial(text);
+        return start < 0 ? text : escapePreservingTags(text, start);
+    }
 
-        StringBuilder result = new StringBuilder();
-        int i = 0;
+    /**
+     * Returns the index of the first {@code <}, {@code >} or {@code &}, or -1 if
+     * there is none, in which case {@link #escapePreservingTags(String)} returns
+     * the text unchanged.
+     */
+    static int indexOfSpecial(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (replacement(text.charAt(i)) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Escapes from {@code start}, a position before which nothing needs escaping. */
+    private static String escapePreservingTags(String text, int start) {
+        // Only allocated once the first character actually needs escaping
+        StringBuilder result = null;
+        int i = start;
         
         while (i < text.length()) {
             char c = text.charAt(i);
             
             if (c == '&' && isHtmlEntity(text, i)) {
                 int entityEnd = findEntityEnd(text, i);
-                result.append(text, i, entityEnd);
+                if (result != null) {
+                    result.append(text, i, entityEnd);
+                }
                 i = entityEnd;
                 continue;
             }
@@ -76,19 +136,26 @@ public final class HtmlEscaper {
             if (c == '<' && isHtmlTag(text, i)) {
                 // Preserve HTML tag
                 int tagEnd = findTagEnd(text, i);
-                result.append(text.substring(i, tagEnd));
+                if (result != null) {
+                    result.append(text, i, tagEnd);
+                }
                 i = tagEnd;
             } else if (c == '<' || c == '>' || c == '&') {
                 // Escape special character
+                if (result == null) {
+                    result = new StringBuilder(text.length() + 16).append(text, 0, i);
+                }
                 result.append(escapeChar(c));
                 i++;
             } else {
-                result.append(c);
+                if (result != null) {
+                    result.append(c);
+                }
                 i++;
             }
         }
         
-        return result.toString();
+        return result != null ? result.toString() : text;
     }
 
     /**
@@ -141,8 +208,7 @@ public final class HtmlEscaper {
         if (end == -1) return false;
         
         // Check if it looks like a valid HTML tag
-        String tagContent = text.substring(start + 1, end);
-        return tagContent.matches("^/?[a-zA-Z][a-zA-Z0-9]*\\s*.*$");
+        return TAG_PATTERN.matcher(text).region(start + 1, end).matches();
     }
     
     private static int findTagEnd(String text, int start) {
@@ -155,9 +221,8 @@ public final class HtmlEscaper {
         int end = text.indexOf(';', start);
         if (end == -1) return false;
         
-        String entity = text.substring(start + 1, end);
         // Check for named entities or numeric entities
-        return entity.matches("^[a-zA-Z]+$") || entity.matches("^#\\d+$") || entity.matches("^#x[0-9a-fA-F]+$");
+        return ENTITY_PATTERN.matcher(text).region(start + 1, end).matches();
     }
     
     private static int findEntityEnd(String text, int start) {
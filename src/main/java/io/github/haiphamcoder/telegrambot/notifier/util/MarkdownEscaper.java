@@ -12,9 +12,10 @@ package io.github.haiphamcoder.telegrambot.notifier.util;
  */
 public final class MarkdownEscaper {
 
-    private static final String[] SPECIAL_CHARS = {
-        "_", "*", "`", "["
-    };
+    /** Lookup table of the ASCII characters that must be escaped; no other character needs it. */
+    private static final boolean[] SPECIAL_CHARS = specialChars("_*`[");
+    /** The special characters plus the backslash, which {@link #escape(String)} escapes as well. */
+    private static final boolean[] ESCAPED_CHARS = specialChars("\\_*`[");
 
     private MarkdownEscaper() {
         throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
@@ -34,17 +35,28 @@ public final class MarkdownEscaper {
             return null;
         }
 
-        String result = text;
-        
-        // First escape backslashes to avoid double-escaping
-        result = result.replace("\\", "\\\\");
-        
-        // Then escape all other special characters
-        for (String specialChar : SPECIAL_CHARS) {
-            result = result.replace(specialChar, "\\" + specialChar);
+        // Count first so that the output is sized exactly and clean text is returned as is
+        int escapes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (isEscaped(text.charAt(i))) {
+                escapes++;
+            }
+        }
+        if (escapes == 0) {
+            return text;
+        }
+        // Copy the text to the end of the output in one go, then shift it left over the backslashes
+        char[] result = new char[text.length() + escapes];
+        text.getChars(0, text.length(), result, escapes);
+        int length = 0;
+        for (int i = escapes; i < result.length; i++) {
+            char c = result[i];
+            if (isEscaped(c)) {
+                result[length++] = '\\';
+            }
+            result[length++] = c;
         }
-        
-        return result;
+        return new String(result);
     }
 
     /**
@@ -52,7 +64,9 @@ public final class MarkdownEscaper {
      * but preserves existing markdown entities.
      * <p>
      * This is a more sophisticated escaping that tries to avoid escaping
-     * characters that are part of valid markdown entities.
+     * characters that are part of valid markdown entities. Text up to the first
+     * unescaped special character is only scanned, and if there is none the
+     * text itself is returned.
      *
      * @param text the text to escape
      * @return the escaped text safe for legacy Markdown parsing
@@ -61,28 +75,58 @@ public final class MarkdownEscaper {
         if (text == null) {
             return null;
         }
+        int start = indexOfUnescapedSpecial(text);
+        return start < 0 ? text : escapePreservingEntities(text, start);
+    }
+
+    /**
+     * Returns the index of the first special character that is not already
+     * escaped, or -1 if there is none, in which case
+     * {@link #escapePreservingEntities(String)} returns the text unchanged.
+     */
+    static int indexOfUnescapedSpecial(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length() && isSpecialChar(text.charAt(i + 1))) {
+                i++;
+            } else if (isSpecialChar(c)) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
-        StringBuilder result = new StringBuilder();
-        int index = 0;
+    /** Escapes from {@code start}, a position before which nothing needs escaping. */
+    private static String escapePreservingEntities(String text, int start) {
+        // Only allocated once the first character actually needs escaping
+        StringBuilder result = null;
+        int index = start;
 
         while (index < text.length()) {
             char current = text.charAt(index);
 
             // Case 1: already escaped special ("\\" + special)
             if (current == '\\' && index + 1 < text.length() && isSpecialChar(text.charAt(index + 1))) {
-                result.append('\\').append(text.charAt(index + 1));
+                if (result != null) {
+                    result.append(text, index, index + 2);
+                }
                 index += 2;
             } else {
                 // Case 2: existing entity
-                EntityMatch match = findEntity(text, index);
-                if (match != null) {
-                    result.append(match.content);
-                    index = match.nextIndex;
+                int entityEnd = findEntityEnd(text, index);
+                if (entityEnd > index) {
+                    if (result != null) {
+                        result.append(text, index, entityEnd);
+                    }
+                    index = entityEnd;
                 } else {
                     // Case 3: escape special or append normal char
                     if (isSpecialChar(current)) {
+                        if (result == null) {
+                            result = new StringBuilder(text.length() + 16).append(text, 0, index);
+                        }
                         result.append('\\').append(current);
-                    } else {
+                    } else if (result != null) {
                         result.append(current);
                     }
                     index++;
@@ -90,49 +134,31 @@ public final class MarkdownEscaper {
             }
         }
 
-        return result.toString();
-    }
-
-    private static class EntityMatch {
-        final String content;
-        final int nextIndex;
-
-        EntityMatch(String content, int nextIndex) {
-            this.content = content;
-            this.nextIndex = nextIndex;
-        }
+        return result != null ? result.toString() : text;
     }
 
-    private static EntityMatch findEntity(String text, int start) {
+    /**
+     * Returns the index just past the entity starting at {@code start}, or -1 if
+     * there is none.
+     */
+    private static int findEntityEnd(String text, int start) {
         char c = text.charAt(start);
+
         return switch (c) {
-            case '*' -> isBoldEntity(text, start)
-                    ? new EntityMatch(extractBoldEntity(text, start), skipBoldEntity(text, start))
-                    : null;
-            case '_' -> isItalicEntity(text, start)
-                    ? new EntityMatch(extractItalicEntity(text, start), skipItalicEntity(text, start))
-                    : null;
-            case '`' -> isCodeEntity(text, start)
-                    ? new EntityMatch(extractCodeEntity(text, start), skipCodeEntity(text, start))
-                    : null;
-            case '[' -> isLinkEntity(text, start)
-                    ? new EntityMatch(extractLinkEntity(text, start), skipLinkEntity(text, start))
-                    : null;
-            default -> null;
+            case '*' -> isBoldEntity(text, start) ? skipBoldEntity(text, start) : -1;
+            case '_' -> isItalicEntity(text, start) ? skipItalicEntity(text, start) : -1;
+            case '`' -> isCodeEntity(text, start) ? skipCodeEntity(text, start) : -1;
+            case '[' -> isLinkEntity(text, start) ? skipLinkEntity(text, start) : -1;
+            default -> -1;
         };
     }
-    
+
     private static boolean isBoldEntity(String text, int start) {
         if (start + 1 >= text.length() || text.charAt(start) != '*') return false;
         int end = text.indexOf("*", start + 1);
         return end > start + 1;
     }
     
-    private static String extractBoldEntity(String text, int start) {
-        int end = text.indexOf("*", start + 1);
-        return text.substring(start, end + 1);
-    }
-    
     private static int skipBoldEntity(String text, int start) {
         int end = text.indexOf("*", start + 1);
         return end + 1;
@@ -144,11 +170,6 @@ public final class MarkdownEscaper {
         return end > start + 1;
     }
     
-    private static String extractItalicEntity(String text, int start) {
-        int end = text.indexOf("_", start + 1);
-        return text.substring(start, end + 1);
-    }
-    
     private static int skipItalicEntity(String text, int start) {
         int end = text.indexOf("_", start + 1);
         return end + 1;
@@ -160,11 +181,6 @@ public final class MarkdownEscaper {
         return end > start + 1;
     }
     
-    private static String extractCodeEntity(String text, int start) {
-        int end = text.indexOf("`", start + 1);
-        return text.substring(start, end + 1);
-    }
-    
     private static int skipCodeEntity(String text, int start) {
         int end = text.indexOf("`", start + 1);
         return end + 1;
@@ -179,14 +195,6 @@ public final class MarkdownEscaper {
         return startParen > endBracket && endParen > startParen;
     }
     
-    private static String extractLinkEntity(String text, int start) {
-        int endParen = text.indexOf(")", start);
-        while (endParen != -1 && text.charAt(endParen - 1) != ')') {
-            endParen = text.indexOf(")", endParen + 1);
-        }
-        return text.substring(start, endParen + 1);
-    }
-    
     private static int skipLinkEntity(String text, int start) {
         int endParen = text.indexOf(")", start);
         while (endParen != -1 && text.charAt(endParen - 1) != ')') {
@@ -196,6 +204,18 @@ public final class MarkdownEscaper {
     }
     
     private static boolean isSpecialChar(char c) {
-        return c == '_' || c == '*' || c == '`' || c == '[';
+        return c < SPECIAL_CHARS.length && SPECIAL_CHARS[c];
+    }
+
+    private static boolean isEscaped(char c) {
+        return c < ESCAPED_CHARS.length && ESCAPED_CHARS[c];
+    }
+
+    private static boolean[] specialChars(String chars) {
+        boolean[] table = new boolean[128];
+        for (int i = 0; i < chars.length(); i++) {
+            table[chars.charAt(i)] = true;
+        }
+        return table;
     }
 }
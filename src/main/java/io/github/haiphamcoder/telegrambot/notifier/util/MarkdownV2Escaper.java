@@ -11,9 +11,10 @@ package io.github.haiphamcoder.telegrambot.notifier.util;
  */
 public final class MarkdownV2Escaper {
 
-    private static final String[] SPECIAL_CHARS = {
-        "_", "*", "[", "]", "(", ")", "~", "`", ">", "#", "+", "-", "=", "|", "{", "}", ".", "!"
-    };
+    /** Lookup table of the ASCII characters that must be escaped; no other character needs it. */
+    private static final boolean[] SPECIAL_CHARS = specialChars("_*[]()~`>#+-=|{}.!");
+    /** The special characters plus the backslash, which {@link #escape(String)} escapes as well. */
+    private static final boolean[] ESCAPED_CHARS = specialChars("\\_*[]()~`>#+-=|{}.!");
 
     private MarkdownV2Escaper() {
         throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
@@ -33,17 +34,28 @@ public final class MarkdownV2Escaper {
             return null;
         }
 
-        String result = text;
-        
-        // First escape backslashes to avoid double-escaping
-        result = result.replace("\\", "\\\\");
-        
-        // Then escape all other special characters
-        for (String specialChar : SPECIAL_CHARS) {
-            result = result.replace(specialChar, "\\" + specialChar);
+        // Count first so that the output is sized exactly and clean text is returned as is
+        int escapes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (isEscaped(text.charAt(i))) {
+                escapes++;
+            }
         }
-        
-        return result;
+        if (escapes == 0) {
+            return text;
+        }
+        // Copy the text to the end of the output in one go, then shift it left over the backslashes
+        char[] result = new char[text.length() + escapes];
+        text.getChars(0, text.length(), result, escapes);
+        int length = 0;
+        for (int i = escapes; i < result.length; i++) {
+            char c = result[i];
+            if (isEscaped(c)) {
+                result[length++] = '\\';
+            }
+            result[length++] = c;
+        }
+        return new String(result);
     }
 
     /**
@@ -51,7 +63,9 @@ public final class MarkdownV2Escaper {
      * but preserves existing markdown entities.
      * <p>
      * This is a more sophisticated escaping that tries to avoid escaping
-     * characters that are part of valid markdown entities.
+     * characters that are part of valid markdown entities. Text up to the first
+     * unescaped special character is only scanned, and if there is none the
+     * text itself is returned.
      *
      * @param text the text to escape
      * @return the escaped text safe for MarkdownV2 parsing
@@ -60,85 +74,98 @@ public final class MarkdownV2Escaper {
         if (text == null) {
             return null;
         }
+        int start = indexOfUnescapedSpecial(text);
+        return start < 0 ? text : escapePreservingEntities(text, start);
+    }
+
+    /**
+     * Returns the index of the first special character that is not already
+     * escaped, or -1 if there is none, in which case
+     * {@link #escapePreservingEntities(String)} returns the text unchanged.
+     */
+    static int indexOfUnescapedSpecial(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length() && isSpecialChar(text.charAt(i + 1))) {
+                i++;
+            } else if (isSpecialChar(c)) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
-        StringBuilder result = new StringBuilder();
-        int i = 0;
+    /** Escapes from {@code start}, a position before which nothing needs escaping. */
+    private static String escapePreservingEntities(String text, int start) {
+        // Only allocated once the first character actually needs escaping
+        StringBuilder result = null;
+        int i = start;
         
         while (i < text.length()) {
             // Preserve already escaped specials: \\ + special
             if (text.charAt(i) == '\\' && i + 1 < text.length() && isSpecialChar(text.charAt(i + 1))) {
-                result.append('\\').append(text.charAt(i + 1));
+                if (result != null) {
+                    result.append(text, i, i + 2);
+                }
                 i += 2;
                 continue;
             }
-            EntityMatch match = findEntity(text, i);
-            if (match != null) {
-                result.append(match.content);
-                i = match.nextIndex;
+            int entityEnd = findEntityEnd(text, i);
+            if (entityEnd > i) {
+                if (result != null) {
+                    result.append(text, i, entityEnd);
+                }
+                i = entityEnd;
             } else {
                 char c = text.charAt(i);
                 if (isSpecialChar(c)) {
+                    if (result == null) {
+                        result = new StringBuilder(text.length() + 16).append(text, 0, i);
+                    }
                     result.append('\\').append(c);
-                } else {
+                } else if (result != null) {
                     result.append(c);
                 }
                 i++;
             }
         }
         
-        return result.toString();
+        return result != null ? result.toString() : text;
     }
     
-    private static EntityMatch findEntity(String text, int start) {
+    /**
+     * Returns the index just past the entity starting at {@code start}, or -1 if
+     * there is none.
+     */
+    private static int findEntityEnd(String text, int start) {
         char c = text.charAt(start);
         
         return switch (c) {
-            case '*' -> isBoldEntity(text, start) ? 
-                new EntityMatch(extractBoldEntity(text, start), skipBoldEntity(text, start)) : null;
+            case '*' -> isBoldEntity(text, start) ? skipBoldEntity(text, start) : -1;
             case '_' -> {
                 if (isItalicEntity(text, start)) {
-                    yield new EntityMatch(extractItalicEntity(text, start), skipItalicEntity(text, start));
+                    yield skipItalicEntity(text, start);
                 }
                 if (isUnderlineEntity(text, start)) {
-                    yield new EntityMatch(extractUnderlineEntity(text, start), skipUnderlineEntity(text, start));
+                    yield skipUnderlineEntity(text, start);
                 }
-                yield null;
+                yield -1;
             }
-            case '~' -> isStrikethroughEntity(text, start) ? 
-                new EntityMatch(extractStrikethroughEntity(text, start), skipStrikethroughEntity(text, start)) : null;
-            case '|' -> isSpoilerEntity(text, start) ? 
-                new EntityMatch(extractSpoilerEntity(text, start), skipSpoilerEntity(text, start)) : null;
-            case '`' -> isCodeEntity(text, start) ? 
-                new EntityMatch(extractCodeEntity(text, start), skipCodeEntity(text, start)) : null;
-            case '[' -> isLinkEntity(text, start) ? 
-                new EntityMatch(extractLinkEntity(text, start), skipLinkEntity(text, start)) : null;
-            case '>' -> isBlockquoteEntity(text, start) ? 
-                new EntityMatch(extractBlockquoteEntity(text, start), skipBlockquoteEntity(text, start)) : null;
-            default -> null;
+            case '~' -> isStrikethroughEntity(text, start) ? skipStrikethroughEntity(text, start) : -1;
+            case '|' -> isSpoilerEntity(text, start) ? skipSpoilerEntity(text, start) : -1;
+            case '`' -> isCodeEntity(text, start) ? skipCodeEntity(text, start) : -1;
+            case '[' -> isLinkEntity(text, start) ? skipLinkEntity(text, start) : -1;
+            case '>' -> isBlockquoteEntity(text, start) ? skipBlockquoteEntity(text, start) : -1;
+            default -> -1;
         };
     }
     
-    private static class EntityMatch {
-        final String content;
-        final int nextIndex;
-        
-        EntityMatch(String content, int nextIndex) {
-            this.content = content;
-            this.nextIndex = nextIndex;
-        }
-    }
-    
     private static boolean isBoldEntity(String text, int start) {
         if (start + 1 >= text.length() || text.charAt(start) != '*') return false;
         int end = text.indexOf("*", start + 1);
         return end > start + 1;
     }
     
-    private static String extractBoldEntity(String text, int start) {
-        int end = text.indexOf("*", start + 1);
-        return text.substring(start, end + 1);
-    }
-    
     private static int skipBoldEntity(String text, int start) {
         int end = text.indexOf("*", start + 1);
         return end + 1;
@@ -150,11 +177,6 @@ public final class MarkdownV2Escaper {
         return end > start + 1;
     }
     
-    private static String extractItalicEntity(String text, int start) {
-        int end = text.indexOf("_", start + 1);
-        return text.substring(start, end + 1);
-    }
-    
     private static int skipItalicEntity(String text, int start) {
         int end = text.indexOf("_", start + 1);
         return end + 1;
@@ -162,15 +184,10 @@ public final class MarkdownV2Escaper {
     
     private static boolean isUnderlineEntity(String text, int start) {
         if (start + 3 >= text.length()) return false;
-        return text.substring(start, start + 2).equals("__") && 
+        return text.startsWith("__", start) && 
                text.indexOf("__", start + 2) > start + 2;
     }
     
-    private static String extractUnderlineEntity(String text, int start) {
-        int end = text.indexOf("__", start + 2);
-        return text.substring(start, end + 2);
-    }
-    
     private static int skipUnderlineEntity(String text, int start) {
         int end = text.indexOf("__", start + 2);
         return end + 2;
@@ -182,11 +199,6 @@ public final class MarkdownV2Escaper {
         return end > start + 1;
     }
     
-    private static String extractStrikethroughEntity(String text, int start) {
-        int end = text.indexOf("~", start + 1);
-        return text.substring(start, end + 1);
-    }
-    
     private static int skipStrikethroughEntity(String text, int start) {
         int end = text.indexOf("~", start + 1);
         return end + 1;
@@ -194,15 +206,10 @@ public final class MarkdownV2Escaper {
     
     private static boolean isSpoilerEntity(String text, int start) {
         if (start + 3 >= text.length()) return false;
-        return text.substring(start, start + 2).equals("||") && 
+        return text.startsWith("||", start) && 
                text.indexOf("||", start + 2) > start + 2;
     }
     
-    private static String extractSpoilerEntity(String text, int start) {
-        int end = text.indexOf("||", start + 2);
-        return text.substring(start, end + 2);
-    }
-    
     private static int skipSpoilerEntity(String text, int start) {
         int end = text.indexOf("||", start + 2);
         return end + 2;
@@ -214,11 +221,6 @@ public final class MarkdownV2Escaper {
         return end > start + 1;
     }
     
-    private static String extractCodeEntity(String text, int start) {
-        int end = text.indexOf("`", start + 1);
-        return text.substring(start, end + 1);
-    }
-    
     private static int skipCodeEntity(String text, int start) {
         int end = text.indexOf("`", start + 1);
         return end + 1;
@@ -233,14 +235,6 @@ public final class MarkdownV2Escaper {
         return startParen > endBracket && endParen > startParen;
     }
     
-    private static String extractLinkEntity(String text, int start) {
-        int endParen = text.indexOf(")", start);
-        while (endParen != -1 && text.charAt(endParen - 1) != ')') {
-            endParen = text.indexOf(")", endParen + 1);
-        }
-        return text.substring(start, endParen + 1);
-    }
-    
     private static int skipLinkEntity(String text, int start) {
         int endParen = text.indexOf(")", start);
         while (endParen != -1 && text.charAt(endParen - 1) != ')') {
@@ -253,14 +247,6 @@ public final class MarkdownV2Escaper {
         return start + 1 < text.length() && text.charAt(start) == '>';
     }
     
-    private static String extractBlockquoteEntity(String text, int start) {
-        int end = start + 1;
-        while (end < text.length() && text.charAt(end) == '>') {
-            end++;
-        }
-        return text.substring(start, end);
-    }
-    
     private static int skipBlockquoteEntity(String text, int start) {
         int end = start + 1;
         while (end < text.length() && text.charAt(end) == '>') {
@@ -270,8 +256,18 @@ public final class MarkdownV2Escaper {
     }
     
     private static boolean isSpecialChar(char c) {
-        return c == '_' || c == '*' || c == '[' || c == ']' || c == '(' || c == ')' ||
-               c == '~' || c == '`' || c == '>' || c == '#' || c == '+' || c == '-' ||
-               c == '=' || c == '|' || c == '{' || c == '}' || c == '.' || c == '!';
+        return c < SPECIAL_CHARS.length && SPECIAL_CHARS[c];
+    }
+
+    private static boolean isEscaped(char c) {
+        return c < ESCAPED_CHARS.length && ESCAPED_CHARS[c];
+    }
+
+    private static boolean[] specialChars(String chars) {
+        boolean[] table = new boolean[128];
+        for (int i = 0; i < chars.length(); i++) {
+            table[chars.charAt(i)] = true;
+        }
+        return table;
     }
 }
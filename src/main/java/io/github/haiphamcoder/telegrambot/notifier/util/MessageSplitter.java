@@ -0,0 +1,313 @@
+package io.github.haiphamcoder.telegrambot.notifier.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+
+/**
+ * Splits a message text that is too long for Telegram into parts that each fit,
+ * without breaking its formatting.
+ * <p>
+ * The text must already be escaped for its parse mode (see
+ * {@link ParseModeEscaper#escapePreservingEntities(String, ParseMode)}), and
+ * lengths are measured on it in UTF-16 code units, markup included, which is
+ * never less than what Telegram counts. Parts are cut at a line break, or
+ * failing that at a space; the break itself is dropped. Escape sequences, HTML
+ * entities, tags and links are never cut. Formatting that is open at a cut
+ * (bold, italic, code, pre, HTML tags, ...) is closed at the end of the part and
+ * reopened at the start of the next one.
+ * <p>
+ * The text is scanned once from start to end; after a cut only the tail of the
+ * finished part is scanned again.
+ */
+public final class MessageSplitter {
+
+    private final String text;
+    private final ParseMode parseMode;
+    private final int maxLength;
+
+    private MessageSplitter(String text, ParseMode parseMode, int maxLength) {
+        this.text = text;
+        this.parseMode = parseMode;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Splits {@code text} into parts of at most {@code maxLength} UTF-16 code
+     * units each.
+     *
+     * @param text      the escaped text
+     * @param parseMode the parse mode of the text, or {@code null} for plain text
+     * @param maxLength the maximum length of a part, e.g.
+     *                  {@link io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest#MAX_TEXT_LENGTH}
+     * @return the parts in order; the text itself if it already fits
+     * @throws IllegalArgumentException if {@code text} is {@code null}, or if
+     *                                  {@code maxLength} is too small to hold
+     *                                  the reopened formatting and one character
+     */
+    public static List<String> split(String text, ParseMode parseMode, int maxLength) {
+        if (text == null) {
+            throw new IllegalArgumentException("text is required");
+        }
+        if (text.length() <= maxLength) {
+            return List.of(text);
+        }
+        return new MessageSplitter(text, parseMode, maxLength).split();
+    }
+
+    private List<String> split() {
+        List<String> parts = new ArrayList<>();
+        Open open = null;
+        int position = 0;
+        while (position < text.length()) {
+            StringBuilder part = new StringBuilder(maxLength);
+            appendReopened(part, open);
+            int contentStart = part.length();
+            Cut newline = null;
+            Cut space = null;
+            Cut boundary = null;
+            Token token = new Token();
+            int index = position;
+            Open current = open;
+            while (index < text.length()) {
+                scan(index, current, false, token);
+                if (!fits(part, index, token)) {
+                    // an atom is only broken up when it alone does not fit into an empty part
+                    if (part.length() > contentStart) {
+                        break;
+                    }
+                    scan(index, current, true, token);
+                    if (!fits(part, index, token)) {
+                        break;
+                    }
+                }
+                char first = text.charAt(index);
+                if (first == '\n' || first == ' ') {
+                    Cut cut = new Cut(part.length(), token.end, current);
+                    if (first == '\n') {
+                        newline = cut;
+                    } else {
+                        space = cut;
+                    }
+                }
+                part.append(text, index, token.end);
+                index = token.end;
+                current = token.open;
+                boundary = new Cut(part.length(), index, current);
+            }
+            if (index == text.length()) {
+                parts.add(part.toString());
+                break;
+            }
+            Cut cut = chooseCut(newline, space, boundary, contentStart);
+            if (cut == null) {
+                throw new IllegalArgumentException("maxLength " + maxLength + " is too small to split this text");
+            }
+            part.setLength(cut.partLength);
+            appendClosing(part, cut.open);
+            parts.add(part.toString());
+            position = cut.resume;
+            open = cut.open;
+        }
+        return parts;
+    }
+
+    private boolean fits(StringBuilder part, int index, Token token) {
+        return part.length() + (token.end - index) + closeLength(token.open) <= maxLength;
+    }
+
+    /** Prefers a line break, then a space, in the second half of the part; otherwise the last one found. */
+    private Cut chooseCut(Cut newline, Cut space, Cut boundary, int contentStart) {
+        int half = maxLength / 2;
+        if (newline != null && newline.partLength >= half) {
+            return newline;
+        }
+        if (space != null && space.partLength >= half) {
+            return space;
+        }
+        Cut latest = newline == null ? space : space == null || newline.partLength > space.partLength ? newline : space;
+        if (latest != null && latest.partLength > contentStart) {
+            return latest;
+        }
+        return boundary;
+    }
+
+    /**
+     * Reads the token at {@code index}: sets its end and the formatting open
+     * after it. With {@code splitAtoms}, escape sequences, entities and links
+     * are read one character at a time, so that an oversized one can be cut.
+     */
+    private void scan(int index, Open open, boolean splitAtoms, Token token) {
+        token.open = open;
+        token.end = index + charLength(index);
+        if (parseMode == null) {
+            return;
+        }
+        int atomEnd = switch (parseMode) {
+            case HTML -> scanHtml(index, open, token);
+            case MARKDOWN_V2 -> scanMarkdown(index, open, token, true);
+            case MARKDOWN -> scanMarkdown(index, open, token, false);
+        };
+        if (atomEnd > 0) {
+            token.end = splitAtoms ? index + charLength(index) : atomEnd;
+        }
+    }
+
+    /** Returns the end of an atom starting at {@code index}, or 0 if the token is not one. */
+    private int scanHtml(int index, Open open, Token token) {
+        char c = text.charAt(index);
+        if (c == '&') {
+            int semicolon = text.indexOf(';', index);
+            return semicolon > index && semicolon - index <= 12 ? semicolon + 1 : 0;
+        }
+        if (c != '<') {
+            return 0;
+        }
+        int close = text.indexOf('>', index);
+        if (close < 0) {
+            return 0;
+        }
+        boolean closing = index + 1 < text.length() && text.charAt(index + 1) == '/';
+        int nameStart = closing ? index + 2 : index + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < close && (Character.isLetterOrDigit(text.charAt(nameEnd)) || text.charAt(nameEnd) == '-')) {
+            nameEnd++;
+        }
+        String name = text.substring(nameStart, nameEnd).toLowerCase();
+        if (closing) {
+            token.open = open != null && open.marker.equals(name) ? open.parent : open;
+        } else if (!name.isEmpty()) {
+            token.open = new Open(name, text.substring(index, close + 1), "</" + name + ">", open);
+        }
+        token.end = close + 1;
+        // a tag is never split, even when it is the first token of a part
+        return 0;
+    }
+
+    /** Returns the end of an atom starting at {@code index}, or 0 if the token is not one. */
+    private int scanMarkdown(int index, Open open, Token token, boolean v2) {
+        char c = text.charAt(index);
+        if (c == '\\' && index + 1 < text.length()) {
+            return index + 2;
+        }
+        boolean inPre = open != null && open.marker.equals("```");
+        boolean inCode = open != null && open.marker.equals("`");
+        if (text.startsWith("```", index) && !inCode) {
+            if (inPre) {
+                token.open = open.parent;
+                token.end = index + 3;
+            } else {
+                int languageEnd = index + 3;
+                while (languageEnd < text.length() && isLanguageChar(text.charAt(languageEnd))) {
+                    languageEnd++;
+                }
+                String language = text.substring(index + 3, languageEnd);
+                token.open = new Open("```", "```" + language + "\n", "```", open);
+                token.end = languageEnd;
+            }
+            return 0;
+        }
+        if (c == '`' && !inPre) {
+            token.open = inCode ? open.parent : new Open("`", "`", "`", open);
+            return 0;
+        }
+        if (inPre || inCode) {
+            return 0;
+        }
+        String marker = null;
+        if (v2 && text.startsWith("||", index)) {
+            marker = "||";
+        } else if (v2 && text.startsWith("__", index) && (open == null || !open.marker.equals("_"))) {
+            marker = "__";
+        } else if (c == '*' || c == '_' || (v2 && c == '~')) {
+            marker = String.valueOf(c);
+        } else if (c == '[' || (v2 && c == '!' && index + 1 < text.length() && text.charAt(index + 1) == '[')) {
+            return linkEnd(index);
+        }
+        if (marker != null) {
+            token.open = open != null && open.marker.equals(marker)
+                    ? open.parent
+                    : new Open(marker, marker, marker, open);
+            token.end = index + marker.length();
+        }
+        return 0;
+    }
+
+    /** End of the link {@code [text](url)} starting at {@code index}, or 0 if there is none. */
+    private int linkEnd(int index) {
+        int textEnd = text.indexOf("](", index);
+        if (textEnd < 0) {
+            return 0;
+        }
+        for (int i = textEnd + 2; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ')') {
+                return i + 1;
+            } else if (c == '\n') {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /** Keeps surrogate pairs together. */
+    private int charLength(int index) {
+        return Character.isHighSurrogate(text.charAt(index)) && index + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(index + 1)) ? 2 : 1;
+    }
+
+    private static boolean isLanguageChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '-' || c == '_' || c == '#';
+    }
+
+    private static int closeLength(Open open) {
+        return open != null ? open.closeLength : 0;
+    }
+
+    private static void appendReopened(StringBuilder part, Open open) {
+        if (open != null) {
+            appendReopened(part, open.parent);
+            part.append(open.reopen);
+        }
+    }
+
+    private static void appendClosing(StringBuilder part, Open open) {
+        for (Open o = open; o != null; o = o.parent) {
+            part.append(o.close);
+        }
+    }
+
+    /**
+     * A formatting entity that is open, and the ones it is nested in. Immutable,
+     * so a snapshot of the open formatting is a single reference.
+     */
+    private static final class Open {
+        private final String marker;
+        private final String reopen;
+        private final String close;
+        private final Open parent;
+        /** Length of the closing markup of this entity and all enclosing ones. */
+        private final int closeLength;
+
+        Open(String marker, String reopen, String close, Open parent) {
+            this.marker = marker;
+            this.reopen = reopen;
+            this.close = close;
+            this.parent = parent;
+            this.closeLength = close.length() + closeLength(parent);
+        }
+    }
+
+    /** Where a part can end: its length, where the next part resumes, and the formatting open there. */
+    private record Cut(int partLength, int resume, Open open) {
+    }
+
+    private static final class Token {
+        private int end;
+        private Open open;
+    }
+
+}
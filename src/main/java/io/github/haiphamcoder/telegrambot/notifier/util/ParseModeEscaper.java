@@ -43,11 +43,17 @@ public final class ParseModeEscaper {
      * entities.
      * <p>
      * This method uses more sophisticated escaping that tries to preserve
-     * existing markup entities while still escaping special characters.
+     * existing markup entities while still escaping special characters. The
+     * text is walked once: up to the first special character that is not
+     * already escaped it is only scanned, and escaping starts from there. If
+     * nothing has to change, the text itself is returned without allocating,
+     * so there is no need to call {@link #needsEscaping(String, ParseMode)}
+     * first.
      *
      * @param text      the text to escape
      * @param parseMode the parse mode to use for escaping
-     * @return the escaped text safe for the specified parse mode
+     * @return the escaped text safe for the specified parse mode, or
+     *         {@code text} itself if nothing needs escaping
      */
     public static String escapePreservingEntities(String text, ParseMode parseMode) {
         if (text == null || parseMode == null) {
@@ -65,11 +71,13 @@ public final class ParseModeEscaper {
      * Checks if the given text needs escaping for the specified parse mode.
      * <p>
      * This method can be used to determine whether escaping is necessary
-     * before actually performing the escape operation.
+     * before actually performing the escape operation. It scans the text once
+     * without allocating.
      *
      * @param text      the text to check
      * @param parseMode the parse mode to check against
-     * @return true if the text contains characters that need escaping
+     * @return true if the text contains special characters that are not
+     *         already escaped
      */
     public static boolean needsEscaping(String text, ParseMode parseMode) {
         if (text == null || parseMode == null) {
@@ -77,52 +85,9 @@ public final class ParseModeEscaper {
         }
 
         return switch (parseMode) {
-            case MARKDOWN -> containsMarkdownSpecialChars(unescapeAlreadyEscaped(text, '_', '*', '`', '['));
-            case MARKDOWN_V2 -> containsMarkdownV2SpecialChars(unescapeAlreadyEscaped(text,
-                    '_', '*', '[', ']', '(', ')', '~', '`', '>', '#', '+', '-', '=', '|', '{', '}', '.', '!'));
-            case HTML -> containsHtmlSpecialChars(text);
+            case MARKDOWN -> MarkdownEscaper.indexOfUnescapedSpecial(text) >= 0;
+            case MARKDOWN_V2 -> MarkdownV2Escaper.indexOfUnescapedSpecial(text) >= 0;
+            case HTML -> HtmlEscaper.indexOfSpecial(text) >= 0;
         };
     }
-
-    private static boolean containsMarkdownSpecialChars(String text) {
-        return text.contains("_") || text.contains("*") || text.contains("`") || text.contains("[");
-    }
-
-    private static boolean containsMarkdownV2SpecialChars(String text) {
-        return text.contains("_") || text.contains("*") || text.contains("[") || text.contains("]") ||
-                text.contains("(") || text.contains(")") || text.contains("~") || text.contains("`") ||
-                text.contains(">") || text.contains("#") || text.contains("+") || text.contains("-") ||
-                text.contains("=") || text.contains("|") || text.contains("{") || text.contains("}") ||
-                text.contains(".") || text.contains("!");
-    }
-
-    private static boolean containsHtmlSpecialChars(String text) {
-        return text.contains("<") || text.contains(">") || text.contains("&");
-    }
-
-    private static String unescapeAlreadyEscaped(String text, char... specials) {
-        if (text.indexOf('\\') < 0)
-            return text;
-        StringBuilder sb = new StringBuilder(text.length());
-        int index = 0;
-        while (index < text.length()) {
-            char current = text.charAt(index);
-            if (current == '\\' && index + 1 < text.length() && isOneOf(text.charAt(index + 1), specials)) {
-                // skip backslash, keep the special char as literal
-                sb.append(text.charAt(index + 1));
-                index += 2;
-            } else {
-                sb.append(current);
-                index++;
-            }
-        }
-        return sb.toString();
-    }
-
-    private static boolean isOneOf(char c, char... specials) {
-        for (char s : specials)
-            if (c == s)
-                return true;
-        return false;
-    }
 }
@@ -0,0 +1,44 @@
+package io.github.haiphamcoder.telegrambot.notifier.util;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single daemon timer thread shared by all clients for delayed work such as
+ * releasing rate-limited sends, so that waiting never occupies a caller or
+ * pool thread.
+ * <p>
+ * Tasks must be short: they are expected to complete a future or hand work
+ * off to another executor, never to perform blocking I/O.
+ */
+public final class SharedTimer {
+
+    private SharedTimer() {
+        throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Runs {@code task} on the timer thread after {@code delayNanos}.
+     *
+     * @param task       the task to run
+     * @param delayNanos the delay in nanoseconds
+     * @return a handle to cancel the task
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+        return Holder.EXECUTOR.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Started on first use, so clients that never delay anything spawn no thread. */
+    private static final class Holder {
+        private static final ScheduledThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ScheduledThreadPoolExecutor createExecutor() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                    new DaemonThreadFactory("telegram-notifier-timer-"));
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package io.github.haiphamcoder.telegrambot.notifier.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reflective access to JDK 21 virtual threads.
+ * <p>
+ * The library is compiled for Java 17, so
+ * {@code Executors.newVirtualThreadPerTaskExecutor()} cannot be referenced
+ * directly. This class looks the factory up once at class initialization and
+ * reports whether it is usable on the running JVM; on Java 17 (or on JDK 19/20
+ * without {@code --enable-preview}) {@link #isSupported()} simply returns
+ * {@code false}, and so does {@link #isCurrentThreadVirtual()}.
+ */
+public final class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookupFactory();
+    /** {@code Thread.isVirtual()}, or {@code null} if virtual threads are not available. */
+    private static final Method IS_VIRTUAL = NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null ? lookupIsVirtual() : null;
+
+    private VirtualThreads() {
+        throw new UnsupportedOperationException("This is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Returns whether virtual threads can be created on the running JVM.
+     *
+     * @return {@code true} if {@link #newVirtualThreadPerTaskExecutor()} will
+     *         succeed
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     *
+     * @return a virtual-thread-per-task executor
+     * @throws UnsupportedOperationException if virtual threads are not available
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException(
+                    "Virtual threads are not available on Java " + Runtime.version().feature());
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new UnsupportedOperationException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Returns whether the calling thread is a virtual thread, e.g. to avoid
+     * per-thread caches that would be rebuilt for every short-lived virtual
+     * thread.
+     *
+     * @return {@code true} if running on a virtual thread
+     */
+    public static boolean isCurrentThreadVirtual() {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(Thread.currentThread());
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return false;
+        }
+    }
+
+    private static Method lookupIsVirtual() {
+        try {
+            return Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Method lookupFactory() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            // Preview builds expose the method but throw unless preview features are enabled
+            ((ExecutorService) factory.invoke(null)).shutdown();
+            return factory;
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+package io.github.haiphamcoder.telegrambot.notifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.http.ResultReader;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramTransport;
+import io.github.haiphamcoder.telegrambot.notifier.model.BroadcastResult;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.InlineKeyboardMarkup;
+import io.github.haiphamcoder.telegrambot.notifier.model.MessageAck;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.model.SuggestedPostParameters;
+import io.github.haiphamcoder.telegrambot.notifier.types.MessageTemplate;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+import io.github.haiphamcoder.telegrambot.notifier.util.JsonUtils;
+
+@DisplayName("broadcast")
+class BroadcastTest {
+
+    private static final long BLOCKED_CHAT = 13L;
+
+    @Test
+    @DisplayName("sends the fields of an ordinary request to every chat")
+    void sendsOrdinaryBodies() {
+        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup(
+                List.of(List.of(InlineKeyboardMarkup.InlineKeyboardButton.ofText("Ack"))));
+        MessageTemplate template = SendMessageRequest.builder()
+                .chatId(0L)
+                .parseMode(ParseMode.MARKDOWN_V2)
+                .replyMarkup(keyboard)
+                .buildTemplate();
+        RecordingTransport transport = new RecordingTransport();
+
+        try (TelegramNotifierClient client = client(transport, 4)) {
+            client.broadcast(template, "Release 1.2 is out!", List.of(ChatId.of(-100L), ChatId.of("@news")));
+        }
+
+        assertEquals(2, transport.bodies.size());
+        for (ChatId chatId : List.of(ChatId.of(-100L), ChatId.of("@news"))) {
+            SendMessageRequest expected = SendMessageRequest.builder()
+                    .chatId(chatId)
+                    .text("Release 1\\.2 is out\\!")
+                    .parseMode(ParseMode.MARKDOWN_V2)
+                    .replyMarkup(keyboard)
+                    .build();
+            JsonNode expectedTree = JsonUtils.getObjectMapper().valueToTree(expected);
+            assertTrue(transport.bodies.stream().anyMatch(body -> readTree(body).equals(expectedTree)));
+        }
+    }
+
+    @Test
+    @DisplayName("reports failures per chat and bounds the sends in flight")
+    void reportsFailuresPerChat() {
+        RecordingTransport transport = new RecordingTransport();
+        List<ChatId> chats = LongStream.rangeClosed(1, 100).mapToObj(ChatId::of).toList();
+        MessageTemplate template = SendMessageRequest.builder().chatId(0L).buildTemplate();
+
+        BroadcastResult result;
+        try (TelegramNotifierClient client = client(transport, 4)) {
+            result = client.broadcast(template, "maintenance at 22:00", chats);
+        }
+
+        assertFalse(result.isComplete());
+        assertEquals(99, result.delivered().size());
+        assertEquals(403, ((TelegramApiException) result.failed().get(ChatId.of(BLOCKED_CHAT))).getErrorCode());
+        assertTrue(transport.maxInFlight.get() <= 4);
+    }
+
+    @Test
+    @DisplayName("splits an over-long text and sends the parts to every chat in order")
+    void splitsLongTexts() {
+        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup(
+                List.of(List.of(InlineKeyboardMarkup.InlineKeyboardButton.ofText("Ack"))));
+        MessageTemplate template = SendMessageRequest.builder()
+                .chatId(0L)
+                .replyMarkup(keyboard)
+                .suggestedPostParameters(new SuggestedPostParameters(null, 2_000_000_000L))
+                .buildTemplate();
+        RecordingTransport transport = new RecordingTransport();
+        String text = "word ".repeat(1000).trim();
+
+        BroadcastResult result;
+        try (TelegramNotifierClient client = new TelegramNotifierClientBuilder()
+                .botToken("123:token")
+                .transport(transport)
+                .splitLongMessages(true)
+                .build()) {
+            result = client.broadcast(template, text, List.of(ChatId.of(1L), ChatId.of(2L)));
+        }
+
+        assertTrue(result.isComplete());
+        for (String chatId : List.of("1", "2")) {
+            List<JsonNode> parts = transport.bodies.stream()
+                    .map(BroadcastTest::readTree)
+                    .filter(body -> body.get("chat_id").asText().equals(chatId))
+                    .toList();
+            assertEquals(2, parts.size());
+            assertEquals(text, parts.get(0).get("text").asText() + " " + parts.get(1).get("text").asText());
+            assertFalse(parts.get(0).has("reply_markup"));
+            assertFalse(parts.get(0).has("suggested_post_parameters"));
+            assertTrue(parts.get(1).has("reply_markup"));
+            assertTrue(parts.get(1).has("suggested_post_parameters"));
+        }
+    }
+
+    private static JsonNode readTree(String json) {
+        try {
+            return JsonUtils.getObjectMapper().readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static TelegramNotifierClient client(TelegramTransport transport, int parallelism) {
+        return new TelegramNotifierClientBuilder()
+                .botToken("123:token")
+                .transport(transport)
+                .broadcastParallelism(parallelism)
+                .build();
+    }
+
+    /** Answers every send from another thread; the chat {@link #BLOCKED_CHAT} has blocked the bot. */
+    private static final class RecordingTransport implements TelegramTransport {
+
+        private final List<String> bodies = new CopyOnWriteArrayList<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader) {
+            try {
+                return postJsonBodyAsync(uri, JsonUtils.getObjectMapper().writeValueAsBytes(payload), resultReader);
+            } catch (JsonProcessingException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> postJsonBodyAsync(URI uri, byte[] body, ResultReader<T> resultReader) {
+            String json = new String(body, StandardCharsets.UTF_8);
+            bodies.add(json);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                inFlight.decrementAndGet();
+                if (json.startsWith("{\"chat_id\":\"" + BLOCKED_CHAT + "\"")) {
+                    throw new TelegramApiException(403, "Forbidden: bot was blocked by the user");
+                }
+                return (T) new MessageAck(1, 1);
+            });
+        }
+    }
+
+}
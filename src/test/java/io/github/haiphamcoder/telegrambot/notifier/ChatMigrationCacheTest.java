@@ -0,0 +1,88 @@
+package io.github.haiphamcoder.telegrambot.notifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.http.ResultReader;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramTransport;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.ErrorResponse;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+
+@DisplayName("ChatMigrationCache")
+class ChatMigrationCacheTest {
+
+    private static final long GROUP_ID = -123456L;
+    private static final long SUPERGROUP_ID = -1001234567890L;
+
+    @Test
+    @DisplayName("reloads recorded migrations from its file")
+    void reloadsMigrationsFromFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("migrations.properties");
+        ChatMigrationCache.persistent(file).record(GROUP_ID, SUPERGROUP_ID);
+
+        ChatMigrationCache reloaded = ChatMigrationCache.persistent(file);
+
+        assertEquals(ChatId.of(SUPERGROUP_ID), reloaded.resolve(ChatId.of(GROUP_ID)));
+    }
+
+    @Test
+    @DisplayName("client retries once against the supergroup and sends there from then on")
+    void clientFollowsMigration() {
+        MigratedGroupTransport transport = new MigratedGroupTransport();
+        ChatMigrationCache cache = new ChatMigrationCache();
+        SendMessageRequest request = SendMessageRequest.builder().chatId(GROUP_ID).text("disk full").build();
+
+        try (TelegramNotifierClient client = new TelegramNotifierClientBuilder()
+                .botToken("123:token")
+                .transport(transport)
+                .chatMigrationCache(cache)
+                .build()) {
+            client.sendMessage(request);
+            client.sendMessage(request);
+        }
+
+        assertEquals(List.of(ChatId.of(GROUP_ID), ChatId.of(SUPERGROUP_ID), ChatId.of(SUPERGROUP_ID)),
+                transport.targets);
+        assertEquals(ChatId.of(SUPERGROUP_ID), cache.resolve(ChatId.of(GROUP_ID)));
+    }
+
+    /** Rejects sends to the old group the way Telegram does after an upgrade. */
+    private static final class MigratedGroupTransport implements TelegramTransport {
+
+        private final List<ChatId> targets = new ArrayList<>();
+
+        @Override
+        public <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader) {
+            ChatId chatId = ((SendMessageRequest) payload).chatId();
+            targets.add(chatId);
+            if (chatId.equals(ChatId.of(GROUP_ID))) {
+                ErrorResponse.ResponseParameters parameters = new ErrorResponse.ResponseParameters();
+                parameters.setMigrateToChatId(SUPERGROUP_ID);
+                ErrorResponse error = new ErrorResponse();
+                error.setErrorCode(400);
+                error.setDescription("Bad Request: group chat was upgraded to a supergroup chat");
+                error.setParameters(parameters);
+                throw new TelegramApiException(error);
+            }
+            return null;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader) {
+            return CompletableFuture.completedFuture(postJson(uri, payload, resultReader));
+        }
+    }
+
+}
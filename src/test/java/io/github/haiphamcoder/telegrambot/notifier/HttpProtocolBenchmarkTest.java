@@ -0,0 +1,158 @@
+package io.github.haiphamcoder.telegrambot.notifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import io.github.haiphamcoder.telegrambot.notifier.http.HttpProtocol;
+import io.github.haiphamcoder.telegrambot.notifier.model.MessageResponse;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+
+/**
+ * Compares HTTP/1.1 and HTTP/2 throughput against a local fake Bot API server
+ * that answers every request after a fixed delay, emulating the round trip to
+ * Telegram. Run with
+ * {@code mvn -Dtest=HttpProtocolBenchmarkTest -Dbenchmark=true test}.
+ */
+@DisplayName("HTTP/1.1 vs HTTP/2 benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HttpProtocolBenchmarkTest {
+
+    private static final String RESPONSE_BODY = "{\"ok\":true,\"result\":{\"message_id\":1,"
+            + "\"chat\":{\"id\":1,\"type\":\"private\"},\"date\":0,\"text\":\"benchmark\"}}";
+    private static final long SERVER_LATENCY_MILLIS = 50;
+    private static final int CALLER_THREADS = 200;
+    private static final int MESSAGES = 10_000;
+    private static final int MAX_CONNECTIONS = 20;
+
+    private static final Map<HttpProtocol, HttpAsyncServer> SERVERS = new EnumMap<>(HttpProtocol.class);
+    private static final Map<HttpProtocol, String> BASE_URLS = new EnumMap<>(HttpProtocol.class);
+    private static ScheduledExecutorService serverScheduler;
+
+    @BeforeAll
+    static void startServers() throws Exception {
+        serverScheduler = Executors.newScheduledThreadPool(4);
+        // Cleartext servers cannot negotiate, so each protocol gets its own listener
+        startServer(HttpProtocol.HTTP_1_1, HttpVersionPolicy.FORCE_HTTP_1);
+        startServer(HttpProtocol.HTTP_2, HttpVersionPolicy.FORCE_HTTP_2);
+    }
+
+    private static void startServer(HttpProtocol protocol, HttpVersionPolicy versionPolicy) throws Exception {
+        HttpAsyncServer server = H2ServerBootstrap.bootstrap()
+                .setCanonicalHostName("127.0.0.1")
+                .setVersionPolicy(versionPolicy)
+                .register("*", new DelayedResponseHandler())
+                .create();
+        server.start();
+        Future<ListenerEndpoint> endpoint = server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP);
+        InetSocketAddress address = (InetSocketAddress) endpoint.get().getAddress();
+        SERVERS.put(protocol, server);
+        BASE_URLS.put(protocol, "http://127.0.0.1:" + address.getPort());
+    }
+
+    @AfterAll
+    static void stopServers() {
+        SERVERS.values().forEach(server -> server.close(CloseMode.IMMEDIATE));
+        serverScheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("should report throughput of both protocols")
+    void compareProtocols() throws Exception {
+        // warm-up round so JIT and connection set-up do not skew the first protocol measured
+        run(HttpProtocol.HTTP_1_1, MESSAGES / 10);
+        run(HttpProtocol.HTTP_2, MESSAGES / 10);
+
+        long http11Nanos = run(HttpProtocol.HTTP_1_1, MESSAGES);
+        long http2Nanos = run(HttpProtocol.HTTP_2, MESSAGES);
+
+        System.out.printf("HTTP/1.1 (%d connections): %,d msg/s%n", MAX_CONNECTIONS, perSecond(http11Nanos));
+        System.out.printf("HTTP/2   (multiplexed):    %,d msg/s%n", perSecond(http2Nanos));
+    }
+
+    private static long run(HttpProtocol protocol, int messages) throws Exception {
+        SendMessageRequest request = SendMessageRequest.builder().chatId(1L).text("benchmark").build();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLER_THREADS);
+        try (TelegramNotifierClient client = new TelegramNotifierClientBuilder()
+                .botToken("benchmark")
+                .baseUrl(BASE_URLS.get(protocol))
+                .httpProtocol(protocol)
+                .maxConnectionsTotal(MAX_CONNECTIONS)
+                .maxConnectionsPerRoute(MAX_CONNECTIONS)
+                .build()) {
+            List<Future<MessageResponse>> results = new ArrayList<>(messages);
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                results.add(callers.submit(() -> client.sendMessage(request)));
+            }
+            for (Future<MessageResponse> result : results) {
+                assertEquals(1, result.get().getMessageId());
+            }
+            return System.nanoTime() - start;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private static long perSecond(long nanos) {
+        return MESSAGES * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    private static final class DelayedResponseHandler
+            implements AsyncServerRequestHandler<Message<HttpRequest, String>> {
+
+        @Override
+        public AsyncRequestConsumer<Message<HttpRequest, String>> prepare(HttpRequest request,
+                EntityDetails entityDetails, HttpContext context) {
+            return new BasicRequestConsumer<>(entityDetails != null ? new StringAsyncEntityConsumer() : null);
+        }
+
+        @Override
+        public void handle(Message<HttpRequest, String> message, ResponseTrigger responseTrigger,
+                HttpContext context) {
+            serverScheduler.schedule(() -> {
+                try {
+                    responseTrigger.submitResponse(AsyncResponseBuilder.create(200)
+                            .setEntity(RESPONSE_BODY, ContentType.APPLICATION_JSON)
+                            .build(), context);
+                } catch (HttpException | IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+}
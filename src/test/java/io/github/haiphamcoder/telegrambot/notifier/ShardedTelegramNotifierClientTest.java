@@ -0,0 +1,135 @@
+package io.github.haiphamcoder.telegrambot.notifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.http.ResultReader;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramTransport;
+import io.github.haiphamcoder.telegrambot.notifier.model.BroadcastResult;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.ErrorResponse;
+import io.github.haiphamcoder.telegrambot.notifier.types.MessageTemplate;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+
+@DisplayName("ShardedTelegramNotifierClient")
+class ShardedTelegramNotifierClientTest {
+
+    private static final List<String> TOKENS = List.of("111:a", "222:b", "333:c");
+
+    @Test
+    @DisplayName("spreads chats evenly and only moves the chats of a removed bot")
+    void spreadsChatsConsistently() {
+        Map<String, Integer> counts = new HashMap<>();
+        try (ShardedTelegramNotifierClient three = client(TOKENS, new BotTransport(null));
+                ShardedTelegramNotifierClient two = client(TOKENS.subList(0, 2), new BotTransport(null))) {
+            for (long id = 1; id <= 3000; id++) {
+                ChatId chatId = ChatId.of(-100_000_000L - id);
+                String bot = three.botIdFor(chatId);
+                counts.merge(bot, 1, Integer::sum);
+                if (!bot.equals("333")) {
+                    assertEquals(bot, two.botIdFor(chatId));
+                }
+            }
+        }
+
+        for (int count : counts.values()) {
+            assertTrue(count > 600 && count < 1400, "uneven spread: " + counts);
+        }
+    }
+
+    @Test
+    @DisplayName("fails over from a throttled bot and skips it until retry_after has passed")
+    void failsOverFromThrottledBot() {
+        BotTransport transport = new BotTransport("111");
+        try (ShardedTelegramNotifierClient client = client(TOKENS, transport)) {
+            ChatId chatId = chatOf(client, "111");
+            SendMessageRequest request = SendMessageRequest.builder().chatId(chatId).text("deploy done").build();
+
+            client.sendMessage(request);
+            client.sendMessage(request);
+
+            String fallback = transport.bots.get(1);
+            assertNotEquals("111", fallback);
+            assertEquals(List.of("111", fallback, fallback), transport.bots);
+        }
+    }
+
+    @Test
+    @DisplayName("reports the original error when a single bot fails a broadcast")
+    void reportsErrorWithSingleBot() {
+        BotTransport transport = new BotTransport("111");
+        try (ShardedTelegramNotifierClient client = client(TOKENS.subList(0, 1), transport)) {
+            MessageTemplate template = SendMessageRequest.builder().chatId(1L).buildTemplate();
+
+            BroadcastResult result = client.broadcast(template, "deploy done", List.of(ChatId.of(1L), ChatId.of(2L)));
+
+            assertEquals(0, result.delivered().size());
+            assertEquals(2, result.failed().size());
+            for (Throwable error : result.failed().values()) {
+                assertEquals(429, assertInstanceOf(TelegramApiException.class, error).getErrorCode());
+            }
+        }
+    }
+
+    private static ChatId chatOf(ShardedTelegramNotifierClient client, String botId) {
+        for (long id = 1;; id++) {
+            if (client.botIdFor(ChatId.of(id)).equals(botId)) {
+                return ChatId.of(id);
+            }
+        }
+    }
+
+    private static ShardedTelegramNotifierClient client(List<String> tokens, TelegramTransport transport) {
+        return ShardedTelegramNotifierClient.builder()
+                .botTokens(tokens)
+                .clientSettings(settings -> settings.transport(transport))
+                .build();
+    }
+
+    /** Records which bot each send went through; {@code throttledBot} answers with HTTP 429. */
+    private static final class BotTransport implements TelegramTransport {
+
+        private final String throttledBot;
+        private final List<String> bots = new CopyOnWriteArrayList<>();
+
+        BotTransport(String throttledBot) {
+            this.throttledBot = throttledBot;
+        }
+
+        @Override
+        public <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader) {
+            String path = uri.getPath();
+            String bot = path.substring(path.indexOf("/bot") + 4, path.indexOf(':'));
+            bots.add(bot);
+            if (bot.equals(throttledBot)) {
+                ErrorResponse.ResponseParameters parameters = new ErrorResponse.ResponseParameters();
+                parameters.setRetryAfter(30);
+                ErrorResponse error = new ErrorResponse();
+                error.setErrorCode(429);
+                error.setDescription("Too Many Requests: retry after 30");
+                error.setParameters(parameters);
+                throw new TelegramApiException(error);
+            }
+            return null;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader) {
+            return CompletableFuture.completedFuture(postJson(uri, payload, resultReader));
+        }
+    }
+
+}
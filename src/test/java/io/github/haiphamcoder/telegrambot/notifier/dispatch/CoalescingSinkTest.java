@@ -0,0 +1,142 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+
+@DisplayName("CoalescingSink")
+class CoalescingSinkTest {
+
+    @Test
+    @DisplayName("joins messages per chat, escaping each part on its own")
+    void joinsMessagesPerChat() {
+        RecordingSink downstream = new RecordingSink();
+        CoalescingSink sink = CoalescingSink.builder().downstream(downstream).window(Duration.ofMinutes(1)).build();
+
+        sink.submit(message(1L, "cpu *high"));
+        sink.submit(message(2L, "other chat"));
+        sink.submit(message(1L, "disk* full"));
+        sink.close(Duration.ofSeconds(1));
+
+        assertEquals(2, downstream.requests.size());
+        SendMessageRequest merged = downstream.requests.stream()
+                .filter(request -> request.chatId().equals(ChatId.of(1L)))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("cpu \\*high\ndisk\\* full", merged.text());
+        assertEquals(ParseMode.MARKDOWN_V2, merged.parseMode());
+    }
+
+    @Test
+    @DisplayName("starts a new message before the text limit is exceeded")
+    void keepsMergedMessagesWithinLimit() {
+        RecordingSink downstream = new RecordingSink();
+        CoalescingSink sink = CoalescingSink.builder().downstream(downstream).window(Duration.ofMinutes(1)).build();
+        String line = "a".repeat(2000);
+
+        sink.submit(message(1L, line));
+        sink.submit(message(1L, line));
+        assertEquals(0, downstream.requests.size());
+        sink.submit(message(1L, line));
+        assertEquals(1, downstream.requests.size());
+        sink.submit(message(1L, line));
+        sink.close(Duration.ofSeconds(1));
+
+        assertEquals(List.of(4001, 4001), downstream.requests.stream().map(r -> r.text().length()).toList());
+    }
+
+    @Test
+    @DisplayName("passes parts with unbalanced markup through on their own")
+    void isolatesUnbalancedMarkup() {
+        RecordingSink downstream = new RecordingSink();
+        CoalescingSink sink = CoalescingSink.builder().downstream(downstream).window(Duration.ofMinutes(1)).build();
+
+        sink.submit(html(1L, "<b>cpu high"));
+        sink.submit(html(1L, "disk &nbsp; full"));
+        sink.submit(html(1L, "<i>load</i> 5 &amp; rising"));
+        sink.submit(html(1L, "memory</b> low"));
+        sink.submit(html(1L, "swap &#8730; &lt; 1%"));
+        sink.close(Duration.ofSeconds(1));
+
+        assertEquals(List.of("<b>cpu high", "disk &nbsp; full", "memory</b> low",
+                "<i>load</i> 5 &amp; rising\nswap &#8730; &lt; 1%"),
+                downstream.requests.stream().map(SendMessageRequest::text).toList());
+        assertFalse(CoalescingSink.isSelfContained("_a *b_ c*", ParseMode.MARKDOWN_V2));
+        assertTrue(CoalescingSink.isSelfContained("*bold _it_* `a*b` [l](https://x.y/a_b)", ParseMode.MARKDOWN_V2));
+    }
+
+    @Test
+    @DisplayName("hands closed windows on off the timer thread and reports refused ones")
+    void reportsRefusedWindows() {
+        RecordingSink downstream = new RecordingSink(false);
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        CoalescingSink sink = CoalescingSink.builder()
+                .downstream(downstream)
+                .window(Duration.ofMillis(10))
+                .onError((request, error) -> errors.add(error))
+                .build();
+
+        sink.submit(message(1L, "cpu high"));
+        sink.submit(message(1L, "disk full"));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> errors.size() == 1);
+        sink.close(Duration.ofSeconds(1));
+
+        assertInstanceOf(RejectedExecutionException.class, errors.get(0));
+        assertTrue(downstream.threads.get(0).startsWith("telegram-notifier-coalesce-"));
+    }
+
+    private static SendMessageRequest html(long chatId, String text) {
+        return SendMessageRequest.builder().chatId(chatId).text(text).parseMode(ParseMode.HTML).build();
+    }
+
+    private static SendMessageRequest message(long chatId, String text) {
+        return SendMessageRequest.builder().chatId(chatId).text(text).parseMode(ParseMode.MARKDOWN_V2).build();
+    }
+
+    private static final class RecordingSink implements NotificationSink {
+
+        private final boolean accepting;
+        private final List<SendMessageRequest> requests = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        RecordingSink() {
+            this(true);
+        }
+
+        /** A sink that is not {@code accepting} rejects everything like a full dispatcher. */
+        RecordingSink(boolean accepting) {
+            this.accepting = accepting;
+        }
+
+        @Override
+        public boolean submit(SendMessageRequest request) {
+            threads.add(Thread.currentThread().getName());
+            if (!accepting) {
+                throw new RejectedExecutionException("Queue is full");
+            }
+            requests.add(request);
+            return true;
+        }
+
+        @Override
+        public boolean close(Duration timeout) {
+            return true;
+        }
+    }
+
+}
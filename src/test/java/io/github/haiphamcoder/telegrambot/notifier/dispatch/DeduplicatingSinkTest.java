@@ -0,0 +1,135 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+
+@DisplayName("DeduplicatingSink")
+class DeduplicatingSinkTest {
+
+    @Test
+    @DisplayName("suppresses repeats and reports them when the window closes")
+    void suppressesRepeats() {
+        RecordingSink downstream = new RecordingSink();
+        DeduplicatingSink sink = DeduplicatingSink.builder()
+                .downstream(downstream)
+                .window(Duration.ofMillis(200))
+                .build();
+
+        sink.submit(message(1L, "Disk full on db-1"));
+        sink.submit(message(1L, "disk  full on DB-1 "));
+        sink.submit(message(1L, "Disk full on db-1"));
+        sink.submit(message(2L, "Disk full on db-1"));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> downstream.texts.size() == 3);
+        assertEquals(List.of("Disk full on db-1", "Disk full on db-1",
+                "Disk full on db-1\nrepeated 2 times in last 200ms"), downstream.texts);
+    }
+
+    @Test
+    @DisplayName("reports repeats of entries evicted from a full table")
+    void reportsEvictedEntries() {
+        RecordingSink downstream = new RecordingSink();
+        DeduplicatingSink sink = DeduplicatingSink.builder()
+                .downstream(downstream)
+                .window(Duration.ofMinutes(5))
+                .maxEntries(1)
+                .build();
+
+        sink.submit(message(1L, "first"));
+        sink.submit(message(1L, "first"));
+        for (int i = 0; i < 100; i++) {
+            sink.submit(message(1L, "other " + i));
+        }
+
+        assertTrue(downstream.texts.contains("first\nrepeated 1 time in last 5m"));
+    }
+
+    @Test
+    @DisplayName("shortens the quoted original so the follow-up fits into one message")
+    void shortensLongOriginals() {
+        RecordingSink downstream = new RecordingSink();
+        DeduplicatingSink sink = DeduplicatingSink.builder()
+                .downstream(downstream)
+                .window(Duration.ofMinutes(5))
+                .build();
+        String text = "disk full ".repeat(409) + "on db-1";
+
+        sink.submit(message(1L, text));
+        sink.submit(message(1L, text));
+        sink.close(Duration.ofSeconds(1));
+
+        String followUp = downstream.texts.get(1);
+        assertTrue(followUp.length() <= SendMessageRequest.MAX_TEXT_LENGTH);
+        assertTrue(followUp.startsWith("disk full disk full"));
+        assertTrue(followUp.endsWith("\u2026\nrepeated 1 time in last 5m"));
+    }
+
+    @Test
+    @DisplayName("sends follow-ups off the timer thread and reports dropped ones")
+    void reportsDroppedFollowUps() {
+        RecordingSink downstream = new RecordingSink(false);
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        DeduplicatingSink sink = DeduplicatingSink.builder()
+                .downstream(downstream)
+                .window(Duration.ofMillis(10))
+                .onError((request, error) -> errors.add(error))
+                .build();
+
+        sink.submit(message(1L, "Disk full on db-1"));
+        sink.submit(message(1L, "Disk full on db-1"));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> errors.size() == 1);
+        sink.close(Duration.ofSeconds(1));
+
+        assertInstanceOf(RejectedExecutionException.class, errors.get(0));
+        assertTrue(downstream.threads.get(1).startsWith("telegram-notifier-dedup-"));
+    }
+
+    private static SendMessageRequest message(long chatId, String text) {
+        return SendMessageRequest.builder().chatId(chatId).text(text).build();
+    }
+
+    private static final class RecordingSink implements NotificationSink {
+
+        private final boolean acceptingFollowUps;
+        private final List<String> texts = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        RecordingSink() {
+            this(true);
+        }
+
+        /** A sink that is not {@code acceptingFollowUps} drops them like a full dispatcher. */
+        RecordingSink(boolean acceptingFollowUps) {
+            this.acceptingFollowUps = acceptingFollowUps;
+        }
+
+        @Override
+        public boolean submit(SendMessageRequest request) {
+            threads.add(Thread.currentThread().getName());
+            if (!acceptingFollowUps && request.text().contains("\nrepeated ")) {
+                return false;
+            }
+            texts.add(request.text());
+            return true;
+        }
+
+        @Override
+        public boolean close(Duration timeout) {
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.haiphamcoder.telegrambot.notifier.TelegramNotifierClient;
+import io.github.haiphamcoder.telegrambot.notifier.TelegramNotifierClientBuilder;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+import io.github.haiphamcoder.telegrambot.notifier.http.ResultReader;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramTransport;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+
+@DisplayName("DurableOutbox")
+class DurableOutboxTest {
+
+    @Test
+    @DisplayName("replays unacknowledged messages when reopened")
+    void replaysUnacknowledgedMessages(@TempDir Path dir) throws IOException {
+        SendMessageRequest page = SendMessageRequest.builder()
+                .chatId("@ops")
+                .text("*disk full*")
+                .parseMode(ParseMode.MARKDOWN_V2)
+                .build();
+        try (DurableOutbox outbox = DurableOutbox.builder().directory(dir).build()) {
+            long sent = outbox.append(message("sent"), Priority.NORMAL);
+            outbox.append(page, Priority.HIGH);
+            outbox.append(message("digest"), Priority.LOW);
+            outbox.ack(sent);
+        }
+
+        try (DurableOutbox reopened = DurableOutbox.builder().directory(dir).build()) {
+            List<DurableOutbox.Pending> replay = reopened.takeReplay();
+
+            assertEquals(2, reopened.unacknowledged());
+            assertEquals(List.of(page, message("digest")),
+                    replay.stream().map(DurableOutbox.Pending::request).toList());
+            assertEquals(List.of(Priority.HIGH, Priority.LOW),
+                    replay.stream().map(DurableOutbox.Pending::priority).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("deletes segments once all their messages are acknowledged")
+    void deletesAcknowledgedSegments(@TempDir Path dir) throws IOException {
+        try (DurableOutbox outbox = DurableOutbox.builder().directory(dir).segmentSize(4096).build()) {
+            for (int i = 0; i < 1000; i++) {
+                outbox.ack(outbox.append(message("alert " + i), Priority.NORMAL));
+            }
+
+            assertEquals(0, outbox.unacknowledged());
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(1, files.count());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("copies a stuck message forward so acknowledged segments are still deleted")
+    void relocatesStuckMessages(@TempDir Path dir) throws IOException {
+        try (DurableOutbox outbox = DurableOutbox.builder().directory(dir).segmentSize(4096).build()) {
+            outbox.append(message("stuck"), Priority.HIGH);
+            for (int i = 0; i < 1000; i++) {
+                outbox.ack(outbox.append(message("alert " + i), Priority.NORMAL));
+            }
+
+            assertEquals(1, outbox.unacknowledged());
+            try (Stream<Path> files = Files.list(dir)) {
+                assertTrue(files.count() <= 3);
+            }
+        }
+
+        try (DurableOutbox reopened = DurableOutbox.builder().directory(dir).segmentSize(4096).build()) {
+            List<DurableOutbox.Pending> replay = reopened.takeReplay();
+
+            assertEquals(List.of(message("stuck")), replay.stream().map(DurableOutbox.Pending::request).toList());
+            assertEquals(Priority.HIGH, replay.get(0).priority());
+        }
+    }
+
+    @Test
+    @DisplayName("dispatcher retries a transport error in-process after a back-off")
+    void dispatcherRetriesTransientFailures(@TempDir Path dir) throws IOException {
+        FakeTransport transport = new FakeTransport(2);
+        try (DurableOutbox outbox = DurableOutbox.builder().directory(dir).build();
+                TelegramNotifierClient client = client(transport)) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder()
+                    .client(client)
+                    .outbox(outbox)
+                    .retryBackoff(Duration.ofMillis(10))
+                    .build();
+            dispatcher.submit(message("a"));
+            assertTrue(dispatcher.close(Duration.ofSeconds(5)));
+
+            assertEquals(List.of("a"), transport.texts);
+            assertEquals(0, outbox.unacknowledged());
+        }
+    }
+
+    @Test
+    @DisplayName("dispatcher re-sends messages that failed with a transport error")
+    void dispatcherResendsAfterRestart(@TempDir Path dir) throws IOException {
+        try (DurableOutbox outbox = DurableOutbox.builder().directory(dir).build();
+                TelegramNotifierClient client = client(new FakeTransport(Integer.MAX_VALUE))) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder().client(client).outbox(outbox).build();
+            dispatcher.submit(message("a"));
+            dispatcher.submit(message("b"));
+            // still waiting for their retry when closed
+            assertFalse(dispatcher.close(Duration.ofMillis(200)));
+        }
+
+        FakeTransport transport = new FakeTransport(0);
+        try (DurableOutbox outbox = DurableOutbox.builder().directory(dir).build();
+                TelegramNotifierClient client = client(transport)) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder().client(client).outbox(outbox).build();
+            assertTrue(dispatcher.close(Duration.ofSeconds(5)));
+
+            assertEquals(List.of("a", "b"), transport.texts.stream().sorted().toList());
+            assertEquals(0, outbox.unacknowledged());
+        }
+    }
+
+    private static TelegramNotifierClient client(TelegramTransport transport) {
+        return new TelegramNotifierClientBuilder().botToken("123:token").transport(transport).build();
+    }
+
+    private static SendMessageRequest message(String text) {
+        return SendMessageRequest.builder().chatId(42L).text(text).build();
+    }
+
+    /** Records sent texts after failing the first {@code failures} sends like an unreachable server. */
+    private static final class FakeTransport implements TelegramTransport {
+
+        private final AtomicInteger failures;
+        private final List<String> texts = new CopyOnWriteArrayList<>();
+
+        FakeTransport(int failures) {
+            this.failures = new AtomicInteger(failures);
+        }
+
+        @Override
+        public <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader) {
+            if (failures.getAndUpdate(n -> n == Integer.MAX_VALUE ? n : Math.max(n - 1, 0)) > 0) {
+                throw new TelegramHttpException("Connection refused", null);
+            }
+            texts.add(((SendMessageRequest) payload).text());
+            return null;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader) {
+            return CompletableFuture.completedFuture(postJson(uri, payload, resultReader));
+        }
+    }
+
+}
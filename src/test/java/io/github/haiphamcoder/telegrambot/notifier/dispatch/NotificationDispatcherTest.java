@@ -0,0 +1,235 @@
+package io.github.haiphamcoder.telegrambot.notifier.dispatch;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.TelegramNotifierClient;
+import io.github.haiphamcoder.telegrambot.notifier.TelegramNotifierClientBuilder;
+import io.github.haiphamcoder.telegrambot.notifier.http.ResultReader;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramTransport;
+import io.github.haiphamcoder.telegrambot.notifier.ratelimit.RateLimit;
+import io.github.haiphamcoder.telegrambot.notifier.ratelimit.RateLimiter;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+
+@DisplayName("NotificationDispatcher")
+class NotificationDispatcherTest {
+
+    @Test
+    @DisplayName("delivers everything submitted before close")
+    void deliversEverythingBeforeClose() {
+        RecordingTransport transport = new RecordingTransport(new CountDownLatch(0));
+        try (TelegramNotifierClient client = client(transport)) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder().client(client).build();
+            for (int i = 0; i < 100; i++) {
+                assertTrue(dispatcher.submit(message("alert " + i)));
+            }
+
+            assertTrue(dispatcher.close(Duration.ofSeconds(5)));
+            assertEquals(100, transport.texts.size());
+        }
+    }
+
+    @Test
+    @DisplayName("DROP_OLDEST makes room by dropping the oldest queued message")
+    void dropOldestMakesRoom() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingTransport transport = new RecordingTransport(release);
+        try (TelegramNotifierClient client = client(transport)) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder()
+                    .client(client)
+                    .workers(1)
+                    .capacity(2)
+                    .overflowPolicy(OverflowPolicy.DROP_OLDEST)
+                    .build();
+            dispatcher.submit(message("a"));
+            await().atMost(5, TimeUnit.SECONDS).until(() -> dispatcher.pending() == 0);
+
+            dispatcher.submit(message("b"));
+            dispatcher.submit(message("c"));
+            dispatcher.submit(message("d"));
+            assertEquals(1, dispatcher.dropped());
+
+            release.countDown();
+            assertTrue(dispatcher.close(Duration.ofSeconds(5)));
+            assertEquals(List.of("a", "c", "d"), transport.texts);
+        }
+    }
+
+    @Test
+    @DisplayName("DROP_NEWEST refuses messages while the queue is full")
+    void dropNewestRefusesMessages() {
+        CountDownLatch release = new CountDownLatch(1);
+        try (TelegramNotifierClient client = client(new RecordingTransport(release))) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder()
+                    .client(client)
+                    .workers(1)
+                    .capacity(1)
+                    .overflowPolicy(OverflowPolicy.DROP_NEWEST)
+                    .build();
+            dispatcher.submit(message("a"));
+            await().atMost(5, TimeUnit.SECONDS).until(() -> dispatcher.pending() == 0);
+            dispatcher.submit(message("b"));
+
+            assertFalse(dispatcher.submit(message("c")));
+            release.countDown();
+            assertTrue(dispatcher.close(Duration.ofSeconds(5)));
+        }
+    }
+
+    @Test
+    @DisplayName("serves higher lanes first")
+    void servesHigherLanesFirst() {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingTransport transport = new RecordingTransport(release);
+        try (TelegramNotifierClient client = client(transport)) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder().client(client).workers(1).build();
+            dispatcher.submit(message("first"));
+            await().atMost(5, TimeUnit.SECONDS).until(() -> dispatcher.pending() == 0);
+
+            dispatcher.submit(message("digest"), Priority.LOW);
+            dispatcher.submit(message("report"), Priority.NORMAL);
+            dispatcher.submit(message("page"), Priority.HIGH);
+            release.countDown();
+
+            assertTrue(dispatcher.close(Duration.ofSeconds(5)));
+            assertEquals(List.of("first", "page", "report", "digest"), transport.texts);
+            assertEquals(1, dispatcher.laneStats(Priority.HIGH).dispatched());
+        }
+    }
+
+    @Test
+    @DisplayName("caps lower lanes at their share of the global limit")
+    void capsLowerLanes() {
+        RecordingTransport transport = new RecordingTransport(new CountDownLatch(0));
+        try (TelegramNotifierClient client = client(transport)) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder()
+                    .client(client)
+                    .globalLimit(RateLimit.perSecond(10))
+                    .laneShare(Priority.LOW, 0.5)
+                    .build();
+            for (int i = 0; i < 3; i++) {
+                dispatcher.submit(message("digest " + i), Priority.LOW);
+            }
+
+            assertTrue(dispatcher.close(Duration.ofSeconds(5)));
+            // 5 per second: the third message waits for two 200 ms intervals
+            assertTrue(dispatcher.laneStats(Priority.LOW).maxLatency().toMillis() >= 350);
+        }
+    }
+
+    @Test
+    @DisplayName("keeps its workers alive when a send or the error handler throws")
+    void survivesFailingSendsAndHandlers() {
+        List<String> texts = new CopyOnWriteArrayList<>();
+        TelegramTransport transport = new TelegramTransport() {
+            @Override
+            public <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader) {
+                String text = ((SendMessageRequest) payload).text();
+                if (text.equals("boom")) {
+                    throw new IllegalStateException("send failed");
+                }
+                texts.add(text);
+                return null;
+            }
+
+            @Override
+            public <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader) {
+                return CompletableFuture.completedFuture(postJson(uri, payload, resultReader));
+            }
+        };
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        try (TelegramNotifierClient client = client(transport)) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder()
+                    .client(client)
+                    .workers(1)
+                    .onError((request, error) -> {
+                        errors.add(error);
+                        throw new IllegalStateException("handler failed");
+                    })
+                    .build();
+            dispatcher.submit(message("boom"));
+            dispatcher.submit(message("ok"));
+
+            assertTrue(dispatcher.close(Duration.ofSeconds(5)));
+            assertEquals(List.of("ok"), texts);
+            assertEquals(1, errors.size());
+        }
+    }
+
+    @Test
+    @DisplayName("passes over a throttled chat instead of blocking every worker on it")
+    void passesOverThrottledChats() {
+        RecordingTransport transport = new RecordingTransport(new CountDownLatch(0));
+        RateLimiter rateLimiter = RateLimiter.telegramDefaults();
+        try (TelegramNotifierClient client = new TelegramNotifierClientBuilder()
+                .botToken("123:token")
+                .transport(transport)
+                .rateLimiter(rateLimiter)
+                .build()) {
+            NotificationDispatcher dispatcher = NotificationDispatcher.builder()
+                    .client(client)
+                    .workers(2)
+                    .rateLimiter(rateLimiter)
+                    .build();
+            // private chat 42 gets one message per second
+            for (int i = 0; i < 3; i++) {
+                dispatcher.submit(message("digest " + i), Priority.LOW);
+            }
+            dispatcher.submit(SendMessageRequest.builder().chatId(7L).text("other chat").build(), Priority.LOW);
+
+            await().atMost(500, TimeUnit.MILLISECONDS).until(() -> transport.texts.contains("other chat"));
+            assertTrue(dispatcher.close(Duration.ofSeconds(5)));
+            assertEquals(List.of("digest 0", "digest 1", "digest 2"),
+                    transport.texts.stream().filter(text -> text.startsWith("digest")).toList());
+        }
+    }
+
+    private static TelegramNotifierClient client(TelegramTransport transport) {
+        return new TelegramNotifierClientBuilder().botToken("123:token").transport(transport).build();
+    }
+
+    private static SendMessageRequest message(String text) {
+        return SendMessageRequest.builder().chatId(42L).text(text).build();
+    }
+
+    /** Records sent texts, holding every send until {@code release} opens. */
+    private static final class RecordingTransport implements TelegramTransport {
+
+        private final CountDownLatch release;
+        private final List<String> texts = new CopyOnWriteArrayList<>();
+
+        RecordingTransport(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            texts.add(((SendMessageRequest) payload).text());
+            return null;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader) {
+            return CompletableFuture.completedFuture(postJson(uri, payload, resultReader));
+        }
+    }
+
+}
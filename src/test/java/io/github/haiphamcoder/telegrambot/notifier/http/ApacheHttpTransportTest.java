@@ -0,0 +1,178 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+
+@DisplayName("ApacheHttpTransport")
+class ApacheHttpTransportTest {
+
+    private static HttpAsyncServer server;
+    private static String methodBaseUrl;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = H2ServerBootstrap.bootstrap()
+                .setCanonicalHostName("127.0.0.1")
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_1)
+                .register("*", new SlowHandler())
+                .create();
+        server.start();
+        ListenerEndpoint endpoint = server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get();
+        methodBaseUrl = "http://127.0.0.1:" + ((InetSocketAddress) endpoint.getAddress()).getPort() + "/bot1:x/";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    @DisplayName("pre-warms the blocking pool but leaves the async pool cold")
+    void prewarmsBlockingPool() {
+        try (ApacheHttpTransport transport = transport(HttpProtocol.HTTP_1_1)) {
+            transport.prewarm(methodBaseUrl, 3, null);
+
+            assertEquals(3, transport.getConnectionPoolStats().available());
+            assertEquals(ConnectionPoolStats.EMPTY, transport.getAsyncConnectionPoolStats());
+        }
+    }
+
+    @Test
+    @DisplayName("does not pre-warm with HTTP/2")
+    void skipsPrewarmWithHttp2() {
+        try (ApacheHttpTransport transport = transport(HttpProtocol.HTTP_2)) {
+            transport.prewarm(methodBaseUrl, 3, null);
+
+            assertEquals(0, transport.getConnectionPoolStats().available());
+        }
+    }
+
+    @Test
+    @DisplayName("applies the pool limits to both pools and reports them in the stats")
+    void appliesPoolLimits() {
+        try (ApacheHttpTransport transport = ApacheHttpTransport.builder()
+                .connectionTimeout(Duration.ofSeconds(5))
+                .responseTimeout(Duration.ofSeconds(5))
+                .maxConnectionsTotal(7)
+                .maxConnectionsPerRoute(2)
+                .build()) {
+            transport.prewarm(methodBaseUrl, 4, null);
+
+            assertEquals(new ConnectionPoolStats(0, 2, 0, 7), transport.getConnectionPoolStats());
+            assertEquals(ConnectionPoolStats.EMPTY, transport.getAsyncConnectionPoolStats());
+
+            transport.postJsonAsync(URI.create(methodBaseUrl + "sendMessage"), Map.of(), Map.class).join();
+
+            assertEquals(7, transport.getAsyncConnectionPoolStats().max());
+        }
+    }
+
+    @Test
+    @DisplayName("fails async calls with the API or HTTP error instead of completing them")
+    void propagatesAsyncErrors() {
+        try (ApacheHttpTransport transport = transport(HttpProtocol.HTTP_1_1)) {
+            CompletionException api = assertThrows(CompletionException.class,
+                    () -> transport.postJsonAsync(URI.create(methodBaseUrl + "apiError"), Map.of(), Map.class).join());
+            CompletionException gateway = assertThrows(CompletionException.class,
+                    () -> transport.postJsonAsync(URI.create(methodBaseUrl + "gatewayError"), Map.of(), Map.class)
+                            .join());
+            CompletionException refused = assertThrows(CompletionException.class,
+                    () -> transport.postJsonAsync(URI.create("http://127.0.0.1:1/bot1:x/sendMessage"), Map.of(),
+                            Map.class).join());
+
+            assertEquals(400, assertInstanceOf(TelegramApiException.class, api.getCause()).getErrorCode());
+            assertEquals(502, assertInstanceOf(TelegramHttpException.class, gateway.getCause()).getStatusCode());
+            assertInstanceOf(TelegramHttpException.class, refused.getCause());
+        }
+    }
+
+    @Test
+    @DisplayName("fails async calls on a closed transport")
+    void failsAsyncCallsAfterClose() {
+        ApacheHttpTransport transport = transport(HttpProtocol.HTTP_1_1);
+        transport.close();
+
+        CompletionException closed = assertThrows(CompletionException.class,
+                () -> transport.postJsonAsync(URI.create(methodBaseUrl + "sendMessage"), Map.of(), Map.class).join());
+
+        assertInstanceOf(IllegalStateException.class, closed.getCause());
+    }
+
+    private static ApacheHttpTransport transport(HttpProtocol protocol) {
+        return ApacheHttpTransport.builder()
+                .connectionTimeout(Duration.ofSeconds(5))
+                .responseTimeout(Duration.ofSeconds(5))
+                .httpProtocol(protocol)
+                .build();
+    }
+
+    /**
+     * Answers every call after a short delay, so that concurrent probes each need a connection of their own. Calls
+     * to {@code apiError} get a Bot API error and calls to {@code gatewayError} an HTML error page.
+     */
+    private static final class SlowHandler implements AsyncServerRequestHandler<Message<HttpRequest, String>> {
+
+        @Override
+        public AsyncRequestConsumer<Message<HttpRequest, String>> prepare(HttpRequest request,
+                EntityDetails entityDetails, HttpContext context) {
+            return new BasicRequestConsumer<>(entityDetails != null ? new StringAsyncEntityConsumer() : null);
+        }
+
+        @Override
+        public void handle(Message<HttpRequest, String> message, ResponseTrigger responseTrigger,
+                HttpContext context) throws HttpException, IOException {
+            String path = message.getHead().getPath();
+            int status = path.endsWith("/apiError") ? 400 : path.endsWith("/gatewayError") ? 502 : 200;
+            String body = switch (status) {
+                case 400 -> "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: chat not found\"}";
+                case 502 -> "<html><body>502 Bad Gateway</body></html>";
+                default -> "{\"ok\":true,\"result\":{}}";
+            };
+            CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS).execute(() -> {
+                try {
+                    responseTrigger.submitResponse(AsyncResponseBuilder.create(status)
+                            .setEntity(body, status == 502 ? ContentType.TEXT_HTML : ContentType.APPLICATION_JSON)
+                            .build(), context);
+                } catch (HttpException | IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
+}
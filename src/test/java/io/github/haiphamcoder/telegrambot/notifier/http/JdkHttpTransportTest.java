@@ -0,0 +1,120 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+
+@DisplayName("JdkHttpTransport")
+class JdkHttpTransportTest {
+
+    private static final long MAX_RESPONSE_SIZE = 1024;
+
+    private static HttpAsyncServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = H2ServerBootstrap.bootstrap()
+                .setCanonicalHostName("127.0.0.1")
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_1)
+                .register("*", new EchoHandler())
+                .create();
+        server.start();
+        ListenerEndpoint endpoint = server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get();
+        baseUrl = "http://127.0.0.1:" + ((InetSocketAddress) endpoint.getAddress()).getPort();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    @DisplayName("round-trips a payload through blocking and async calls")
+    void roundTripsPayload() {
+        try (JdkHttpTransport transport = transport()) {
+            URI uri = URI.create(baseUrl + "/echo");
+
+            Map<?, ?> sync = transport.postJson(uri, Map.of("text", "sync"), Map.class);
+            Map<?, ?> async = transport.postJsonAsync(uri, Map.of("text", "async"), Map.class).join();
+
+            assertEquals("sync", sync.get("text"));
+            assertEquals("async", async.get("text"));
+        }
+    }
+
+    @Test
+    @DisplayName("rejects response bodies larger than maxResponseSize")
+    void rejectsOversizedResponses() {
+        try (JdkHttpTransport transport = transport()) {
+            URI uri = URI.create(baseUrl + "/large");
+
+            TelegramHttpException sync = assertThrows(TelegramHttpException.class,
+                    () -> transport.postJson(uri, Map.of("text", "sync"), Map.class));
+            CompletionException async = assertThrows(CompletionException.class,
+                    () -> transport.postJsonAsync(uri, Map.of("text", "async"), Map.class).join());
+
+            assertInstanceOf(BoundedInputStream.ResponseTooLargeException.class, sync.getCause());
+            TelegramHttpException asyncError = assertInstanceOf(TelegramHttpException.class, async.getCause());
+            assertInstanceOf(BoundedInputStream.ResponseTooLargeException.class, asyncError.getCause());
+        }
+    }
+
+    private static JdkHttpTransport transport() {
+        return new JdkHttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), HttpProtocol.HTTP_1_1,
+                MAX_RESPONSE_SIZE);
+    }
+
+    /** Answers with the request body as the result, or with an oversized result on {@code /large}. */
+    private static final class EchoHandler implements AsyncServerRequestHandler<Message<HttpRequest, String>> {
+
+        @Override
+        public AsyncRequestConsumer<Message<HttpRequest, String>> prepare(HttpRequest request,
+                EntityDetails entityDetails, HttpContext context) {
+            return new BasicRequestConsumer<>(entityDetails != null ? new StringAsyncEntityConsumer() : null);
+        }
+
+        @Override
+        public void handle(Message<HttpRequest, String> message, ResponseTrigger responseTrigger,
+                HttpContext context) throws HttpException, IOException {
+            String result = message.getHead().getPath().equals("/large")
+                    ? "\"" + "x".repeat((int) MAX_RESPONSE_SIZE) + "\""
+                    : message.getBody();
+            responseTrigger.submitResponse(AsyncResponseBuilder.create(200)
+                    .setEntity("{\"ok\":true,\"result\":" + result + "}", ContentType.APPLICATION_JSON)
+                    .build(), context);
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("JsonRequestBody")
+class JsonRequestBodyTest {
+
+    @Test
+    @DisplayName("reuses the thread's buffer, and replaces it after a large payload")
+    void reusesThreadBufferUntilItGrows() {
+        JsonRequestBody.Buffer small = JsonRequestBody.serialize(Map.of("text", "first"));
+        JsonRequestBody.release(small);
+        JsonRequestBody.Buffer reused = JsonRequestBody.serialize(Map.of("text", "second"));
+        JsonRequestBody.release(reused);
+
+        assertSame(small, reused);
+        assertEquals("{\"text\":\"second\"}", text(reused));
+
+        String large = "x".repeat(100 * 1024);
+        JsonRequestBody.Buffer grown = JsonRequestBody.serialize(Map.of("text", large));
+        JsonRequestBody.release(grown);
+        assertEquals("{\"text\":\"" + large + "\"}", text(grown));
+
+        JsonRequestBody.Buffer fresh = JsonRequestBody.serialize(Map.of("text", "third"));
+        JsonRequestBody.release(fresh);
+
+        assertNotSame(grown, fresh);
+        assertTrue(fresh.capacity() < large.length());
+        assertEquals("{\"text\":\"third\"}", text(fresh));
+    }
+
+    @Test
+    @DisplayName("recycles pooled buffers, but not ones that grew too large")
+    void recyclesPooledBuffers() {
+        JsonRequestBody.Buffer buffer = JsonRequestBody.borrow();
+        JsonRequestBody.release(buffer);
+        assertSame(buffer, JsonRequestBody.borrow());
+
+        buffer.write(new byte[128 * 1024], 0, 128 * 1024);
+        JsonRequestBody.release(buffer);
+        assertNotSame(buffer, JsonRequestBody.borrow());
+    }
+
+    private static String text(JsonRequestBody.Buffer buffer) {
+        return new String(buffer.array(), 0, buffer.size(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.model.MessageAck;
+
+@DisplayName("MessageAckReader")
+class MessageAckReaderTest {
+
+    @Test
+    @DisplayName("picks chat and message id out of a full message")
+    void readsIdentifiersAndSkipsTheRest() throws IOException {
+        String response = "{\"ok\":true,\"result\":{"
+                + "\"from\":{\"id\":1,\"is_bot\":true,\"first_name\":\"bot\",\"username\":\"x_bot\"},"
+                + "\"chat\":{\"type\":\"supergroup\",\"title\":\"Ops\",\"id\":-1001234567890},"
+                + "\"date\":1700000000,\"text\":\"Disk {full} [1]\","
+                + "\"entities\":[{\"type\":\"bold\",\"offset\":0,\"length\":4}],"
+                + "\"message_id\":4242}}";
+
+        MessageAck ack = TelegramResponseParser.parse(200, response.getBytes(StandardCharsets.UTF_8),
+                MessageAckReader.INSTANCE);
+
+        assertEquals(new MessageAck(-1001234567890L, 4242), ack);
+    }
+
+    @Test
+    @DisplayName("still reports API errors")
+    void reportsApiErrors() {
+        byte[] response = "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: chat not found\"}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        TelegramApiException error = assertThrows(TelegramApiException.class,
+                () -> TelegramResponseParser.parse(200, response, MessageAckReader.INSTANCE));
+
+        assertEquals(400, error.getErrorCode());
+    }
+
+}
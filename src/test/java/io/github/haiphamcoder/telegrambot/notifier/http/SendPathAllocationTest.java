@@ -0,0 +1,87 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.TelegramNotifierClient;
+import io.github.haiphamcoder.telegrambot.notifier.TelegramNotifierClientBuilder;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.types.SendMessageRequest;
+
+/**
+ * Measures the heap allocated per {@code sendMessage} on the client side: URI
+ * handling, escaping and JSON serialization into the recycled request buffer.
+ * The network round trip is replaced by a stub transport so that only the
+ * client's own garbage is counted.
+ */
+@DisplayName("sendMessage allocation")
+class SendPathAllocationTest {
+
+    private static final int WARM_UP_SENDS = 50_000;
+    private static final int MEASURED_SENDS = 20_000;
+    /** Jackson still creates a generator and serializer provider per call. */
+    private static final long MAX_BYTES_PER_SEND = 1024;
+
+    @Test
+    @DisplayName("steady-state sends allocate next to nothing")
+    void steadyStateSendsAllocateNextToNothing() {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+        assumeTrue(threads != null && threads.isThreadAllocatedMemorySupported(),
+                "per-thread allocation counters are not available");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        SendMessageRequest request = SendMessageRequest.builder()
+                .chatId(123456789L)
+                .text("*Disk usage* on db-1 is above the threshold")
+                .parseMode(ParseMode.MARKDOWN_V2)
+                .messageThreadId(42)
+                .build();
+        try (TelegramNotifierClient client = new TelegramNotifierClientBuilder()
+                .botToken("123:token")
+                .transport(new SerializingTransport())
+                .build()) {
+            for (int i = 0; i < WARM_UP_SENDS; i++) {
+                client.sendMessage(request);
+            }
+
+            long threadId = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_SENDS; i++) {
+                client.sendMessage(request);
+            }
+            long perSend = (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_SENDS;
+
+            assertTrue(perSend <= MAX_BYTES_PER_SEND,
+                    "expected at most " + MAX_BYTES_PER_SEND + " bytes per send but was " + perSend);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                ? threads
+                : null;
+    }
+
+    /** Serializes like the built-in transports and skips the round trip. */
+    private static final class SerializingTransport implements TelegramTransport {
+
+        @Override
+        public <T> T postJson(URI uri, Object payload, ResultReader<T> resultReader) {
+            JsonRequestBody.release(JsonRequestBody.serialize(payload));
+            return null;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> postJsonAsync(URI uri, Object payload, ResultReader<T> resultReader) {
+            return CompletableFuture.completedFuture(postJson(uri, payload, resultReader));
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.github.haiphamcoder.telegrambot.notifier.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramHttpException;
+import io.github.haiphamcoder.telegrambot.notifier.model.MessageResponse;
+
+@DisplayName("TelegramResponseParser")
+class TelegramResponseParserTest {
+
+    private static final ResultReader<MessageResponse> MESSAGE_READER = ResultReader.of(MessageResponse.class);
+
+    @Test
+    @DisplayName("binds the result of a successful response from bytes and from a stream")
+    void bindsSuccessfulResults() throws IOException {
+        byte[] body = bytes("{\"ok\":true,\"result\":{\"message_id\":7,\"date\":1700000000},\"extra\":[1,{}]}");
+
+        MessageResponse fromBytes = TelegramResponseParser.parse(200, body, MESSAGE_READER);
+        MessageResponse fromStream = TelegramResponseParser.parse(200, new ByteArrayInputStream(body), 1024,
+                MESSAGE_READER);
+
+        assertEquals(7, fromBytes.getMessageId());
+        assertEquals(7, fromStream.getMessageId());
+        assertNull(TelegramResponseParser.parse(200, bytes("{\"ok\":true,\"result\":null}"), MESSAGE_READER));
+    }
+
+    @Test
+    @DisplayName("raises a Bot API error body with a non-2xx status as TelegramApiException")
+    void raisesApiErrors() {
+        byte[] body = bytes("{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 5\","
+                + "\"parameters\":{\"retry_after\":5}}");
+
+        TelegramApiException fromBytes = assertThrows(TelegramApiException.class,
+                () -> TelegramResponseParser.parse(429, body, MESSAGE_READER));
+        TelegramApiException fromStream = assertThrows(TelegramApiException.class,
+                () -> TelegramResponseParser.parse(429, new ByteArrayInputStream(body), 1024, MESSAGE_READER));
+
+        assertEquals(429, fromBytes.getErrorCode());
+        assertEquals(5, fromBytes.getRetryAfter());
+        assertEquals(429, fromStream.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("raises an error body that is not Bot API JSON as TelegramHttpException")
+    void raisesHttpErrorsForForeignBodies() {
+        String gatewayPage = "<html><body>502 Bad Gateway</body></html>";
+
+        TelegramHttpException html = assertThrows(TelegramHttpException.class,
+                () -> TelegramResponseParser.parse(502, bytes(gatewayPage), MESSAGE_READER));
+        TelegramHttpException json = assertThrows(TelegramHttpException.class,
+                () -> TelegramResponseParser.parse(503, bytes("{\"message\":\"unavailable\"}"), MESSAGE_READER));
+        TelegramHttpException empty = assertThrows(TelegramHttpException.class,
+                () -> TelegramResponseParser.parse(504, (byte[]) null, MESSAGE_READER));
+
+        assertEquals(502, html.getStatusCode());
+        assertEquals(gatewayPage, html.getResponseBody());
+        assertEquals(503, json.getStatusCode());
+        assertEquals(504, empty.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("stops reading bodies larger than maxResponseSize")
+    void rejectsOversizedBodies() {
+        byte[] body = bytes("{\"ok\":true,\"result\":{\"message_id\":7,\"text\":\"" + "x".repeat(2048) + "\"}}");
+
+        assertThrows(BoundedInputStream.ResponseTooLargeException.class,
+                () -> TelegramResponseParser.parse(200, new ByteArrayInputStream(body), 1024, MESSAGE_READER));
+        assertThrows(BoundedInputStream.ResponseTooLargeException.class,
+                () -> TelegramResponseParser.parse(500, new ByteArrayInputStream(body), 1024, MESSAGE_READER));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,93 @@
+package io.github.haiphamcoder.telegrambot.notifier.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramApiException;
+import io.github.haiphamcoder.telegrambot.notifier.http.ResultReader;
+import io.github.haiphamcoder.telegrambot.notifier.http.TelegramResponseParser;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+
+@DisplayName("FloodControl")
+class FloodControlTest {
+
+    private static final ChatId CHAT = ChatId.of(42L);
+
+    @Test
+    @DisplayName("429 bodies keep their retry_after")
+    void parsesRetryAfter() {
+        TelegramApiException error = floodError(7);
+
+        assertEquals(429, error.getErrorCode());
+        assertEquals(7, error.getRetryAfter());
+    }
+
+    @Test
+    @DisplayName("retries after retry_after and pauses the chat meanwhile")
+    void retriesAfterRetryAfter() throws Exception {
+        FloodControl floodControl = FloodControl.builder().build();
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = floodControl.execute(CHAT, () -> attempts.getAndIncrement() == 0
+                ? CompletableFuture.failedFuture(floodError(1))
+                : CompletableFuture.completedFuture(Thread.currentThread().getName()));
+
+        assertTrue(floodControl.remainingPause(CHAT).compareTo(Duration.ZERO) > 0);
+        // the retry is released by the timer but must not run on it
+        assertFalse(result.get(5, TimeUnit.SECONDS).startsWith("telegram-notifier-timer-"));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    @DisplayName("blocking sends sleep out retry_after on the calling thread")
+    void retriesBlockingSends() throws Exception {
+        FloodControl floodControl = FloodControl.builder().build();
+        AtomicInteger attempts = new AtomicInteger();
+        Thread caller = Thread.currentThread();
+
+        String result = floodControl.executeBlocking(CHAT, () -> {
+            if (attempts.getAndIncrement() == 0) {
+                throw floodError(1);
+            }
+            return Thread.currentThread() == caller ? "sent" : "wrong thread";
+        });
+
+        assertEquals("sent", result);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    @DisplayName("gives up on back-offs longer than allowed")
+    void failsOnLongBackOff() {
+        FloodControl floodControl = FloodControl.builder().maxRetryAfter(Duration.ofSeconds(5)).build();
+
+        CompletableFuture<String> result = floodControl.execute(CHAT,
+                () -> CompletableFuture.failedFuture(floodError(30)));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TelegramApiException.class, error.getCause());
+        assertTrue(floodControl.remainingPause(CHAT).compareTo(Duration.ofSeconds(25)) > 0);
+    }
+
+    private static TelegramApiException floodError(int retryAfter) {
+        byte[] body = ("{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after "
+                + retryAfter + "\",\"parameters\":{\"retry_after\":" + retryAfter + "}}")
+                .getBytes(StandardCharsets.UTF_8);
+        return assertThrows(TelegramApiException.class,
+                () -> TelegramResponseParser.parse(429, body, ResultReader.of(Object.class)));
+    }
+
+}
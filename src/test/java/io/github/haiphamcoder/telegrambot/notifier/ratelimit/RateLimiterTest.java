@@ -0,0 +1,74 @@
+package io.github.haiphamcoder.telegrambot.notifier.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+
+@DisplayName("RateLimiter")
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("spaces sends to one chat by the chat limit")
+    void spacesSendsToOneChat() {
+        TokenBucket bucket = new TokenBucket(RateLimit.perSecond(1), 0);
+
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(SECOND, bucket.reserve(0));
+        assertEquals(SECOND, bucket.reserve(SECOND));
+        assertEquals(0, bucket.reserve(3 * SECOND));
+    }
+
+    @Test
+    @DisplayName("allows the configured burst after an idle period")
+    void allowsBurstAfterIdlePeriod() {
+        TokenBucket bucket = new TokenBucket(RateLimit.perMinute(20).withBurst(3), 0);
+        long interval = TimeUnit.SECONDS.toNanos(3);
+
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(interval, bucket.reserve(0));
+    }
+
+    @Test
+    @DisplayName("runs stages waiting for a delayed permit off the timer thread")
+    void completesDelayedPermitsOffTheTimer() {
+        RateLimiter limiter = RateLimiter.builder()
+                .chatLimit(ChatType.PRIVATE, RateLimit.perSecond(20))
+                .build();
+        ChatId chat = ChatId.of(1L);
+
+        limiter.acquireAsync(chat).join();
+        String thread = limiter.acquireAsync(chat).thenApply(permit -> Thread.currentThread().getName()).join();
+
+        assertFalse(thread.startsWith("telegram-notifier-timer-"));
+    }
+
+    @Test
+    @DisplayName("drops buckets of idle chats")
+    void dropsBucketsOfIdleChats() throws InterruptedException {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = RateLimiter.builder()
+                .evictionInterval(Duration.ofSeconds(10))
+                .build(clock::get);
+
+        limiter.acquire(ChatId.of(1L));
+        limiter.acquire(ChatId.of(2L));
+        assertEquals(2, limiter.trackedChats());
+
+        clock.set(11 * SECOND);
+        limiter.acquire(ChatId.of(3L));
+        assertEquals(1, limiter.trackedChats());
+    }
+
+}
@@ -0,0 +1,66 @@
+package io.github.haiphamcoder.telegrambot.notifier.types;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.InlineKeyboardMarkup;
+import io.github.haiphamcoder.telegrambot.notifier.model.InlineKeyboardMarkup.InlineKeyboardButton;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+import io.github.haiphamcoder.telegrambot.notifier.util.JsonUtils;
+
+@DisplayName("MessageTemplate")
+class MessageTemplateTest {
+
+    private static final ObjectMapper MAPPER = JsonUtils.getObjectMapper();
+
+    private static final String AWKWARD_TEXT = "quote \" backslash \\ slash / \u0001\u001f\n\t\r "
+            + "emoji 🚀 and <b>tags</b> &  ";
+
+    @Test
+    @DisplayName("encodes the same JSON as serializing the equivalent request")
+    void encodesLikeJackson() throws IOException {
+        MessageTemplate template = template(ChatId.of(-1001234567890L));
+
+        for (String text : List.of("plain", AWKWARD_TEXT, "👍".repeat(100))) {
+            assertEquals(MAPPER.valueToTree(template.toRequest(text)), MAPPER.readTree(template.encode(text)));
+        }
+    }
+
+    @Test
+    @DisplayName("re-encodes the fixed fields for another chat, and keeps the copy")
+    void rebindsToOtherChats() throws IOException {
+        MessageTemplate template = template(ChatId.of(42L));
+
+        MessageTemplate rebound = template.withChatId(ChatId.of("@alerts"));
+        JsonNode body = MAPPER.readTree(rebound.encode(AWKWARD_TEXT));
+
+        assertEquals(MAPPER.valueToTree(rebound.toRequest(AWKWARD_TEXT)), body);
+        assertEquals("@alerts", body.get("chat_id").asText());
+        assertEquals("Ack", body.at("/reply_markup/inline_keyboard/0/0/text").asText());
+        assertSame(rebound, template.withChatId(ChatId.of("@alerts")));
+        assertNotSame(rebound, template.withChatId(ChatId.of(43L)));
+    }
+
+    private static MessageTemplate template(ChatId chatId) {
+        InlineKeyboardButton button = InlineKeyboardButton.ofText("Ack");
+        button.setCallbackData("ack:\"1\"\u0002");
+        return SendMessageRequest.builder()
+                .chatId(chatId)
+                .parseMode(ParseMode.HTML)
+                .messageThreadId(7)
+                .replyMarkup(new InlineKeyboardMarkup(List.of(List.of(button))))
+                .buildTemplate();
+    }
+
+}
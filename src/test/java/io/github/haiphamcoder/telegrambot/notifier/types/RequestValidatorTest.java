@@ -0,0 +1,66 @@
+package io.github.haiphamcoder.telegrambot.notifier.types;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.exception.TelegramValidationException;
+import io.github.haiphamcoder.telegrambot.notifier.model.ChatId;
+import io.github.haiphamcoder.telegrambot.notifier.model.InlineKeyboardMarkup;
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+
+@DisplayName("RequestValidator")
+class RequestValidatorTest {
+
+    @Test
+    @DisplayName("counts the text after entity parsing")
+    void countsTextAfterEntityParsing() {
+        String bold = "<b>" + "x".repeat(4000) + "</b> &amp; " + "y".repeat(90);
+        assertDoesNotThrow(() -> RequestValidator.validateText(bold, ParseMode.HTML));
+
+        String escaped = "\\.".repeat(4096);
+        assertDoesNotThrow(() -> RequestValidator.validateText(escaped, ParseMode.MARKDOWN_V2));
+
+        TelegramValidationException error = assertThrows(TelegramValidationException.class,
+                () -> RequestValidator.validateText(escaped + "\\!", ParseMode.MARKDOWN_V2));
+        assertEquals("text", error.getField());
+        assertEquals(400, error.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("rejects unbalanced HTML tags")
+    void rejectsUnbalancedHtml() {
+        assertDoesNotThrow(() -> RequestValidator.validateText(
+                "<b>bold <a href=\"https://example.com\">link</a></b>", ParseMode.HTML));
+
+        TelegramValidationException unclosed = assertThrows(TelegramValidationException.class,
+                () -> RequestValidator.validateText("<b>bold <i>italic</i>", ParseMode.HTML));
+        assertEquals("has an unclosed tag <b>", unclosed.getReason());
+
+        TelegramValidationException crossed = assertThrows(TelegramValidationException.class,
+                () -> RequestValidator.validateText("<b><i>x</b></i>", ParseMode.HTML));
+        assertEquals("has an unexpected end tag </b>", crossed.getReason());
+    }
+
+    @Test
+    @DisplayName("rejects malformed usernames and oversized keyboards")
+    void rejectsChatIdsAndKeyboards() {
+        assertDoesNotThrow(() -> RequestValidator.validateChatId(ChatId.of("@alerts_channel")));
+        assertDoesNotThrow(() -> RequestValidator.validateChatId(ChatId.of("-1001234567890")));
+        assertThrows(TelegramValidationException.class, () -> RequestValidator.validateChatId(ChatId.of("alerts")));
+
+        InlineKeyboardMarkup.InlineKeyboardButton button = InlineKeyboardMarkup.InlineKeyboardButton.ofText("Ack");
+        button.setCallbackData("ä".repeat(33));
+        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup(List.of(List.of(), List.of(button)));
+
+        TelegramValidationException error = assertThrows(TelegramValidationException.class,
+                () -> RequestValidator.validateReplyMarkup(keyboard));
+        assertEquals("reply_markup.inline_keyboard[1][0].callback_data", error.getField());
+    }
+
+}
@@ -0,0 +1,95 @@
+package io.github.haiphamcoder.telegrambot.notifier.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH comparison of the table-driven escapers against the replace chains they
+ * replaced ({@link LegacyEscapers}), and of the fused entity-preserving escape
+ * against the former {@code needsEscaping} pre-check followed by escaping, on a
+ * typical alert text and on one with nothing to escape. Run with
+ * {@code mvn -Dtest=EscaperBenchmark -Dbenchmark=true test}.
+ */
+@DisplayName("escaper benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscaperBenchmark {
+
+    @Param({
+        "[ALERT] db-1.prod: disk usage 93.5% (threshold 90%) - see https://grafana.example.com/d/abc?var-host=db-1",
+        "Deploy 42 finished in 3m 10s without errors on all nodes of the cluster"
+    })
+    public String text;
+
+    @Benchmark
+    public String markdownV2Legacy() {
+        return LegacyEscapers.escapeMarkdownV2(text);
+    }
+
+    @Benchmark
+    public String markdownV2() {
+        return MarkdownV2Escaper.escape(text);
+    }
+
+    @Benchmark
+    public String markdownLegacy() {
+        return LegacyEscapers.escapeMarkdown(text);
+    }
+
+    @Benchmark
+    public String markdown() {
+        return MarkdownEscaper.escape(text);
+    }
+
+    @Benchmark
+    public String htmlLegacy() {
+        return LegacyEscapers.escapeHtml(text);
+    }
+
+    @Benchmark
+    public String html() {
+        return HtmlEscaper.escape(text);
+    }
+
+    @Benchmark
+    public String markdownV2PreservingLegacy() {
+        return LegacyEscapers.escapeMarkdownV2IfNeeded(text);
+    }
+
+    @Benchmark
+    public String markdownV2Preserving() {
+        return MarkdownV2Escaper.escapePreservingEntities(text);
+    }
+
+    @Test
+    @DisplayName("table-driven vs replace-chain escaping")
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EscaperBenchmark.class.getName() + ".")
+                .shouldFailOnError(true)
+                .build())
+                .run();
+    }
+
+}
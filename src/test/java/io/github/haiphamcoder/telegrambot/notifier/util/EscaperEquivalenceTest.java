@@ -0,0 +1,80 @@
+package io.github.haiphamcoder.telegrambot.notifier.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+
+@DisplayName("table-driven escapers")
+class EscaperEquivalenceTest {
+
+    /** Every special character of the three formats, their neighbours in the table, and non-ASCII text. */
+    private static final String ALPHABET = "\\_*[]()~`>#+-=|{}.!&<>;@\"' \n\tabcXYZ019\u007f\u0080\u00e9\u4e2d";
+    private static final String[] SAMPLES = {
+        "",
+        "plain text without anything to escape",
+        "\\",
+        "*bold* _italic_ [link](https://example.com/a_b?c=1&d=2) `code` ~strike~ ||spoiler||",
+        "<b>Tom & Jerry</b> > 1 && 2 < 3",
+        "C:\\path\\to\\file.txt ends with a dot.",
+        "emoji 😀 next to specials 😀_*😀",
+    };
+
+    @Test
+    @DisplayName("produce the same output as the replace chains they replaced")
+    void matchLegacyOutput() {
+        Random random = new Random(42);
+        for (int n = 0; n < 20_000; n++) {
+            assertEquivalent(randomText(random, random.nextInt(64)));
+        }
+        for (String sample : SAMPLES) {
+            assertEquivalent(sample);
+        }
+    }
+
+    @Test
+    @DisplayName("return the input itself when nothing needs escaping")
+    void returnCleanInputAsIs() {
+        String clean = "Deploy 42 finished in 3m 10s";
+
+        assertSame(clean, MarkdownV2Escaper.escape(clean));
+        assertSame(clean, MarkdownEscaper.escape(clean));
+        assertSame(clean, HtmlEscaper.escape(clean));
+        assertNull(MarkdownV2Escaper.escape(null));
+        assertNull(MarkdownEscaper.escape(null));
+        assertNull(HtmlEscaper.escape(null));
+
+        for (ParseMode parseMode : ParseMode.values()) {
+            assertSame(clean, ParseModeEscaper.escapePreservingEntities(clean, parseMode));
+        }
+        String formatted = "*Deploy 42* finished in 3m 10s\\.";
+        assertSame(formatted, ParseModeEscaper.escapePreservingEntities(formatted, ParseMode.MARKDOWN_V2));
+        assertEquals("*Deploy 42* finished in 3m 10s\\. See \\#42\\.",
+                ParseModeEscaper.escapePreservingEntities(formatted + " See #42.", ParseMode.MARKDOWN_V2));
+    }
+
+    private static void assertEquivalent(String text) {
+        assertEquals(LegacyEscapers.escapeMarkdownV2(text), MarkdownV2Escaper.escape(text), text);
+        assertEquals(LegacyEscapers.escapeMarkdown(text), MarkdownEscaper.escape(text), text);
+        assertEquals(LegacyEscapers.escapeHtml(text), HtmlEscaper.escape(text), text);
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(8) == 0) {
+                text.appendCodePoint(0x1f600 + random.nextInt(16));
+            } else {
+                text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+        }
+        return text.toString();
+    }
+
+}
@@ -0,0 +1,78 @@
+package io.github.haiphamcoder.telegrambot.notifier.util;
+
+/**
+ * The {@code escape} implementations that the table-driven escapers replaced,
+ * and the {@code needsEscaping} pre-check the client ran before
+ * {@code escapePreservingEntities}, kept as the reference for equivalence tests
+ * and benchmarks.
+ */
+final class LegacyEscapers {
+
+    private static final String[] MARKDOWN_V2_SPECIAL_CHARS = {
+        "_", "*", "[", "]", "(", ")", "~", "`", ">", "#", "+", "-", "=", "|", "{", "}", ".", "!"
+    };
+
+    private static final String[] MARKDOWN_SPECIAL_CHARS = {
+        "_", "*", "`", "["
+    };
+
+    private LegacyEscapers() {
+    }
+
+    static String escapeMarkdownV2(String text) {
+        String result = text.replace("\\", "\\\\");
+        for (String specialChar : MARKDOWN_V2_SPECIAL_CHARS) {
+            result = result.replace(specialChar, "\\" + specialChar);
+        }
+        return result;
+    }
+
+    static String escapeMarkdown(String text) {
+        String result = text.replace("\\", "\\\\");
+        for (String specialChar : MARKDOWN_SPECIAL_CHARS) {
+            result = result.replace(specialChar, "\\" + specialChar);
+        }
+        return result;
+    }
+
+    static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /** The client's former send path: a separate check before escaping. */
+    static String escapeMarkdownV2IfNeeded(String text) {
+        return containsMarkdownV2SpecialChars(unescapeAlreadyEscaped(text))
+                ? MarkdownV2Escaper.escapePreservingEntities(text)
+                : text;
+    }
+
+    private static boolean containsMarkdownV2SpecialChars(String text) {
+        for (String specialChar : MARKDOWN_V2_SPECIAL_CHARS) {
+            if (text.contains(specialChar)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String unescapeAlreadyEscaped(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        int index = 0;
+        while (index < text.length()) {
+            char current = text.charAt(index);
+            if (current == '\\' && index + 1 < text.length()
+                    && "_*[]()~`>#+-=|{}.!".indexOf(text.charAt(index + 1)) >= 0) {
+                sb.append(text.charAt(index + 1));
+                index += 2;
+            } else {
+                sb.append(current);
+                index++;
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,73 @@
+package io.github.haiphamcoder.telegrambot.notifier.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.haiphamcoder.telegrambot.notifier.model.ParseMode;
+
+@DisplayName("MessageSplitter")
+class MessageSplitterTest {
+
+    @Test
+    @DisplayName("prefers line breaks, then spaces, and drops the break")
+    void cutsAtLineBreaksAndSpaces() {
+        String text = "first line\nsecond line that is long";
+
+        List<String> parts = MessageSplitter.split(text, null, 20);
+
+        assertEquals(List.of("first line", "second line that is", "long"), parts);
+    }
+
+    @Test
+    @DisplayName("rejects a missing text")
+    void rejectsNullText() {
+        assertThrows(IllegalArgumentException.class, () -> MessageSplitter.split(null, null, 20));
+    }
+
+    @Test
+    @DisplayName("closes and reopens MarkdownV2 formatting across a cut")
+    void reopensMarkdownV2Formatting() {
+        String text = "*bold _italic words here_ done* and ```java\nint a \\= 1;\nint b \\= 2;\n```";
+
+        List<String> parts = MessageSplitter.split(text, ParseMode.MARKDOWN_V2, 24);
+
+        assertEquals(List.of(
+                "*bold _italic words_*",
+                "*_here_ done* and",
+                "```java\nint a \\= 1;```",
+                "```java\nint b \\= 2;\n```"), parts);
+    }
+
+    @Test
+    @DisplayName("keeps an escape sequence whole when it starts a part")
+    void keepsEscapeSequenceAtStartOfPart() {
+        String text = "x".repeat(10) + "\\~" + "y".repeat(12);
+
+        List<String> parts = MessageSplitter.split(text, ParseMode.MARKDOWN_V2, 10);
+
+        assertEquals(List.of("x".repeat(10), "\\~" + "y".repeat(8), "y".repeat(4)), parts);
+    }
+
+    @Test
+    @DisplayName("never cuts inside HTML tags, entities or surrogate pairs")
+    void keepsHtmlAtomsWhole() {
+        String text = "<b>Tom &amp; Jerry <a href=\"https://example.com\">link</a></b> 😀😀";
+
+        List<String> parts = MessageSplitter.split(text, ParseMode.HTML, 48);
+
+        assertEquals(List.of(
+                "<b>Tom &amp; Jerry</b>",
+                "<b><a href=\"https://example.com\">link</a></b>",
+                "😀😀"), parts);
+        for (String part : parts) {
+            assertTrue(part.length() <= 48);
+        }
+    }
+
+}